@@ -0,0 +1,57 @@
+package com.travelhub.benchmark;
+
+import com.travelhub.dto.BookingRequest;
+import com.travelhub.model.Booking;
+import com.travelhub.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// full createBooking transaction: hotel lookup, availability, ledger update and insert
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+@State(Scope.Thread)
+public class BookingBenchmark {
+    
+    private BookingService bookingService;
+    private CatalogState catalog;
+    private SplittableRandom random;
+    
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        this.catalog = catalog;
+        this.bookingService = catalog.bean(BookingService.class);
+        this.random = new SplittableRandom(Thread.currentThread().threadId());
+    }
+    
+    @Benchmark
+    public Booking createBooking() {
+        // random hotel and night spread over the year, so rooms last the whole run
+        LocalDate checkIn = LocalDate.now().plusDays(1 + random.nextInt(300));
+        BookingRequest request = new BookingRequest();
+        request.setHotelId(catalog.firstHotelId + random.nextLong(catalog.lastHotelId - catalog.firstHotelId + 1));
+        request.setCustomerEmail("bench@example.com");
+        request.setCustomerName("Bench Guest");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkIn.plusDays(1 + random.nextInt(3)));
+        request.setNumberOfGuests(1);
+        return bookingService.createBooking(request);
+    }
+}
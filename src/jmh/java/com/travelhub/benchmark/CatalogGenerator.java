@@ -0,0 +1,54 @@
+package com.travelhub.benchmark;
+
+import com.travelhub.model.Hotel;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic hotel catalog, far larger than data.sql. City names are
+ * built from syllables so the search index sees realistic multi-token names, and
+ * hotels are spread unevenly over cities the way real catalogs are.
+ */
+public final class CatalogGenerator {
+    
+    private static final String[] FIRST = {"San", "Port", "New", "Bel", "Kra", "Lis", "Chi", "Mar", "Ha", "Sol",
+                                           "Ver", "Oak", "Ros", "Tam", "Ode", "Vil"};
+    private static final String[] LAST = {"ton", "mont", "haven", "bridge", "field", "grad", "polis", "mouth",
+                                          "ville", "burg", "stad", "ford", "mar", "dale", "wick", "berg"};
+    private static final String[] COUNTRIES = {"Thailand", "Singapore", "Japan", "Vietnam", "Malaysia",
+                                               "Indonesia", "Philippines", "Korea"};
+    private static final String[] KINDS = {"Grand Hotel", "Resort", "Inn", "Suites", "Boutique Hotel", "Lodge"};
+    
+    private final Random random;
+    private final List<String> cities;
+    
+    public CatalogGenerator(int cityCount, long seed) {
+        this.random = new Random(seed);
+        this.cities = new ArrayList<>(cityCount);
+        for (int i = 0; i < cityCount; i++) {
+            String name = FIRST[i % FIRST.length] + LAST[(i / FIRST.length) % LAST.length];
+            cities.add(i < FIRST.length * LAST.length ? name : name + " " + (i / (FIRST.length * LAST.length) + 1));
+        }
+    }
+    
+    public List<String> cities() {
+        return cities;
+    }
+    
+    public List<Hotel> hotels(int count) {
+        List<Hotel> hotels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // squaring skews hotels towards the first cities
+            double skew = random.nextDouble();
+            String city = cities.get((int) (skew * skew * cities.size()));
+            int stars = 1 + random.nextInt(5);
+            BigDecimal price = BigDecimal.valueOf((20 + stars * 30) * 100L + random.nextInt(40_000), 2);
+            hotels.add(new Hotel(city + " " + KINDS[random.nextInt(KINDS.length)] + " " + i, city,
+                                 COUNTRIES[random.nextInt(COUNTRIES.length)], stars, price, 50 + random.nextInt(250)));
+        }
+        return hotels;
+    }
+}
@@ -0,0 +1,68 @@
+package com.travelhub.benchmark;
+
+import com.travelhub.TravelHubApp;
+import com.travelhub.model.Hotel;
+import com.travelhub.repository.HotelRepository;
+import com.travelhub.service.AvailabilityEngine;
+import com.travelhub.service.HotelSearchIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+// the application without its web server, seeded with a synthetic catalog once per fork
+@State(Scope.Benchmark)
+public class CatalogState {
+    
+    private static final int CHUNK = 1_000;
+    
+    @Param({"50000"})
+    public int hotels;
+    
+    @Param({"500"})
+    public int cities;
+    
+    ConfigurableApplicationContext context;
+    List<String> cityNames;
+    long firstHotelId;
+    long lastHotelId;
+    
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(TravelHubApp.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.datasource.url=jdbc:h2:mem:benchmark",
+                 "--spring.jpa.show-sql=false",
+                 "--logging.level.com.travelhub=WARN");
+        
+        CatalogGenerator generator = new CatalogGenerator(cities, 42);
+        List<Hotel> catalog = generator.hotels(hotels);
+        HotelRepository repository = context.getBean(HotelRepository.class);
+        for (int from = 0; from < catalog.size(); from += CHUNK) {
+            repository.saveAll(catalog.subList(from, Math.min(catalog.size(), from + CHUNK)));
+        }
+        cityNames = generator.cities();
+        firstHotelId = catalog.get(0).getId();
+        lastHotelId = catalog.get(catalog.size() - 1).getId();
+        
+        // both were loaded on startup from the Flyway seed alone
+        context.getBean(AvailabilityEngine.class).load();
+        context.getBean(HotelSearchIndex.class).load();
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+    
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,140 @@
+package com.travelhub.benchmark;
+
+import com.travelhub.dto.NearbyCriteria;
+import com.travelhub.dto.NearbyHotel;
+import com.travelhub.model.Hotel;
+import com.travelhub.service.HotelGeoIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// proximity queries against the grid and against a scan of every hotel; hotels are
+// clustered around a few hundred city centres over Southeast Asia like a real catalog
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class GeoBenchmark {
+    
+    private static final int CENTRES = 400;
+    private static final int K = 20;
+    
+    @Param({"1000000"})
+    private int hotels;
+    
+    private HotelGeoIndex index;
+    private double[] lats;
+    private double[] lons;
+    private double[] centreLats;
+    private double[] centreLons;
+    private SplittableRandom random;
+    
+    @Setup
+    public void setUp() {
+        SplittableRandom seeded = new SplittableRandom(42);
+        centreLats = new double[CENTRES];
+        centreLons = new double[CENTRES];
+        for (int i = 0; i < CENTRES; i++) {
+            centreLats[i] = -10 + seeded.nextDouble() * 35;
+            centreLons[i] = 95 + seeded.nextDouble() * 30;
+        }
+        
+        List<Hotel> catalog = new ArrayList<>(hotels);
+        lats = new double[hotels];
+        lons = new double[hotels];
+        for (int i = 0; i < hotels; i++) {
+            // most hotels within about 20 km of a centre, the rest anywhere in the region
+            int centre = seeded.nextInt(CENTRES);
+            boolean clustered = seeded.nextInt(10) < 8;
+            lats[i] = clustered ? centreLats[centre] + seeded.nextDouble(-0.2, 0.2) : -10 + seeded.nextDouble() * 35;
+            lons[i] = clustered ? centreLons[centre] + seeded.nextDouble(-0.2, 0.2) : 95 + seeded.nextDouble() * 30;
+            Hotel hotel = new Hotel("Hotel " + i, "City", "Country", 1 + seeded.nextInt(5), BigDecimal.TEN, 10);
+            hotel.setId(i + 1L);
+            hotel.setLatitude(lats[i]);
+            hotel.setLongitude(lons[i]);
+            catalog.add(hotel);
+        }
+        index = new HotelGeoIndex();
+        index.rebuild(catalog);
+        random = new SplittableRandom(7);
+    }
+    
+    @Benchmark
+    public List<NearbyHotel> radius5Km() {
+        NearbyCriteria criteria = queryPoint();
+        criteria.setRadiusKm(5.0);
+        return index.nearby(criteria, K);
+    }
+    
+    @Benchmark
+    public List<NearbyHotel> radius50Km() {
+        NearbyCriteria criteria = queryPoint();
+        criteria.setRadiusKm(50.0);
+        return index.nearby(criteria, K);
+    }
+    
+    @Benchmark
+    public List<NearbyHotel> nearest() {
+        return index.nearby(queryPoint(), K);
+    }
+    
+    @Benchmark
+    public List<NearbyHotel> nearestFourStars() {
+        NearbyCriteria criteria = queryPoint();
+        criteria.setMinStars(4);
+        return index.nearby(criteria, K);
+    }
+    
+    // baseline: haversine to every hotel, keeping the closest K by insertion
+    @Benchmark
+    public int nearestFullScan() {
+        NearbyCriteria criteria = queryPoint();
+        double lat = Math.toRadians(criteria.getLatitude());
+        double lon = Math.toRadians(criteria.getLongitude());
+        double cosLat = Math.cos(lat);
+        double[] best = new double[K];
+        int[] bestAt = new int[K];
+        Arrays.fill(best, Double.MAX_VALUE);
+        for (int i = 0; i < lats.length; i++) {
+            double otherLat = Math.toRadians(lats[i]);
+            double sinLat = Math.sin((otherLat - lat) / 2);
+            double sinLon = Math.sin((Math.toRadians(lons[i]) - lon) / 2);
+            double hav = sinLat * sinLat + cosLat * Math.cos(otherLat) * sinLon * sinLon;
+            if (hav < best[K - 1]) {
+                int at = K - 1;
+                while (at > 0 && best[at - 1] > hav) {
+                    best[at] = best[at - 1];
+                    bestAt[at] = bestAt[at - 1];
+                    at--;
+                }
+                best[at] = hav;
+                bestAt[at] = i;
+            }
+        }
+        return bestAt[0];
+    }
+    
+    // searches start near a random city centre, where users actually look
+    private NearbyCriteria queryPoint() {
+        int centre = random.nextInt(CENTRES);
+        return new NearbyCriteria(centreLats[centre] + random.nextDouble(-0.3, 0.3),
+                                  centreLons[centre] + random.nextDouble(-0.3, 0.3));
+    }
+}
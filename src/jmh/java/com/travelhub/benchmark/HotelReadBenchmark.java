@@ -0,0 +1,76 @@
+package com.travelhub.benchmark;
+
+import com.travelhub.dto.HotelCursor;
+import com.travelhub.dto.HotelPage;
+import com.travelhub.dto.HotelSearchCriteria;
+import com.travelhub.dto.HotelSort;
+import com.travelhub.model.Hotel;
+import com.travelhub.service.HotelService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Thread)
+public class HotelReadBenchmark {
+    
+    private static final int PAGE_SIZE = 20;
+    
+    private HotelService hotelService;
+    private List<String> cities;
+    private SplittableRandom random;
+    
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        this.hotelService = catalog.bean(HotelService.class);
+        this.cities = catalog.cityNames;
+        this.random = new SplittableRandom(Thread.currentThread().threadId());
+    }
+    
+    // served from the hotel cache once every city has been asked for
+    @Benchmark
+    public List<Hotel> findByCity() {
+        return hotelService.findByCity(cities.get(random.nextInt(cities.size())));
+    }
+    
+    @Benchmark
+    public HotelPage searchByCity() {
+        HotelSearchCriteria criteria = new HotelSearchCriteria();
+        criteria.setCity(cities.get(random.nextInt(cities.size())));
+        return hotelService.search(criteria, HotelCursor.start(HotelSort.PRICE), PAGE_SIZE);
+    }
+    
+    // every hotel with a room tonight, the unpaged legacy listing
+    @Benchmark
+    public List<Hotel> findAvailableHotels() {
+        return hotelService.findAvailableHotels();
+    }
+    
+    @Benchmark
+    public HotelPage findAvailableHotelsFirstPage() {
+        return hotelService.findAvailableHotels(HotelCursor.start(HotelSort.ID), PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public HotelPage findAvailableHotelsByPrice() {
+        return hotelService.findAvailableHotels(HotelCursor.start(HotelSort.PRICE), PAGE_SIZE);
+    }
+}
@@ -0,0 +1,77 @@
+package com.travelhub.benchmark;
+
+import com.travelhub.model.Hotel;
+import com.travelhub.service.PricingEngine;
+import com.travelhub.service.PricingRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+// the same weekend, guest and tax rules priced with BigDecimal per night and with the engine;
+// run with -prof gc to compare allocation per stay
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+    
+    private static final BigDecimal WEEKEND = new BigDecimal("1.10");
+    private static final BigDecimal GUEST_FEE = new BigDecimal("15.00");
+    private static final BigDecimal TAX = new BigDecimal("0.07");
+    
+    @Param({"1", "3", "14"})
+    private int nights;
+    
+    private Hotel hotel;
+    private PricingEngine engine;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    
+    @Setup
+    public void setUp() {
+        hotel = new Hotel("Benchmark Hotel", "Bangkok", "Thailand", 4, new BigDecimal("150.00"), 10);
+        hotel.setId(1L);
+        engine = new PricingEngine(new PricingRules(1000, EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY),
+            0, EnumSet.noneOf(Month.class), 2, 1500, 700), 365);
+        checkIn = LocalDate.now().plusDays(30);
+        checkOut = checkIn.plusDays(nights);
+    }
+    
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal rooms = BigDecimal.ZERO;
+        for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+            DayOfWeek day = night.getDayOfWeek();
+            BigDecimal rate = hotel.getPricePerNight();
+            if (day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY) {
+                rate = rate.multiply(WEEKEND).setScale(2, RoundingMode.HALF_UP);
+            }
+            rooms = rooms.add(rate);
+        }
+        BigDecimal subtotal = rooms.add(GUEST_FEE.multiply(BigDecimal.valueOf(nights)));
+        return subtotal.add(subtotal.multiply(TAX).setScale(2, RoundingMode.HALF_UP));
+    }
+    
+    @Benchmark
+    public long engine() {
+        return engine.totalMinor(hotel, checkIn, checkOut, 3);
+    }
+}
@@ -0,0 +1,39 @@
+package com.travelhub.benchmark;
+
+import com.travelhub.service.SnowflakeReferenceGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// one generator shared by all threads, as in the application
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReferenceBenchmark {
+    
+    private final SnowflakeReferenceGenerator generator = new SnowflakeReferenceGenerator(1);
+    
+    @Benchmark
+    @Threads(1)
+    public String next() {
+        return generator.next();
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public String nextContended() {
+        return generator.next();
+    }
+}
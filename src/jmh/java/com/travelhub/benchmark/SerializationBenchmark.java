@@ -0,0 +1,67 @@
+package com.travelhub.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelhub.model.Booking;
+import com.travelhub.model.Hotel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// response bodies as the controllers write them, with the same Jackson setup as Spring Boot
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    
+    private ObjectMapper objectMapper;
+    private Hotel hotel;
+    private Booking booking;
+    private List<Hotel> page;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        page = new CatalogGenerator(50, 7).hotels(20);
+        for (int i = 0; i < page.size(); i++) {
+            page.get(i).setId(i + 1L);
+        }
+        hotel = page.get(0);
+        booking = new Booking("TH-0DFMV2C0004G1", "guest@example.com", "Guest Name", hotel,
+                              LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 4), 2, new BigDecimal("450.00"));
+        booking.setId(1L);
+        booking.setCreatedAt(LocalDateTime.of(2025, 1, 15, 10, 30));
+    }
+    
+    @Benchmark
+    public byte[] hotel() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(hotel);
+    }
+    
+    @Benchmark
+    public byte[] booking() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(booking);
+    }
+    
+    @Benchmark
+    public byte[] hotelPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -2,8 +2,10 @@ package com.travelhub;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TravelHubApp {
     public static void main(String[] args) {
         SpringApplication.run(TravelHubApp.class, args);
@@ -1,35 +1,278 @@
 package com.travelhub.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelhub.dto.BatchBookingRequest;
+import com.travelhub.dto.BatchBookingResponse;
+import com.travelhub.dto.BatchBookingResult;
 import com.travelhub.dto.BookingRequest;
+import com.travelhub.dto.BookingStatusResponse;
+import com.travelhub.dto.BookingSummary;
+import com.travelhub.dto.IdempotentBooking;
 import com.travelhub.model.Booking;
+import com.travelhub.service.BookingAdmission;
+import com.travelhub.service.BookingNotFoundException;
+import com.travelhub.service.BookingOverloadedException;
+import com.travelhub.service.BookingQueueFullException;
+import com.travelhub.service.BookingRateLimitedException;
 import com.travelhub.service.BookingService;
+import com.travelhub.service.IdempotencyKeyMismatchException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
     
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    static final String PREFER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    static final String RESPOND_ASYNC = "respond-async";
+    // agencies booking for many customers are identified by the gateway, everyone else is limited per email
+    static final String CLIENT_ID = "X-Client-Id";
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    
+    private static final String CSV_HEADER = "bookingReference,customerEmail,customerName,hotelId,hotelName,hotelCity,"
+        + "checkInDate,checkOutDate,numberOfGuests,totalAmount,status,createdAt\n";
+    
     @Autowired
     private BookingService bookingService;
     
+    @Autowired
+    private BookingAdmission admission;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // the header is unauthenticated, a client sending a new id each time would get a fresh bucket
+    @Value("${travelhub.booking.admission.trust-client-id:false}")
+    private boolean trustClientId;
+    
+    // a retried request carrying the same Idempotency-Key gets the original booking back;
+    // Prefer: respond-async queues the confirmation and answers 202, unless a key is given.
+    // Clients over their rate get 429 and a full house 503, both before any transaction
     @PostMapping
-    public ResponseEntity<Booking> createBooking(@Valid @RequestBody BookingRequest request) {
+    public ResponseEntity<?> createBooking(@Valid @RequestBody BookingRequest request,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                           @RequestHeader(value = PREFER, required = false) String prefer,
+                                           @RequestHeader(value = CLIENT_ID, required = false) String clientId) {
+        try (BookingAdmission.Permit permit = admission.admit(client(clientId, request.getCustomerEmail()), 1)) {
+            return admitted(request, idempotencyKey, prefer);
+        } catch (BookingRateLimitedException e) {
+            return rateLimited(e);
+        } catch (BookingOverloadedException e) {
+            return overloaded();
+        }
+    }
+    
+    private ResponseEntity<?> admitted(BookingRequest request, String idempotencyKey, String prefer) {
+        if (idempotencyKey == null && prefer != null && prefer.contains(RESPOND_ASYNC)) {
+            return enqueueBooking(request);
+        }
+        if (idempotencyKey == null) {
+            try {
+                Booking booking = bookingService.createBooking(request);
+                return ResponseEntity.ok(booking);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            Booking booking = bookingService.createBooking(request);
-            return ResponseEntity.ok(booking);
+            IdempotentBooking outcome = bookingService.createBooking(request, idempotencyKey);
+            return ResponseEntity.ok()
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(outcome.replayed()))
+                .body(outcome.booking());
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.unprocessableEntity().build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    private ResponseEntity<BookingStatusResponse> enqueueBooking(BookingRequest request) {
+        try {
+            Booking booking = bookingService.enqueueBooking(request);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/bookings/" + booking.getBookingReference() + "/status"))
+                .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                .body(new BookingStatusResponse(booking.getBookingReference(), Booking.BookingStatus.PENDING));
+        } catch (BookingQueueFullException e) {
+            return overloaded();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/{reference}/status")
+    public ResponseEntity<BookingStatusResponse> getBookingStatus(@PathVariable String reference) {
+        return bookingService.findStatus(reference)
+            .map(status -> ResponseEntity.ok(new BookingStatusResponse(reference, status)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // repeating a cancellation is harmless and answers the same
+    @PostMapping("/{reference}/cancel")
+    public ResponseEntity<BookingStatusResponse> cancelBooking(@PathVariable String reference) {
+        try {
+            bookingService.cancelBooking(reference);
+            return ResponseEntity.ok(new BookingStatusResponse(reference, Booking.BookingStatus.CANCELLED));
+        } catch (BookingNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    @DeleteMapping("/{reference}")
+    public ResponseEntity<BookingStatusResponse> deleteBooking(@PathVariable String reference) {
+        return cancelBooking(reference);
+    }
+    
+    // items are booked independently, a full hotel only fails its own items;
+    // every item counts against the client's rate, a batch over the burst is refused whole
+    @PostMapping("/batch")
+    public ResponseEntity<BatchBookingResponse> createBookings(@Valid @RequestBody BatchBookingRequest request,
+                                                               @RequestHeader(value = CLIENT_ID, required = false)
+                                                               String clientId) {
+        List<BookingRequest> bookings = request.getBookings();
+        String client = client(clientId, bookings.get(0).getCustomerEmail());
+        try (BookingAdmission.Permit permit = admission.admit(client, bookings.size())) {
+            List<BatchBookingResult> results = bookingService.createBookings(bookings);
+            return ResponseEntity.ok(BatchBookingResponse.of(results));
+        } catch (BookingRateLimitedException e) {
+            return rateLimited(e);
+        } catch (BookingOverloadedException e) {
+            return overloaded();
+        }
+    }
+    
+    private String client(String clientId, String email) {
+        return !trustClientId || clientId == null || clientId.isBlank() ? "email:" + email : "client:" + clientId.strip();
+    }
+    
+    private static <T> ResponseEntity<T> rateLimited(BookingRateLimitedException e) {
+        if (e.getRetryAfter() == null) {
+            // larger than the client's burst, no retry will fit
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        // whole seconds, rounded up so the retry does not arrive early
+        long seconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+            .build();
+    }
+    
+    private static <T> ResponseEntity<T> overloaded() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .build();
+    }
+    
     @GetMapping
-    public ResponseEntity<List<Booking>> getBookings(@RequestParam String email) {
-        List<Booking> bookings = bookingService.findBookingsByEmail(email);
+    public ResponseEntity<List<BookingSummary>> getBookings(@RequestParam String email,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<BookingSummary> bookings = bookingService.findBookingsByEmail(email, page, size);
         return ResponseEntity.ok(bookings);
     }
-}
\ No newline at end of file
+    
+    // full booking history written row by row as it is read, for accounts too large to page through
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam String email,
+                                                                @RequestParam(defaultValue = "ndjson") String format) {
+        boolean csv = format.equalsIgnoreCase("csv");
+        if (!csv && !format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody body = csv
+            ? out -> writeCsv(email, out)
+            : out -> writeNdjson(email, out);
+        return ResponseEntity.ok()
+            .contentType(csv ? CSV : NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings." + (csv ? "csv" : "ndjson") + "\"")
+            .body(body);
+    }
+    
+    private void writeNdjson(String email, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            bookingService.exportBookingsByEmail(email, booking -> {
+                try {
+                    generator.writeObject(booking);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+    
+    private void writeCsv(String email, OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            bookingService.exportBookingsByEmail(email, booking -> {
+                try {
+                    writer.write(csvRow(booking));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+    
+    private static String csvRow(BookingSummary booking) {
+        return String.join(",",
+            csvField(booking.bookingReference()),
+            csvField(booking.customerEmail()),
+            csvField(booking.customerName()),
+            csvField(booking.hotelId()),
+            csvField(booking.hotelName()),
+            csvField(booking.hotelCity()),
+            csvField(booking.checkInDate()),
+            csvField(booking.checkOutDate()),
+            csvField(booking.numberOfGuests()),
+            csvField(booking.totalAmount() == null ? null : booking.totalAmount().toPlainString()),
+            csvField(booking.status()),
+            csvField(booking.createdAt())) + "\n";
+    }
+    
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,36 +1,217 @@
 package com.travelhub.controller;
 
-import com.travelhub.model.Hotel;
+import com.travelhub.dto.CachedResponse;
+import com.travelhub.dto.HotelCursor;
+import com.travelhub.dto.HotelImportResult;
+import com.travelhub.dto.HotelSearchCriteria;
+import com.travelhub.dto.HotelSort;
+import com.travelhub.dto.NearbyCriteria;
+import com.travelhub.dto.NearbyHotel;
+import com.travelhub.dto.PriceQuote;
+import com.travelhub.service.HotelImportService;
+import com.travelhub.service.HotelNotPricedException;
+import com.travelhub.service.HotelResponseCache;
 import com.travelhub.service.HotelService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/hotels")
 public class HotelController {
     
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_PAGE_SIZE = 100;
+    
+    static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    
     @Autowired
     private HotelService hotelService;
     
+    @Autowired
+    private HotelImportService hotelImportService;
+    
+    @Autowired
+    private HotelResponseCache responseCache;
+    
+    // tonight's availability decides the listing, so it is cached under tonight's date
     @GetMapping
-    public ResponseEntity<List<Hotel>> getAllHotels() {
-        List<Hotel> hotels = hotelService.findAvailableHotels();
-        return ResponseEntity.ok(hotels);
+    public ResponseEntity<byte[]> getAllHotels(@RequestParam(defaultValue = "id") String sort,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "20") int size,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                               String acceptEncoding) {
+        try {
+            HotelCursor start = cursor(sort, cursor);
+            int pageSize = pageSize(size);
+            LocalDate tonight = LocalDate.now();
+            CachedResponse page = responseCache.listing(Arrays.asList("available", start, pageSize),
+                tonight, tonight.plusDays(1), () -> hotelService.findAvailableHotels(start, pageSize));
+            return cachedResponse(page, acceptEncoding);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Hotel> getHotel(@PathVariable Long id) {
-        return hotelService.findById(id)
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getHotel(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                           String acceptEncoding) {
+        CachedResponse hotel = responseCache.hotel(id, key -> hotelService.findById(key).orElse(null));
+        return hotel == null ? ResponseEntity.notFound().build() : cachedResponse(hotel, acceptEncoding);
+    }
+    
+    @GetMapping("/{id}/quote")
+    public ResponseEntity<PriceQuote> quote(@PathVariable Long id,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+                                            @RequestParam(defaultValue = "1") int guests) {
+        if (!checkOut.isAfter(checkIn) || guests < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return hotelService.quote(id, checkIn, checkOut, guests)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (HotelNotPricedException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+    }
+    
+    // the body is parsed as it arrives, catalogs are not buffered whole
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<HotelImportResult> importHotels(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                          InputStream body) throws IOException {
+        try {
+            HotelImportResult result = MediaType.parseMediaType(contentType).isCompatibleWith(CSV)
+                ? hotelImportService.importCsv(body)
+                : hotelImportService.importNdjson(body);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Hotel>> searchHotels(@RequestParam String city) {
-        List<Hotel> hotels = hotelService.findByCity(city);
-        return ResponseEntity.ok(hotels);
+    public ResponseEntity<byte[]> searchHotels(HotelSearchCriteria criteria,
+                                               @RequestParam(defaultValue = "id") String sort,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "20") int size,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                               String acceptEncoding) {
+        try {
+            criteria.validate();
+            HotelCursor start = cursor(sort, cursor);
+            int pageSize = pageSize(size);
+            CachedResponse page = responseCache.listing(searchKey(criteria, start, pageSize),
+                criteria.getCheckIn(), criteria.getCheckOut(), () -> hotelService.search(criteria, start, pageSize));
+            return cachedResponse(page, acceptEncoding);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // nearest first; without radiusKm the closest `size` hotels however far away
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyHotel>> nearbyHotels(NearbyCriteria criteria,
+                                                          @RequestParam(defaultValue = "20") int size) {
+        try {
+            criteria.validate();
+            return ResponseEntity.ok(hotelService.findNearby(criteria, pageSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // the body stays a plain array, the position of the next page goes in a header;
+    // conditional requests are answered with 304 by Spring from the ETag set here
+    private static ResponseEntity<byte[]> cachedResponse(CachedResponse cached, String acceptEncoding) {
+        boolean gzip = cached.hasGzipped() && acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .eTag(gzip ? cached.gzippedEtag() : cached.etag());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        if (cached.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, cached.nextCursor());
+        }
+        return response.body(gzip ? cached.gzipped() : cached.body());
+    }
+    
+    // gzip or * listed without q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].strip();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].strip();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            return quality > 0;
+        }
+        return false;
+    }
+    
+    // every filter normalized the way the index compares it, so equivalent searches share an entry
+    private static List<?> searchKey(HotelSearchCriteria criteria, HotelCursor cursor, int size) {
+        return Arrays.asList("search", normalized(criteria.getCity()), normalized(criteria.getCountry()),
+            criteria.getMinStars(), criteria.getMaxStars(), plain(criteria.getMinPrice()), plain(criteria.getMaxPrice()),
+            criteria.getCheckIn(), criteria.getCheckOut(), criteria.hasStayWindow() ? criteria.getRooms() : null,
+            cursor, size);
+    }
+    
+    private static String normalized(String value) {
+        return value == null || value.isBlank() ? null : value.strip().toLowerCase(Locale.ROOT);
+    }
+    
+    private static String plain(BigDecimal amount) {
+        return amount == null ? null : amount.stripTrailingZeros().toPlainString();
+    }
+    
+    private static HotelCursor cursor(String sort, String cursor) {
+        HotelSort requested = HotelSort.parse(sort);
+        if (cursor == null) {
+            return HotelCursor.start(requested);
+        }
+        HotelCursor decoded = HotelCursor.decode(cursor);
+        if (decoded.getSort() != requested) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
+        }
+        return decoded;
+    }
+    
+    private static int pageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
     }
-}
\ No newline at end of file
+}
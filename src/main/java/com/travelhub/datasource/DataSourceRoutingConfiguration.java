@@ -0,0 +1,63 @@
+package com.travelhub.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits reads from writes once travelhub.datasource.replica.url is set: the
+ * primary is still configured under spring.datasource, the replica gets its own
+ * pool, and the application sees one routing datasource that sends read-only
+ * transactions to the replica. Flyway and Hibernate's schema validation run
+ * outside any transaction, so they always talk to the primary.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "travelhub.datasource.replica", name = "url")
+public class DataSourceRoutingConfiguration {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+    
+    @Bean
+    @ConfigurationProperties("travelhub.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${travelhub.datasource.replica.url}") String url,
+                                              @Value("${travelhub.datasource.replica.username:}") String username,
+                                              @Value("${travelhub.datasource.replica.password:}") String password,
+                                              @Value("${travelhub.datasource.replica.migrate:false}") boolean migrate,
+                                              @Value("${spring.flyway.locations:classpath:db/migration}") String[] locations) {
+        if (migrate) {
+            // a local replica is just a second embedded database, a real one gets its schema from replication
+            Flyway.configure().dataSource(url, username, password).locations(locations).load().migrate();
+        }
+        HikariDataSource replica = new HikariDataSource();
+        replica.setJdbcUrl(url);
+        replica.setUsername(username);
+        replica.setPassword(password);
+        replica.setPoolName("replica");
+        // every connection only ever reads, the driver may use that
+        replica.setReadOnly(true);
+        return replica;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+    }
+}
@@ -0,0 +1,55 @@
+package com.travelhub.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica and everything else, including
+ * work outside a transaction, to the primary. The decision is taken when the
+ * connection is fetched, so this must sit behind a lazy connection proxy:
+ * the transaction's read-only flag is only set after it has begun.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public enum Route { PRIMARY, REPLICA }
+    
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+    
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+    
+    /**
+     * Runs the query with read-only transactions sent to the primary, for reads
+     * that must see a write the replica may not have caught up with yet. Only
+     * connections fetched inside the call are affected.
+     */
+    public static <T> T onPrimary(Supplier<T> query) {
+        Boolean outer = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            if (outer == null) {
+                PINNED.remove();
+            }
+        }
+    }
+    
+    public static Route currentRoute() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PINNED.get() == null
+            ? Route.REPLICA
+            : Route.PRIMARY;
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+}
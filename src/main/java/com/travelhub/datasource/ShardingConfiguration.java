@@ -0,0 +1,88 @@
+package com.travelhub.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads bookings over several databases once travelhub.sharding.shard-urls is
+ * set. spring.datasource stays shard 0, which also owns the hotel catalog, and
+ * every listed url adds a shard. All shards get the full schema from the same
+ * migrations and share the spring.datasource.hikari settings. The application
+ * sees a single datasource that follows the shard chosen for the current thread.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "travelhub.sharding", name = "shard-urls")
+public class ShardingConfiguration {
+    
+    // booking ids of shard n start at n << 48, so ids stay unique across shards
+    static final int SHARD_ID_SHIFT = 48;
+    
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties,
+                                                         Environment environment,
+                                                         ObjectProvider<MeterRegistry> meterRegistry,
+                                                         @Value("${travelhub.sharding.shard-urls}") List<String> shardUrls,
+                                                         @Value("${spring.flyway.locations:classpath:db/migration}") String[] locations) {
+        String username = environment.getProperty("travelhub.sharding.username", properties.determineUsername());
+        String password = environment.getProperty("travelhub.sharding.password", properties.determinePassword());
+        
+        List<DataSource> shards = new ArrayList<>();
+        // shard 0 is migrated by Flyway's auto-configuration like a single database
+        shards.add(pool(environment, meterRegistry, 0, properties.determineUrl(),
+                        properties.determineUsername(), properties.determinePassword()));
+        for (String url : shardUrls) {
+            int shard = shards.size();
+            HikariDataSource pool = pool(environment, meterRegistry, shard, url.trim(), username, password);
+            Flyway.configure().dataSource(pool).locations(locations).load().migrate();
+            startBookingIdsAt(pool, (long) shard << SHARD_ID_SHIFT);
+            shards.add(pool);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        // connections are only fetched once a statement runs, so a transaction
+        // that never touches the database does not hold one on the home shard
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+    
+    private static HikariDataSource pool(Environment environment, ObjectProvider<MeterRegistry> meterRegistry,
+                                         int shard, String url, String username, String password) {
+        HikariDataSource pool = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setPoolName("shard-" + shard);
+        meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return pool;
+    }
+    
+    private static void startBookingIdsAt(DataSource shard, long first) {
+        JdbcTemplate jdbc = new JdbcTemplate(shard);
+        Long next = jdbc.queryForObject("SELECT NEXT VALUE FOR booking_seq", Long.class);
+        if (next != null && next < first) {
+            jdbc.execute("ALTER SEQUENCE booking_seq RESTART WITH " + first);
+        }
+    }
+}
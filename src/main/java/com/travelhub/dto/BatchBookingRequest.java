@@ -0,0 +1,22 @@
+package com.travelhub.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class BatchBookingRequest {
+    public static final int MAX_BOOKINGS = 500;
+    
+    @NotEmpty(message = "At least one booking is required")
+    @Size(max = MAX_BOOKINGS, message = "At most 500 bookings per batch")
+    private List<@NotNull(message = "Bookings must not be null") @Valid BookingRequest> bookings;
+    
+    // constructor
+    public BatchBookingRequest() {}
+    
+    // getters, setters
+    public List<BookingRequest> getBookings() { return bookings; }
+    public void setBookings(List<BookingRequest> bookings) { this.bookings = bookings; }
+}
@@ -0,0 +1,11 @@
+package com.travelhub.dto;
+
+import java.util.List;
+
+public record BatchBookingResponse(int created, int failed, List<BatchBookingResult> results) {
+    
+    public static BatchBookingResponse of(List<BatchBookingResult> results) {
+        int created = (int) results.stream().filter(BatchBookingResult::success).count();
+        return new BatchBookingResponse(created, results.size() - created, results);
+    }
+}
@@ -0,0 +1,13 @@
+package com.travelhub.dto;
+
+// outcome of one item of a batch, index is its position in the request
+public record BatchBookingResult(int index, boolean success, String bookingReference, String error) {
+    
+    public static BatchBookingResult created(int index, String bookingReference) {
+        return new BatchBookingResult(index, true, bookingReference, null);
+    }
+    
+    public static BatchBookingResult failed(int index, String error) {
+        return new BatchBookingResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,5 @@
+package com.travelhub.dto;
+
+import com.travelhub.model.Booking.BookingStatus;
+
+public record BookingStatusResponse(String bookingReference, BookingStatus status) {}
@@ -0,0 +1,28 @@
+package com.travelhub.dto;
+
+import com.travelhub.model.Booking.BookingStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a booking with the hotel fields customers see, filled by a
+ * single join query instead of loading Booking and Hotel entities.
+ */
+public record BookingSummary(
+    Long id,
+    String bookingReference,
+    String customerEmail,
+    String customerName,
+    Long hotelId,
+    String hotelName,
+    String hotelCity,
+    LocalDate checkInDate,
+    LocalDate checkOutDate,
+    Integer numberOfGuests,
+    BigDecimal totalAmount,
+    BookingStatus status,
+    LocalDateTime createdAt
+) {
+}
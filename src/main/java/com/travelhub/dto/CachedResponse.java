@@ -0,0 +1,13 @@
+package com.travelhub.dto;
+
+/**
+ * A JSON response body as it goes on the wire, with its strong ETag and, when
+ * worth it, a gzipped copy carrying its own ETag. Next cursor is the header
+ * value of a paged listing, null for single hotels and last pages.
+ */
+public record CachedResponse(byte[] body, String etag, byte[] gzipped, String gzippedEtag, String nextCursor) {
+    
+    public boolean hasGzipped() {
+        return gzipped != null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.travelhub.dto;
+
+import com.travelhub.model.Hotel;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Keyset position in a hotel listing: the sort key and id of the last hotel
+ * returned. Clients only ever see it as the opaque string from encode().
+ */
+public class HotelCursor {
+    // below any real price, so the first page uses the same query as the rest
+    private static final BigDecimal START_PRICE = BigDecimal.valueOf(-1);
+    
+    private final HotelSort sort;
+    private final Long lastId;
+    private final BigDecimal lastPrice;
+    
+    private HotelCursor(HotelSort sort, Long lastId, BigDecimal lastPrice) {
+        this.sort = sort;
+        this.lastId = lastId;
+        this.lastPrice = lastPrice;
+    }
+    
+    public static HotelCursor start(HotelSort sort) {
+        return new HotelCursor(sort, 0L, START_PRICE);
+    }
+    
+    public static HotelCursor after(Hotel hotel, HotelSort sort) {
+        return new HotelCursor(sort, hotel.getId(),
+                               sort == HotelSort.PRICE ? hotel.getPricePerNight() : START_PRICE);
+    }
+    
+    public static HotelCursor decode(String encoded) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8).split(":");
+            HotelSort sort = HotelSort.valueOf(parts[0]);
+            return sort == HotelSort.PRICE
+                ? new HotelCursor(sort, Long.valueOf(parts[2]), new BigDecimal(parts[1]))
+                : new HotelCursor(sort, Long.valueOf(parts[1]), START_PRICE);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    public String encode() {
+        String raw = sort == HotelSort.PRICE
+            ? sort + ":" + lastPrice.toPlainString() + ":" + lastId
+            : sort + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public HotelSort getSort() { return sort; }
+    
+    public Long getLastId() { return lastId; }
+    
+    public BigDecimal getLastPrice() { return lastPrice; }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HotelCursor other)) return false;
+        return sort == other.sort && lastId.equals(other.lastId) && lastPrice.equals(other.lastPrice);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(sort, lastId, lastPrice);
+    }
+}
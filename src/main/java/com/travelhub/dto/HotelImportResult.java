@@ -0,0 +1,8 @@
+package com.travelhub.dto;
+
+import java.util.List;
+
+// errors holds the first rejected rows with their line numbers, rejected counts them all
+public record HotelImportResult(long imported, long rejected, List<String> errors,
+                                long elapsedMillis, long rowsPerSecond) {
+}
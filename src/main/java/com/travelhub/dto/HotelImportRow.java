@@ -0,0 +1,52 @@
+package com.travelhub.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+
+// one hotel of a supplier catalog, a CSV row or an NDJSON line
+public record HotelImportRow(
+    @NotBlank(message = "name is required") @Size(max = 255, message = "name is too long")
+    String name,
+    
+    @NotBlank(message = "city is required") @Size(max = 255, message = "city is too long")
+    String city,
+    
+    @NotBlank(message = "country is required") @Size(max = 255, message = "country is too long")
+    String country,
+    
+    @Min(value = 1, message = "starRating must be between 1 and 5")
+    @Max(value = 5, message = "starRating must be between 1 and 5")
+    Integer starRating,
+    
+    @NotNull(message = "pricePerNight is required")
+    @DecimalMin(value = "0.00", message = "pricePerNight must not be negative")
+    @Digits(integer = 8, fraction = 2, message = "pricePerNight must have at most 8 digits and 2 decimals")
+    BigDecimal pricePerNight,
+    
+    @NotNull(message = "availableRooms is required")
+    @Min(value = 0, message = "availableRooms must not be negative")
+    Integer availableRooms,
+    
+    @DecimalMin(value = "-90", message = "latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "latitude must be between -90 and 90")
+    Double latitude,
+    
+    @DecimalMin(value = "-180", message = "longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "longitude must be between -180 and 180")
+    Double longitude) {
+    
+    @JsonIgnore
+    @AssertTrue(message = "latitude and longitude must be given together")
+    public boolean isCoordinatePair() {
+        return (latitude == null) == (longitude == null);
+    }
+}
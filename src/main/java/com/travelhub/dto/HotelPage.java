@@ -0,0 +1,9 @@
+package com.travelhub.dto;
+
+import com.travelhub.model.Hotel;
+
+import java.util.List;
+
+// nextCursor is null on the last page
+public record HotelPage(List<Hotel> hotels, String nextCursor) {
+}
@@ -0,0 +1,76 @@
+package com.travelhub.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filters for the hotel search, bound from query parameters. Every field is
+ * optional; city and country match on a prefix of any word, star rating and
+ * price ranges are inclusive, and a stay window only keeps hotels with the
+ * requested rooms free on every night.
+ */
+public class HotelSearchCriteria {
+    private String city;
+    private String country;
+    private Integer minStars;
+    private Integer maxStars;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkIn;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkOut;
+    
+    private Integer rooms = 1;
+    
+    // constructor
+    public HotelSearchCriteria() {}
+    
+    public void validate() {
+        if ((checkIn == null) != (checkOut == null)) {
+            throw new IllegalArgumentException("Check-in and check-out dates must be given together");
+        }
+        if (checkIn != null && !checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+        if (rooms == null || rooms < 1) {
+            throw new IllegalArgumentException("At least 1 room is required");
+        }
+    }
+    
+    public boolean hasStayWindow() {
+        return checkIn != null;
+    }
+    
+    // getters, setters
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+    
+    public String getCountry() { return country; }
+    public void setCountry(String country) { this.country = country; }
+    
+    public Integer getMinStars() { return minStars; }
+    public void setMinStars(Integer minStars) { this.minStars = minStars; }
+    
+    public Integer getMaxStars() { return maxStars; }
+    public void setMaxStars(Integer maxStars) { this.maxStars = maxStars; }
+    
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+    
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+    
+    public LocalDate getCheckIn() { return checkIn; }
+    public void setCheckIn(LocalDate checkIn) { this.checkIn = checkIn; }
+    
+    public LocalDate getCheckOut() { return checkOut; }
+    public void setCheckOut(LocalDate checkOut) { this.checkOut = checkOut; }
+    
+    public Integer getRooms() { return rooms; }
+    public void setRooms(Integer rooms) { this.rooms = rooms; }
+}
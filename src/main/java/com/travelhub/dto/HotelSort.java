@@ -0,0 +1,15 @@
+package com.travelhub.dto;
+
+import java.util.Locale;
+
+public enum HotelSort {
+    ID, PRICE;
+    
+    public static HotelSort parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + value);
+        }
+    }
+}
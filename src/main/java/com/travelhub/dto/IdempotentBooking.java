@@ -0,0 +1,6 @@
+package com.travelhub.dto;
+
+import com.travelhub.model.Booking;
+
+// replayed is true when the booking was created by an earlier request with the same key
+public record IdempotentBooking(Booking booking, boolean replayed) {}
@@ -0,0 +1,84 @@
+package com.travelhub.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Proximity search around a point, bound from query parameters. Without a
+ * radius the nearest hotels are returned however far away they are; with one,
+ * only hotels inside it. Star rating and a stay window filter the same way as
+ * in {@link HotelSearchCriteria}.
+ */
+public class NearbyCriteria {
+    // half the earth's circumference, no two points are further apart
+    public static final double MAX_RADIUS_KM = 20_016;
+    
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm;
+    private Integer minStars;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkIn;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkOut;
+    
+    private Integer rooms = 1;
+    
+    // constructor
+    public NearbyCriteria() {}
+    
+    public NearbyCriteria(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+    
+    public void validate() {
+        if (latitude == null || longitude == null) {
+            throw new IllegalArgumentException("Latitude and longitude are required");
+        }
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Latitude must be within 90 and longitude within 180 degrees");
+        }
+        if (radiusKm != null && !(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + MAX_RADIUS_KM + " km");
+        }
+        if ((checkIn == null) != (checkOut == null)) {
+            throw new IllegalArgumentException("Check-in and check-out dates must be given together");
+        }
+        if (checkIn != null && !checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+        if (rooms == null || rooms < 1) {
+            throw new IllegalArgumentException("At least 1 room is required");
+        }
+    }
+    
+    public boolean hasStayWindow() {
+        return checkIn != null;
+    }
+    
+    // getters, setters
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public Double getRadiusKm() { return radiusKm; }
+    public void setRadiusKm(Double radiusKm) { this.radiusKm = radiusKm; }
+    
+    public Integer getMinStars() { return minStars; }
+    public void setMinStars(Integer minStars) { this.minStars = minStars; }
+    
+    public LocalDate getCheckIn() { return checkIn; }
+    public void setCheckIn(LocalDate checkIn) { this.checkIn = checkIn; }
+    
+    public LocalDate getCheckOut() { return checkOut; }
+    public void setCheckOut(LocalDate checkOut) { this.checkOut = checkOut; }
+    
+    public Integer getRooms() { return rooms; }
+    public void setRooms(Integer rooms) { this.rooms = rooms; }
+}
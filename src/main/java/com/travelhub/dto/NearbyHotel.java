@@ -0,0 +1,7 @@
+package com.travelhub.dto;
+
+import com.travelhub.model.Hotel;
+
+// great-circle distance from the searched point, rounded to the metre
+public record NearbyHotel(Hotel hotel, double distanceKm) {
+}
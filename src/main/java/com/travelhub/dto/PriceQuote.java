@@ -0,0 +1,18 @@
+package com.travelhub.dto;
+
+import com.travelhub.service.PricingEngine;
+import com.travelhub.service.PricingEngine.Quote;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// money leaves the pricing engine as minor units and becomes decimal only here
+public record PriceQuote(Long hotelId, LocalDate checkIn, LocalDate checkOut, int guests, long nights,
+                         BigDecimal rooms, BigDecimal guestFees, BigDecimal tax, BigDecimal total) {
+    
+    public static PriceQuote of(Long hotelId, LocalDate checkIn, LocalDate checkOut, int guests, Quote quote) {
+        return new PriceQuote(hotelId, checkIn, checkOut, guests, quote.nights(),
+            PricingEngine.fromMinor(quote.roomsMinor()), PricingEngine.fromMinor(quote.guestFeesMinor()),
+            PricingEngine.fromMinor(quote.taxMinor()), PricingEngine.fromMinor(quote.totalMinor()));
+    }
+}
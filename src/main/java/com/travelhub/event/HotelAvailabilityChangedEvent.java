@@ -0,0 +1,12 @@
+package com.travelhub.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published inside the booking transaction whenever rooms of a hotel are taken
+ * or given back, for the nights from checkIn up to but excluding checkOut.
+ * Listeners should use @TransactionalEventListener so they only see committed
+ * changes.
+ */
+public record HotelAvailabilityChangedEvent(Long hotelId, LocalDate checkIn, LocalDate checkOut) {
+}
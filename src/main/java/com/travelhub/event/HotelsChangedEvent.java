@@ -0,0 +1,12 @@
+package com.travelhub.event;
+
+import com.travelhub.model.Hotel;
+
+import java.util.List;
+
+/**
+ * Published when hotels are created or their details change, carrying the saved
+ * entities so in-memory views can update without going back to the database.
+ */
+public record HotelsChangedEvent(List<Hotel> hotels) {
+}
@@ -1,5 +1,6 @@
 package com.travelhub.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -9,7 +10,9 @@ import java.time.LocalDateTime;
 @Table(name = "bookings")
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence rather than identity so batched inserts stay batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "booking_reference", unique = true, nullable = false)
@@ -21,7 +24,7 @@ public class Booking {
     @Column(name = "customer_name", nullable = false)
     private String customerName;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "hotel_id", nullable = false)
     private Hotel hotel;
     
@@ -43,8 +46,12 @@ public class Booking {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    @JsonIgnore
+    @Column(name = "idempotency_key", unique = true, length = 100)
+    private String idempotencyKey;
+    
     public enum BookingStatus {
-        PENDING, CONFIRMED, CANCELLED
+        PENDING, CONFIRMED, CANCELLED, FAILED
     }
     
     // constructurs
@@ -99,6 +106,9 @@ public class Booking {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
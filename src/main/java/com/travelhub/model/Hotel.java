@@ -3,11 +3,14 @@ package com.travelhub.model;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 
+// schema and indexes are managed by the migrations in db/migration
 @Entity
 @Table(name = "hotels")
 public class Hotel {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence rather than identity so bulk imports are batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hotel_seq")
+    @SequenceGenerator(name = "hotel_seq", sequenceName = "hotel_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -16,6 +19,10 @@ public class Hotel {
     @Column(nullable = false)
     private String city;
     
+    // lower(city), computed by the database for the city index
+    @Column(name = "city_key", insertable = false, updatable = false)
+    private String cityKey;
+    
     @Column(nullable = false)
     private String country;
     
@@ -25,9 +32,15 @@ public class Hotel {
     @Column(name = "price_per_night", precision = 10, scale = 2)
     private BigDecimal pricePerNight;
     
+    // rooms offered per night, bookings are tracked per night in room_inventory
     @Column(name = "available_rooms")
     private Integer availableRooms;
     
+    // WGS84 degrees, both set or both null
+    private Double latitude;
+    
+    private Double longitude;
+    
     // constrcutors
     public Hotel() {}
     
@@ -62,4 +75,10 @@ public class Hotel {
     
     public Integer getAvailableRooms() { return availableRooms; }
     public void setAvailableRooms(Integer availableRooms) { this.availableRooms = availableRooms; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.travelhub.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * One night of room inventory for a hotel. Rows are created lazily the first
+ * time a night is booked, starting from the hotel's room count, and are only
+ * ever changed through the guarded updates in InventoryService.
+ */
+@Entity
+@Table(name = "room_inventory",
+       uniqueConstraints = @UniqueConstraint(name = "uk_room_inventory_hotel_night",
+                                             columnNames = {"hotel_id", "stay_date"}))
+public class RoomInventory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "hotel_id", nullable = false)
+    private Long hotelId;
+    
+    @Column(name = "stay_date", nullable = false)
+    private LocalDate stayDate;
+    
+    @Column(name = "total_rooms", nullable = false)
+    private Integer totalRooms;
+    
+    @Column(name = "available_rooms", nullable = false)
+    private Integer availableRooms;
+    
+    // constructors
+    public RoomInventory() {}
+    
+    public RoomInventory(Long hotelId, LocalDate stayDate, Integer totalRooms) {
+        this.hotelId = hotelId;
+        this.stayDate = stayDate;
+        this.totalRooms = totalRooms;
+        this.availableRooms = totalRooms;
+    }
+    
+    // getters & setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getHotelId() { return hotelId; }
+    public void setHotelId(Long hotelId) { this.hotelId = hotelId; }
+    
+    public LocalDate getStayDate() { return stayDate; }
+    public void setStayDate(LocalDate stayDate) { this.stayDate = stayDate; }
+    
+    public Integer getTotalRooms() { return totalRooms; }
+    public void setTotalRooms(Integer totalRooms) { this.totalRooms = totalRooms; }
+    
+    public Integer getAvailableRooms() { return availableRooms; }
+    public void setAvailableRooms(Integer availableRooms) { this.availableRooms = availableRooms; }
+}
@@ -1,12 +1,61 @@
 package com.travelhub.repository;
 
+import com.travelhub.dto.BookingSummary;
 import com.travelhub.model.Booking;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    String SUMMARY_QUERY = "select new com.travelhub.dto.BookingSummary(b.id, b.bookingReference, " +
+        "b.customerEmail, b.customerName, h.id, h.name, h.city, b.checkInDate, b.checkOutDate, " +
+        "b.numberOfGuests, b.totalAmount, b.status, b.createdAt) " +
+        "from Booking b join b.hotel h where b.customerEmail = :email order by b.createdAt desc";
+    
     List<Booking> findByCustomerEmailOrderByCreatedAtDesc(String customerEmail);
-    boolean existsByBookingReference(String bookingReference);
-}
\ No newline at end of file
+    
+    Optional<Booking> findByBookingReference(String bookingReference);
+    
+    // the status check makes a cancellation win exactly once, however many race for it; failed
+    // bookings have already given their rooms back
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = com.travelhub.model.Booking$BookingStatus.CANCELLED " +
+           "WHERE b.bookingReference = :reference AND b.status IN (com.travelhub.model.Booking$BookingStatus.PENDING, " +
+           "com.travelhub.model.Booking$BookingStatus.CONFIRMED)")
+    int cancel(@Param("reference") String bookingReference);
+    
+    // queued bookings only move on from PENDING, so a cancellation that got there first stands
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status " +
+           "WHERE b.bookingReference IN :references AND b.status = com.travelhub.model.Booking$BookingStatus.PENDING")
+    int updatePendingStatus(@Param("references") Collection<String> bookingReferences,
+                            @Param("status") Booking.BookingStatus status);
+    
+    @Query("SELECT b.status FROM Booking b WHERE b.bookingReference = :reference")
+    Optional<Booking.BookingStatus> findStatusByBookingReference(@Param("reference") String bookingReference);
+    
+    // hotel is fetched with the booking so a replayed response can be rendered outside the session
+    @EntityGraph(attributePaths = "hotel")
+    Optional<Booking> findByIdempotencyKey(String idempotencyKey);
+    
+    @Query(SUMMARY_QUERY)
+    List<BookingSummary> findSummariesByCustomerEmail(@Param("email") String customerEmail, Pageable pageable);
+    
+    // scrolls through the result set, must be consumed and closed inside a transaction
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_QUERY)
+    Stream<BookingSummary> streamSummariesByCustomerEmail(@Param("email") String customerEmail);
+}
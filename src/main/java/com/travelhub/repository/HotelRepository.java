@@ -1,12 +1,33 @@
 package com.travelhub.repository;
 
 import com.travelhub.model.Hotel;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
+// HotelService sends its reads to the replica, if one is configured, through ReadYourWrites
 @Repository
 public interface HotelRepository extends JpaRepository<Hotel, Long> {
-    List<Hotel> findByCityIgnoreCase(String city);
+    // cityKey is the indexed lowercase copy of city, callers pass the lowercased name
+    List<Hotel> findByCityKey(String cityKey);
     List<Hotel> findByAvailableRoomsGreaterThan(Integer minRooms);
-}
\ No newline at end of file
+    
+    // keyset page, the caller passes the sort key of the last row it returned;
+    // the redundant price >= :price gives the planner a range on idx_hotels_price_id
+    @Query("select h from Hotel h where h.availableRooms > 0 and h.pricePerNight >= :price " +
+           "and (h.pricePerNight > :price or (h.pricePerNight = :price and h.id > :id)) " +
+           "order by h.pricePerNight, h.id")
+    List<Hotel> findAvailableAfterPrice(@Param("price") BigDecimal price, @Param("id") Long id, Limit limit);
+    
+    // the row lock keeps concurrent saves of the hotel from reading the same room count
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from Hotel h where h.id = :id")
+    Optional<Hotel> lockById(@Param("id") Long id);
+}
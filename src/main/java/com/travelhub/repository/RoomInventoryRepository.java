@@ -0,0 +1,69 @@
+package com.travelhub.repository;
+
+import com.travelhub.model.RoomInventory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RoomInventoryRepository extends JpaRepository<RoomInventory, Long> {
+    
+    @Query("select r.stayDate from RoomInventory r " +
+           "where r.hotelId = :hotelId and r.stayDate >= :checkIn and r.stayDate < :checkOut")
+    List<LocalDate> findStayDates(@Param("hotelId") Long hotelId,
+                                  @Param("checkIn") LocalDate checkIn,
+                                  @Param("checkOut") LocalDate checkOut);
+    
+    List<RoomInventory> findByStayDateGreaterThanEqual(LocalDate from);
+    
+    // row locks on the nights of a stay, held until the caller's transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from RoomInventory r " +
+           "where r.hotelId = :hotelId and r.stayDate >= :checkIn and r.stayDate < :checkOut " +
+           "order by r.stayDate")
+    List<RoomInventory> lockStay(@Param("hotelId") Long hotelId,
+                                 @Param("checkIn") LocalDate checkIn,
+                                 @Param("checkOut") LocalDate checkOut);
+    
+    // decrements every night in [checkIn, checkOut) that still has enough rooms,
+    // so the caller must compare the row count against the number of nights
+    @Modifying
+    @Query("update RoomInventory r set r.availableRooms = r.availableRooms - :rooms " +
+           "where r.hotelId = :hotelId and r.stayDate >= :checkIn and r.stayDate < :checkOut " +
+           "and r.availableRooms >= :rooms")
+    int reserve(@Param("hotelId") Long hotelId,
+                @Param("checkIn") LocalDate checkIn,
+                @Param("checkOut") LocalDate checkOut,
+                @Param("rooms") int rooms);
+    
+    // moves the total and free rooms of every night from the given date on by the same amount
+    @Modifying
+    @Query("update RoomInventory r set r.totalRooms = r.totalRooms + :rooms, " +
+           "r.availableRooms = r.availableRooms + :rooms " +
+           "where r.hotelId = :hotelId and r.stayDate >= :from")
+    int resize(@Param("hotelId") Long hotelId,
+               @Param("from") LocalDate from,
+               @Param("rooms") int rooms);
+    
+    // nights from the given date on with more rooms booked than the hotel has
+    @Query("select count(r) from RoomInventory r " +
+           "where r.hotelId = :hotelId and r.stayDate >= :from and r.availableRooms < 0")
+    long countOverbooked(@Param("hotelId") Long hotelId, @Param("from") LocalDate from);
+    
+    // gives rooms back to every night in [checkIn, checkOut), a relative update so
+    // concurrent reservations of the same nights are never overwritten
+    @Modifying
+    @Query("update RoomInventory r set r.availableRooms = r.availableRooms + :rooms " +
+           "where r.hotelId = :hotelId and r.stayDate >= :checkIn and r.stayDate < :checkOut")
+    int release(@Param("hotelId") Long hotelId,
+                @Param("checkIn") LocalDate checkIn,
+                @Param("checkOut") LocalDate checkOut,
+                @Param("rooms") int rooms);
+}
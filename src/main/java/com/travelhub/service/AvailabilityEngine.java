@@ -0,0 +1,361 @@
+package com.travelhub.service;
+
+import com.travelhub.event.HotelsChangedEvent;
+import com.travelhub.datasource.ReadWriteRoutingDataSource;
+import com.travelhub.model.Hotel;
+import com.travelhub.model.RoomInventory;
+import com.travelhub.repository.HotelRepository;
+import com.travelhub.repository.RoomInventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the room inventory ledger. Every hotel gets an array of
+ * remaining rooms per night, starting at the date the engine was loaded and
+ * covering {@code travelhub.availability.horizon-days} nights, updated with CAS.
+ *
+ * The database stays the source of truth: the engine is rebuilt from it on
+ * startup and every night, reservations taken here are handed back if the
+ * booking transaction does not commit, and nights outside the window are left
+ * to the ledger. It may report rooms the database no longer has (which the
+ * ledger update then rejects) but never the other way round.
+ */
+@Component
+public class AvailabilityEngine {
+    
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityEngine.class);
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+    
+    @Autowired
+    private Shards shards;
+    
+    @Value("${travelhub.availability.horizon-days:365}")
+    private int horizonDays;
+    
+    private volatile Snapshot snapshot = new Snapshot(LocalDate.now(), new ConcurrentSkipListMap<>());
+    
+    // one load at a time; only loads wait for it
+    private final ReentrantLock loading = new ReentrantLock();
+    
+    // held only to change the published snapshot, never around a database read
+    private final ReentrantLock swap = new ReentrantLock();
+    
+    // hotel changes seen while a load reads, replayed onto its snapshot before it replaces the current one
+    private List<Hotel> changedDuringLoad;
+    
+    /**
+     * Rebuilds the snapshot from the database without holding {@code swap}, so
+     * hotel changes keep being applied to the current snapshot meanwhile; they are
+     * also recorded and applied to the new snapshot before it is published.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${travelhub.availability.reload-cron:0 0 0 * * *}")
+    public void load() {
+        loading.lock();
+        try {
+            long started = System.nanoTime();
+            swap.lock();
+            try {
+                changedDuringLoad = new ArrayList<>();
+            } finally {
+                swap.unlock();
+            }
+            
+            Snapshot loaded = null;
+            try {
+                loaded = read(LocalDate.now());
+            } finally {
+                swap.lock();
+                try {
+                    if (loaded != null) {
+                        apply(loaded.hotels(), changedDuringLoad);
+                        snapshot = loaded;
+                    }
+                    changedDuringLoad = null;
+                } finally {
+                    swap.unlock();
+                }
+            }
+            log.info("Loaded availability for {} hotels in {} ms",
+                     loaded.hotels().size(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            loading.unlock();
+        }
+    }
+    
+    private Snapshot read(LocalDate firstNight) {
+        NavigableMap<Long, HotelAvailability> hotels = new ConcurrentSkipListMap<>();
+        
+        // from the primary, a lagging replica would leave hotels out until the next load
+        for (Hotel hotel : ReadWriteRoutingDataSource.onPrimary(hotelRepository::findAll)) {
+            hotels.put(hotel.getId(), new HotelAvailability(hotel, horizonDays));
+        }
+        
+        Snapshot loaded = new Snapshot(firstNight, hotels);
+        // every shard keeps the ledger of its own hotels
+        for (List<RoomInventory> ledger : shards.onEach(() -> roomInventoryRepository.findByStayDateGreaterThanEqual(firstNight))) {
+            for (RoomInventory night : ledger) {
+                HotelAvailability availability = hotels.get(night.getHotelId());
+                int index = loaded.indexOf(night.getStayDate());
+                if (availability != null && index < horizonDays) {
+                    availability.nights().set(index, night.getAvailableRooms());
+                }
+            }
+        }
+        return loaded;
+    }
+    
+    /**
+     * Takes the rooms off every night of [checkIn, checkOut) inside the window.
+     * Returns false, leaving nothing reserved, if any night is short. When called
+     * inside a transaction the rooms are given back if it does not commit.
+     */
+    public boolean tryReserve(Long hotelId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        if (!tryTake(hotelId, checkIn, checkOut, rooms)) {
+            return false;
+        }
+        releaseOnRollback(hotelId, checkIn, checkOut, rooms);
+        return true;
+    }
+    
+    /**
+     * Takes the rooms like {@link #tryReserve} but leaves giving them back to the
+     * caller, who either calls {@link #release} when the booking is turned down or
+     * {@link #releaseOnRollback} once it is accepted.
+     */
+    public boolean tryTake(Long hotelId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        Snapshot current = snapshot;
+        HotelAvailability availability = current.hotels().get(hotelId);
+        // not loaded yet, let the ledger decide
+        return availability == null || availability.tryReserve(Math.max(0, current.indexOf(checkIn)),
+                                                                Math.min(horizonDays, current.indexOf(checkOut)), rooms);
+    }
+    
+    // gives back rooms taken by tryTake if the current transaction does not commit
+    public void releaseOnRollback(Long hotelId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        Snapshot current = snapshot;
+        HotelAvailability availability = current.hotels().get(hotelId);
+        int from = Math.max(0, current.indexOf(checkIn));
+        int to = Math.min(horizonDays, current.indexOf(checkOut));
+        if (availability != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        availability.release(from, to, rooms);
+                    }
+                }
+            });
+        }
+    }
+    
+    // gives back rooms taken by tryReserve or tryTake whose booking was turned down afterwards
+    public void release(Long hotelId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        Snapshot current = snapshot;
+        HotelAvailability availability = current.hotels().get(hotelId);
+        if (availability != null) {
+            availability.release(Math.max(0, current.indexOf(checkIn)),
+                                 Math.min(horizonDays, current.indexOf(checkOut)), rooms);
+        }
+    }
+    
+    public boolean isAvailable(Long hotelId, LocalDate night) {
+        Snapshot current = snapshot;
+        HotelAvailability availability = current.hotels().get(hotelId);
+        return availability != null && availability.remaining(current.indexOf(night)) > 0;
+    }
+    
+    // read-only check that every night of [checkIn, checkOut) has the rooms, unknown hotels pass
+    public boolean hasRooms(Long hotelId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        Snapshot current = snapshot;
+        HotelAvailability availability = current.hotels().get(hotelId);
+        if (availability == null) {
+            return true;
+        }
+        int to = current.indexOf(checkOut);
+        for (int i = current.indexOf(checkIn); i < to; i++) {
+            if (availability.remaining(i) < rooms) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // applied to the current snapshot and, while a load is reading, to the one it is building
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelsChanged(HotelsChangedEvent event) {
+        swap.lock();
+        try {
+            apply(snapshot.hotels(), event.hotels());
+            if (changedDuringLoad != null) {
+                changedDuringLoad.addAll(event.hotels());
+            }
+        } finally {
+            swap.unlock();
+        }
+    }
+    
+    // new hotels start with every night free, changed ones keep the nights already reserved
+    private void apply(NavigableMap<Long, HotelAvailability> hotels, List<Hotel> changed) {
+        for (Hotel hotel : changed) {
+            HotelAvailability previous = hotels.get(hotel.getId());
+            if (previous == null) {
+                hotels.put(hotel.getId(), new HotelAvailability(hotel, horizonDays));
+            } else {
+                previous.update(hotel);
+            }
+        }
+    }
+    
+    public Optional<Hotel> findHotel(Long hotelId) {
+        return Optional.ofNullable(snapshot.hotels().get(hotelId)).map(HotelAvailability::hotel);
+    }
+    
+    // hotels with at least one room left for the given night, in id order
+    public List<Hotel> findAvailableHotels(LocalDate night) {
+        return findAvailableHotels(night, 0L, Integer.MAX_VALUE);
+    }
+    
+    // keyset page of the above, starting after the given hotel id
+    public List<Hotel> findAvailableHotels(LocalDate night, Long afterId, int limit) {
+        Snapshot current = snapshot;
+        int index = current.indexOf(night);
+        List<Hotel> available = new ArrayList<>();
+        for (HotelAvailability availability : current.hotels().tailMap(afterId, false).values()) {
+            if (available.size() == limit) {
+                break;
+            }
+            if (availability.remaining(index) > 0) {
+                available.add(availability.hotel());
+            }
+        }
+        return available;
+    }
+    
+    private record Snapshot(LocalDate firstNight, NavigableMap<Long, HotelAvailability> hotels) {
+        int indexOf(LocalDate night) {
+            return (int) (night.toEpochDay() - firstNight.toEpochDay());
+        }
+    }
+    
+    private static final class HotelAvailability {
+        private volatile Hotel hotel;
+        private volatile int capacity;
+        private final int horizonDays;
+        // allocated on the first reservation, most hotels in a large catalog never get one
+        private volatile AtomicIntegerArray nights;
+        
+        HotelAvailability(Hotel hotel, int horizonDays) {
+            this.hotel = hotel;
+            this.capacity = roomsOf(hotel);
+            this.horizonDays = horizonDays;
+        }
+        
+        private static int roomsOf(Hotel hotel) {
+            return hotel.getAvailableRooms() == null ? 0 : hotel.getAvailableRooms();
+        }
+        
+        /**
+         * Updated in place, so reservations still waiting for their transaction
+         * give their rooms back here. The change in rooms is applied to every
+         * night, as the ledger applied it to its nights when the hotel was saved.
+         */
+        synchronized void update(Hotel changed) {
+            hotel = changed;
+            int added = roomsOf(changed) - capacity;
+            if (added == 0) {
+                return;
+            }
+            // raised before the nights, lowered after them, so a concurrent release is never capped too low
+            if (added > 0) {
+                capacity += added;
+            }
+            AtomicIntegerArray allocated = nights;
+            if (allocated != null) {
+                for (int i = 0; i < allocated.length(); i++) {
+                    allocated.addAndGet(i, added);
+                }
+            }
+            if (added < 0) {
+                capacity += added;
+            }
+        }
+        
+        Hotel hotel() {
+            return hotel;
+        }
+        
+        int remaining(int index) {
+            AtomicIntegerArray allocated = nights;
+            if (index < 0 || index >= horizonDays || allocated == null) {
+                return capacity;
+            }
+            return allocated.get(index);
+        }
+        
+        boolean tryReserve(int from, int to, int rooms) {
+            AtomicIntegerArray allocated = nights();
+            for (int i = from; i < to; i++) {
+                int current;
+                do {
+                    current = allocated.get(i);
+                    if (current < rooms) {
+                        release(from, i, rooms);
+                        return false;
+                    }
+                } while (!allocated.compareAndSet(i, current, current - rooms));
+            }
+            return true;
+        }
+        
+        void release(int from, int to, int rooms) {
+            AtomicIntegerArray allocated = nights();
+            for (int i = from; i < to; i++) {
+                int current;
+                do {
+                    current = allocated.get(i);
+                } while (!allocated.compareAndSet(i, current, Math.min(capacity, current + rooms)));
+            }
+        }
+        
+        AtomicIntegerArray nights() {
+            AtomicIntegerArray allocated = nights;
+            if (allocated == null) {
+                synchronized (this) {
+                    allocated = nights;
+                    if (allocated == null) {
+                        int[] initial = new int[horizonDays];
+                        Arrays.fill(initial, capacity);
+                        allocated = new AtomicIntegerArray(initial);
+                        nights = allocated;
+                    }
+                }
+            }
+            return allocated;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.travelhub.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travelhub.service.BookingMetrics.Rejection;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control in front of booking creation, so a flood of requests is
+ * turned away before it holds a database connection.
+ * <p>
+ * Every client gets a token bucket refilled at ratePerSecond and holding up to
+ * burst bookings; a client that has used it up is rejected with the time until
+ * its next booking fits. Admitted requests then need one of maxConcurrent slots,
+ * waiting at most maxWait for one, or are shed. The bucket is a single atomic
+ * timestamp (GCRA): the moment the client's allowance is fully used, which
+ * moves forward by one interval per booking and may run at most burst intervals
+ * ahead of the clock.
+ */
+@Component
+public class BookingAdmission implements MeterBinder {
+    
+    @Autowired
+    private BookingMetrics metrics;
+    
+    private final long interval;
+    private final int burst;
+    private final int maxConcurrent;
+    private final Semaphore slots;
+    private final long maxWaitNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private LongSupplier clock = System::nanoTime;
+    
+    public BookingAdmission(@Value("${travelhub.booking.admission.rate-per-second:5}") double ratePerSecond,
+                            @Value("${travelhub.booking.admission.burst:20}") int burst,
+                            @Value("${travelhub.booking.admission.max-concurrent:8}") int maxConcurrent,
+                            @Value("${travelhub.booking.admission.max-wait:20ms}") Duration maxWait,
+                            @Value("${travelhub.booking.admission.max-clients:100000}") long maxClients) {
+        // a rate of 0 switches the per-client limit off
+        this.interval = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+        this.burst = Math.max(1, burst);
+        this.maxConcurrent = maxConcurrent;
+        this.slots = new Semaphore(maxConcurrent);
+        this.maxWaitNanos = maxWait.toNanos();
+        // an idle bucket refills completely, forgetting it changes nothing
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxClients)
+            .expireAfterAccess(Duration.ofNanos(Math.max(TimeUnit.SECONDS.toNanos(1), interval * this.burst)))
+            .build();
+    }
+    
+    /**
+     * Admits a request for the given number of bookings, each of which is
+     * charged. The returned permit holds a slot until it is closed.
+     *
+     * @throws BookingRateLimitedException if the client has no allowance left,
+     *         without a retryAfter if the request is larger than the burst
+     * @throws BookingOverloadedException if no slot frees up within maxWait
+     */
+    public Permit admit(String client, int bookings) {
+        int cost = Math.max(1, bookings);
+        AtomicLong bucket = null;
+        if (interval > 0) {
+            if (cost > burst) {
+                // could never fit in the bucket, waiting would not help
+                metrics.rejected(Rejection.RATE_LIMITED);
+                throw new BookingRateLimitedException(null);
+            }
+            bucket = buckets.get(client.toLowerCase(Locale.ROOT), key -> new AtomicLong(Long.MIN_VALUE));
+            long wait = take(bucket, cost);
+            if (wait > 0) {
+                metrics.rejected(Rejection.RATE_LIMITED);
+                throw new BookingRateLimitedException(Duration.ofNanos(wait));
+            }
+        }
+        
+        if (!acquireSlot()) {
+            if (bucket != null) {
+                // the request was not served, the client keeps its allowance
+                bucket.addAndGet(-cost * interval);
+            }
+            metrics.rejected(Rejection.OVERLOADED);
+            throw new BookingOverloadedException();
+        }
+        metrics.admitted();
+        return new Permit(slots);
+    }
+    
+    // 0 if the tokens were taken, otherwise nanoseconds until they would be
+    private long take(AtomicLong bucket, int cost) {
+        long now = clock.getAsLong();
+        while (true) {
+            long usedUntil = bucket.get();
+            long next = Math.max(usedUntil, now) + cost * interval;
+            long wait = next - now - burst * interval;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(usedUntil, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    private boolean acquireSlot() {
+        try {
+            return slots.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    public int inFlight() {
+        return maxConcurrent - slots.availablePermits();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("booking.admission.in_flight", this, BookingAdmission::inFlight)
+            .description("Booking requests holding an admission slot")
+            .register(registry);
+    }
+    
+    // a held admission slot, closing it more than once is harmless
+    public static final class Permit implements AutoCloseable {
+        private final Semaphore slots;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        
+        private Permit(Semaphore slots) {
+            this.slots = slots;
+        }
+        
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.travelhub.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers for each stage of a booking and counters for how bookings end. Every
+ * meter is registered once up front so recording is a map lookup and an atomic
+ * update; percentile histograms are switched on per meter name in application.yml.
+ */
+@Component
+public class BookingMetrics {
+    
+    public enum Stage { HOTEL_LOOKUP, AVAILABILITY, LEDGER, PRICE, REFERENCE, INSERT }
+    
+    public enum Rejection { HOTEL_NOT_FOUND, NOT_PRICED, NO_ROOMS, INVALID_DATES, QUEUE_FULL, RATE_LIMITED, OVERLOADED }
+    
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+    private final Counter created;
+    private final Counter admitted;
+    private final Counter retried;
+    private final Counter replayed;
+    private final Timer committed;
+    private final Timer rolledBack;
+    
+    public BookingMetrics(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("booking.stage")
+                .description("Time spent in one stage of creating a booking")
+                .tag("stage", tagValue(stage))
+                .register(registry));
+        }
+        for (Rejection reason : Rejection.values()) {
+            rejections.put(reason, Counter.builder("booking.rejected")
+                .tag("reason", tagValue(reason))
+                .register(registry));
+        }
+        created = Counter.builder("booking.created").register(registry);
+        admitted = Counter.builder("booking.admitted")
+            .description("Booking requests let through admission control, see booking.rejected for the rest")
+            .register(registry);
+        replayed = Counter.builder("booking.replayed")
+            .description("Requests answered with the booking an earlier request with the same Idempotency-Key made")
+            .register(registry);
+        retried = Counter.builder("booking.retried")
+            .description("Booking transactions run again after a lock timeout or deadlock")
+            .register(registry);
+        committed = commitTimer(registry, "committed");
+        rolledBack = commitTimer(registry, "rolled_back");
+    }
+    
+    public <T> T time(Stage stage, Supplier<T> work) {
+        return stages.get(stage).record(work);
+    }
+    
+    public void time(Stage stage, Runnable work) {
+        stages.get(stage).record(work);
+    }
+    
+    public void created(int count) {
+        created.increment(count);
+    }
+    
+    public void admitted() {
+        admitted.increment();
+    }
+    
+    public void replayed() {
+        replayed.increment();
+    }
+    
+    public void retried() {
+        retried.increment();
+    }
+    
+    public void rejected(Rejection reason) {
+        rejections.get(reason).increment();
+    }
+    
+    /**
+     * Times the commit of the surrounding transaction, which is where the booking
+     * insert is flushed, and counts it as committed or rolled back.
+     */
+    public void timeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long started;
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                started = System.nanoTime();
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                // a rollback before beforeCommit ran is counted with no duration
+                long elapsed = started == 0 ? 0 : System.nanoTime() - started;
+                (status == STATUS_COMMITTED ? committed : rolledBack).record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+    
+    private static Timer commitTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("booking.commit")
+            .description("Commit of a booking transaction, including the flushed inserts")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+    
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
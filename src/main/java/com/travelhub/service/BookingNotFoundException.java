@@ -0,0 +1,8 @@
+package com.travelhub.service;
+
+public class BookingNotFoundException extends RuntimeException {
+    
+    public BookingNotFoundException(String bookingReference) {
+        super("Booking not found: " + bookingReference);
+    }
+}
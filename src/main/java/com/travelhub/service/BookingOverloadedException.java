@@ -0,0 +1,9 @@
+package com.travelhub.service;
+
+// every booking slot is taken, the request was shed before opening a transaction
+public class BookingOverloadedException extends RuntimeException {
+    
+    public BookingOverloadedException() {
+        super("Too many bookings in progress");
+    }
+}
@@ -0,0 +1,9 @@
+package com.travelhub.service;
+
+// the write-behind queue has no room, the client should retry later
+public class BookingQueueFullException extends RuntimeException {
+    
+    public BookingQueueFullException() {
+        super("Booking queue is full");
+    }
+}
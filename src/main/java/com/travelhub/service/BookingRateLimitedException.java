@@ -0,0 +1,19 @@
+package com.travelhub.service;
+
+import java.time.Duration;
+
+// the client has used up its booking allowance, retryAfter is when the next booking fits,
+// null if the request is larger than any allowance
+public class BookingRateLimitedException extends RuntimeException {
+    
+    private final Duration retryAfter;
+    
+    public BookingRateLimitedException(Duration retryAfter) {
+        super("Too many bookings from this client");
+        this.retryAfter = retryAfter;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,7 @@
+package com.travelhub.service;
+
+// hands out booking references that are unique without asking the database
+public interface BookingReferenceGenerator {
+    
+    String next();
+}
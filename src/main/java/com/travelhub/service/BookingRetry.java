@@ -0,0 +1,70 @@
+package com.travelhub.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a booking transaction that failed for a reason that may not happen
+ * again: lock timeouts, deadlocks and other concurrency failures. Attempts are
+ * bounded and spaced with full jitter, a random wait of up to baseDelay * 2^n,
+ * so transactions that collided once do not collide again in lockstep.
+ * Business failures such as a full hotel are never retried.
+ */
+@Component
+public class BookingRetry {
+    
+    private static final Logger log = LoggerFactory.getLogger(BookingRetry.class);
+    
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final BookingMetrics metrics;
+    
+    public BookingRetry(@Value("${travelhub.booking.retry.max-attempts:3}") int maxAttempts,
+                        @Value("${travelhub.booking.retry.base-delay:20ms}") Duration baseDelay,
+                        @Value("${travelhub.booking.retry.max-delay:500ms}") Duration maxDelay,
+                        BookingMetrics metrics) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is required");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.metrics = metrics;
+    }
+    
+    public <T> T execute(Supplier<T> transaction) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.get();
+            } catch (TransientDataAccessException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Booking attempt {} failed with {}, retrying", attempt, e.getClass().getSimpleName());
+                metrics.retried();
+                backOff(attempt);
+            }
+        }
+    }
+    
+    private void backOff(int attempt) {
+        long ceiling = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying booking", e);
+        }
+    }
+}
@@ -1,47 +1,417 @@
 package com.travelhub.service;
 
+import com.travelhub.datasource.ReadWriteRoutingDataSource;
+import com.travelhub.dto.BatchBookingResult;
 import com.travelhub.dto.BookingRequest;
+import com.travelhub.dto.BookingSummary;
+import com.travelhub.dto.IdempotentBooking;
+import com.travelhub.event.HotelAvailabilityChangedEvent;
 import com.travelhub.model.Booking;
 import com.travelhub.model.Hotel;
 import com.travelhub.repository.BookingRepository;
+import com.travelhub.service.BookingMetrics.Rejection;
+import com.travelhub.service.BookingMetrics.Stage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 @Service
 public class BookingService {
     
+    // the order of the summary queries, which every shard answers in
+    private static final Comparator<BookingSummary> NEWEST_FIRST =
+        Comparator.comparing(BookingSummary::createdAt, Comparator.nullsLast(Comparator.reverseOrder()));
+    
     @Autowired
     private BookingRepository bookingRepository;
     
     @Autowired
     private HotelService hotelService;
     
-    @Transactional
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Autowired
+    private AvailabilityEngine availabilityEngine;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private BookingReferenceGenerator referenceGenerator;
+    
+    @Autowired
+    private BookingMetrics metrics;
+    
+    @Autowired
+    private BookingRetry retry;
+    
+    @Autowired
+    private TransactionOperations transaction;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private BookingWriteBehind writeBehind;
+    
+    @Autowired
+    private PricingEngine pricingEngine;
+    
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    
+    @Autowired
+    private Shards shards;
+    
+    // each attempt runs in its own transaction, on the shard owning the hotel, so a retry starts from a clean slate
     public Booking createBooking(BookingRequest request) {
-        // find hotel
-        Hotel hotel = hotelService.findById(request.getHotelId())
-            .orElseThrow(() -> new RuntimeException("Hotel not found"));
+        return shards.onShardOf(request.getHotelId(), () -> {
+            Hotel hotel = prepareStay(request);
+            return retry.execute(() -> transaction.execute(status -> bookInTransaction(request, hotel, null)));
+        });
+    }
+    
+    /**
+     * Everything a booking does before its transaction opens: the hotel is looked
+     * up and checked, and the stay's missing ledger nights are committed, so the
+     * booking transaction is the only connection a booking holds. Stays the engine
+     * already knows to be full get no nights and are turned away inside.
+     */
+    private Hotel prepareStay(BookingRequest request) {
+        Hotel hotel = metrics.time(Stage.HOTEL_LOOKUP, () -> hotelService.findById(request.getHotelId()))
+            .orElseThrow(() -> {
+                metrics.rejected(Rejection.HOTEL_NOT_FOUND);
+                return new RuntimeException("Hotel not found");
+            });
+        if (hotel.getPricePerNight() == null) {
+            metrics.rejected(Rejection.NOT_PRICED);
+            throw new HotelNotPricedException();
+        }
+        if (request.getCheckOutDate().isAfter(request.getCheckInDate()) && availabilityEngine.hasRooms(
+                hotel.getId(), request.getCheckInDate(), request.getCheckOutDate(), request.getNumberOfGuests())) {
+            inventoryService.createMissingNights(hotel,
+                InventoryService.nightsOf(request.getCheckInDate(), request.getCheckOutDate()));
+        }
+        return hotel;
+    }
+    
+    /**
+     * Books at most once per idempotency key. A key seen recently is answered from
+     * memory; otherwise the stored booking for the key is returned if there is one,
+     * e.g. after a restart or when the first attempt went to another instance.
+     * Reusing a key for a different stay is rejected. Keys are stored on the
+     * shard of the hotel, which a retry of the same request goes to again.
+     */
+    public IdempotentBooking createBooking(BookingRequest request, String idempotencyKey) {
+        IdempotentBooking outcome = idempotencyStore.execute(idempotencyKey, () -> shards.onShardOf(request.getHotelId(),
+            () -> bookingRepository.findByIdempotencyKey(idempotencyKey)
+                .map(booking -> new IdempotentBooking(booking, true))
+                .orElseGet(() -> bookOnce(request, idempotencyKey))));
+        if (!isSameStay(outcome.booking(), request)) {
+            throw new IdempotencyKeyMismatchException();
+        }
+        if (outcome.replayed()) {
+            metrics.replayed();
+        }
+        return outcome;
+    }
+    
+    private IdempotentBooking bookOnce(BookingRequest request, String idempotencyKey) {
+        Hotel hotel = prepareStay(request);
+        try {
+            Booking booking = retry.execute(() -> transaction.execute(status -> bookInTransaction(request, hotel, idempotencyKey)));
+            return new IdempotentBooking(booking, false);
+        } catch (DataIntegrityViolationException e) {
+            // another instance committed the same key first
+            return bookingRepository.findByIdempotencyKey(idempotencyKey)
+                .map(booking -> new IdempotentBooking(booking, true))
+                .orElseThrow(() -> e);
+        }
+    }
+    
+    private static boolean isSameStay(Booking booking, BookingRequest request) {
+        return booking.getHotel().getId().equals(request.getHotelId())
+            && booking.getCustomerEmail().equals(request.getCustomerEmail())
+            && booking.getCheckInDate().equals(request.getCheckInDate())
+            && booking.getCheckOutDate().equals(request.getCheckOutDate())
+            && booking.getNumberOfGuests().equals(request.getNumberOfGuests());
+    }
+    
+    private Booking bookInTransaction(BookingRequest request, Hotel hotel, String idempotencyKey) {
+        metrics.timeCommit();
+        reserveStay(request, hotel);
         
-        // check if it's available 
-        if (hotel.getAvailableRooms() < request.getNumberOfGuests()) {
+        Booking booking = newBooking(request, hotel);
+        booking.setIdempotencyKey(idempotencyKey);
+        Booking saved = metrics.time(Stage.INSERT, () -> bookingRepository.save(booking));
+        metrics.created(1);
+        readYourWrites.wrote(ReadYourWrites.customer(request.getCustomerEmail()));
+        return saved;
+    }
+    
+    /**
+     * Reserves the rooms and writes the booking as PENDING in one transaction, as
+     * createBooking does, then leaves it to the write-behind queue, which confirms
+     * it shortly after. The returned booking carries the reference to poll. Throws
+     * {@link BookingQueueFullException} before reserving anything when the queue
+     * is full.
+     */
+    public Booking enqueueBooking(BookingRequest request) {
+        if (!writeBehind.tryClaim()) {
+            metrics.rejected(Rejection.QUEUE_FULL);
+            throw new BookingQueueFullException();
+        }
+        Booking booking;
+        try {
+            booking = shards.onShardOf(request.getHotelId(), () -> {
+                Hotel hotel = prepareStay(request);
+                return retry.execute(() -> transaction.execute(status -> bookInTransaction(request, hotel, null)));
+            });
+        } catch (RuntimeException e) {
+            writeBehind.release();
+            throw e;
+        }
+        // enqueued only once the reservation has committed
+        writeBehind.enqueue(booking);
+        return booking;
+    }
+    
+    // polled right after the booking was made, so never answered by a replica that may lag behind
+    public Optional<Booking.BookingStatus> findStatus(String bookingReference) {
+        // references do not name their shard, every shard is asked
+        return ReadWriteRoutingDataSource.onPrimary(() -> shards.onEach(
+                () -> bookingRepository.findStatusByBookingReference(bookingReference)).stream()
+            .flatMap(Optional::stream)
+            .findFirst());
+    }
+    
+    /**
+     * Cancels the booking and hands its rooms back to the ledger and, once that has
+     * committed, to the availability engine. The status flip is a conditional
+     * update, so of concurrent cancellations only one releases the rooms; the
+     * others, like any repeat, return false. A booking still in the write-behind
+     * queue can be cancelled too, the queue then leaves it cancelled; one the queue
+     * failed has nothing left to cancel and throws IllegalStateException.
+     */
+    public boolean cancelBooking(String bookingReference) {
+        int shard = shards.find(() -> bookingRepository.findStatusByBookingReference(bookingReference).isPresent());
+        return shards.on(shard, () -> retry.execute(() -> transaction.execute(status -> cancelInTransaction(bookingReference))));
+    }
+    
+    private boolean cancelInTransaction(String bookingReference) {
+        if (bookingRepository.cancel(bookingReference) == 0) {
+            Optional<Booking.BookingStatus> current = bookingRepository.findStatusByBookingReference(bookingReference);
+            if (current.filter(status -> status == Booking.BookingStatus.FAILED).isPresent()) {
+                throw new IllegalStateException("Booking has failed");
+            }
+            if (current.isPresent()) {
+                return false;
+            }
+            throw new BookingNotFoundException(bookingReference);
+        }
+        
+        Booking booking = bookingRepository.findByBookingReference(bookingReference)
+            .orElseThrow(() -> new BookingNotFoundException(bookingReference));
+        Long hotelId = booking.getHotel().getId();
+        inventoryService.release(hotelId, booking.getCheckInDate(), booking.getCheckOutDate(), booking.getNumberOfGuests());
+        readYourWrites.wrote(ReadYourWrites.customer(booking.getCustomerEmail()));
+        Runnable releaseEngine = () -> availabilityEngine.release(hotelId, booking.getCheckInDate(),
+                                                                  booking.getCheckOutDate(), booking.getNumberOfGuests());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // rooms offered from memory only once the ledger really has them
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseEngine.run();
+                }
+            });
+        } else {
+            releaseEngine.run();
+        }
+        eventPublisher.publishEvent(new HotelAvailabilityChangedEvent(hotelId, booking.getCheckInDate(),
+                                                                      booking.getCheckOutDate()));
+        return true;
+    }
+    
+    private void reserveStay(BookingRequest request, Hotel hotel) {
+        // turn away full stays from memory before touching the ledger
+        if (!metrics.time(Stage.AVAILABILITY, () -> availabilityEngine.tryReserve(hotel.getId(),
+                request.getCheckInDate(), request.getCheckOutDate(), request.getNumberOfGuests()))) {
+            metrics.rejected(Rejection.NO_ROOMS);
             throw new RuntimeException("Not enough rooms available");
         }
         
+        // reserve the rooms for every night of the stay
+        try {
+            metrics.time(Stage.LEDGER, () -> inventoryService.reserve(hotel, request.getCheckInDate(),
+                                                                      request.getCheckOutDate(), request.getNumberOfGuests()));
+        } catch (RuntimeException e) {
+            metrics.rejected(Rejection.NO_ROOMS);
+            throw e;
+        }
+        eventPublisher.publishEvent(new HotelAvailabilityChangedEvent(hotel.getId(), request.getCheckInDate(),
+                                                                      request.getCheckOutDate()));
+    }
+    
+    /**
+     * Books many stays in one transaction. Requests are grouped by hotel so each
+     * hotel is looked up and has its ledger nights created once, before the
+     * transaction opens; every stay's nights are then locked and checked before
+     * any is decremented, so a full stay only fails its own item. Accepted bookings are inserted together at the end, which Hibernate
+     * sends as JDBC batches. A lock timeout or deadlock runs the whole batch again.
+     * With several shards every shard books its part in its own transaction, so
+     * one shard failing does not undo what the others have committed.
+     */
+    public List<BatchBookingResult> createBookings(List<BookingRequest> requests) {
+        List<Integer> items = IntStream.range(0, requests.size()).boxed().toList();
+        BatchBookingResult[] results = new BatchBookingResult[requests.size()];
+        shards.partition(items, i -> requests.get(i).getHotelId()).forEach((shard, onShard) ->
+            shards.on(shard, () -> {
+                Map<Long, Hotel> hotels = prepareStays(requests, onShard);
+                return retry.execute(() -> transaction.execute(status -> bookBatchInTransaction(requests, onShard, hotels)));
+            }).forEach(result -> results[result.index()] = result));
+        return Arrays.asList(results);
+    }
+    
+    // looks every hotel of the items up once and commits its missing nights before the batch transaction opens
+    private Map<Long, Hotel> prepareStays(List<BookingRequest> requests, List<Integer> items) {
+        Map<Long, Set<LocalDate>> nightsByHotel = new LinkedHashMap<>();
+        for (int i : items) {
+            BookingRequest request = requests.get(i);
+            Set<LocalDate> nights = nightsByHotel.computeIfAbsent(request.getHotelId(), id -> new HashSet<>());
+            if (request.getCheckOutDate().isAfter(request.getCheckInDate())) {
+                nights.addAll(InventoryService.nightsOf(request.getCheckInDate(), request.getCheckOutDate()));
+            }
+        }
+        Map<Long, Hotel> hotels = new HashMap<>();
+        nightsByHotel.forEach((hotelId, nights) -> hotelService.findById(hotelId).ifPresent(hotel -> {
+            hotels.put(hotelId, hotel);
+            if (hotel.getPricePerNight() != null) {
+                inventoryService.createMissingNights(hotel, nights);
+            }
+        }));
+        return hotels;
+    }
+    
+    // books the given items of the batch with their hotels looked up beforehand, returning their results only
+    private List<BatchBookingResult> bookBatchInTransaction(List<BookingRequest> requests, List<Integer> items,
+                                                            Map<Long, Hotel> hotels) {
+        metrics.timeCommit();
+        BatchBookingResult[] results = new BatchBookingResult[requests.size()];
+        Map<Long, List<Integer>> byHotel = new LinkedHashMap<>();
+        for (int i : items) {
+            byHotel.computeIfAbsent(requests.get(i).getHotelId(), id -> new ArrayList<>()).add(i);
+        }
+        
+        List<Booking> accepted = new ArrayList<>();
+        for (Map.Entry<Long, List<Integer>> group : byHotel.entrySet()) {
+            Optional<Hotel> found = Optional.ofNullable(hotels.get(group.getKey()));
+            if (found.isEmpty()) {
+                group.getValue().forEach(i -> {
+                    results[i] = BatchBookingResult.failed(i, "Hotel not found");
+                    metrics.rejected(Rejection.HOTEL_NOT_FOUND);
+                });
+                continue;
+            }
+            Hotel hotel = found.get();
+            if (hotel.getPricePerNight() == null) {
+                group.getValue().forEach(i -> {
+                    results[i] = BatchBookingResult.failed(i, "Hotel has no price");
+                    metrics.rejected(Rejection.NOT_PRICED);
+                });
+                continue;
+            }
+            
+            for (int i : group.getValue()) {
+                BookingRequest request = requests.get(i);
+                if (!request.getCheckOutDate().isAfter(request.getCheckInDate())) {
+                    results[i] = BatchBookingResult.failed(i, "Check-out date must be after check-in date");
+                    metrics.rejected(Rejection.INVALID_DATES);
+                }
+            }
+            
+            // one event per hotel spanning every night taken
+            LocalDate firstNight = null;
+            LocalDate lastCheckOut = null;
+            for (int i : group.getValue()) {
+                if (results[i] != null) {
+                    continue;
+                }
+                BookingRequest request = requests.get(i);
+                if (!reserveForBatch(hotel, request)) {
+                    results[i] = BatchBookingResult.failed(i, "Not enough rooms available");
+                    metrics.rejected(Rejection.NO_ROOMS);
+                    continue;
+                }
+                Booking booking = newBooking(request, hotel);
+                accepted.add(booking);
+                results[i] = BatchBookingResult.created(i, booking.getBookingReference());
+                if (firstNight == null || request.getCheckInDate().isBefore(firstNight)) {
+                    firstNight = request.getCheckInDate();
+                }
+                if (lastCheckOut == null || request.getCheckOutDate().isAfter(lastCheckOut)) {
+                    lastCheckOut = request.getCheckOutDate();
+                }
+            }
+            if (firstNight != null) {
+                eventPublisher.publishEvent(new HotelAvailabilityChangedEvent(hotel.getId(), firstNight, lastCheckOut));
+            }
+        }
+        
+        metrics.time(Stage.INSERT, () -> bookingRepository.saveAll(accepted));
+        metrics.created(accepted.size());
+        accepted.forEach(booking -> readYourWrites.wrote(ReadYourWrites.customer(booking.getCustomerEmail())));
+        return items.stream().map(i -> results[i]).toList();
+    }
+    
+    // a turned down stay gives its engine rooms back right away, an accepted one only if the batch rolls back
+    private boolean reserveForBatch(Hotel hotel, BookingRequest request) {
+        if (!availabilityEngine.tryTake(hotel.getId(), request.getCheckInDate(),
+                                        request.getCheckOutDate(), request.getNumberOfGuests())) {
+            return false;
+        }
+        if (!inventoryService.tryReserve(hotel, request.getCheckInDate(),
+                                         request.getCheckOutDate(), request.getNumberOfGuests())) {
+            availabilityEngine.release(hotel.getId(), request.getCheckInDate(),
+                                       request.getCheckOutDate(), request.getNumberOfGuests());
+            return false;
+        }
+        availabilityEngine.releaseOnRollback(hotel.getId(), request.getCheckInDate(),
+                                             request.getCheckOutDate(), request.getNumberOfGuests());
+        return true;
+    }
+    
+    private Booking newBooking(BookingRequest request, Hotel hotel) {
         // calculate the total amount 
-        long nights = ChronoUnit.DAYS.between(request.getCheckInDate(), request.getCheckOutDate());
-        BigDecimal totalAmount = hotel.getPricePerNight().multiply(BigDecimal.valueOf(nights));
+        long totalMinor = metrics.time(Stage.PRICE, () -> pricingEngine.totalMinor(hotel,
+            request.getCheckInDate(), request.getCheckOutDate(), request.getNumberOfGuests()));
         
         // create booking reference
-        String bookingReference = generateBookingReference();
+        String bookingReference = metrics.time(Stage.REFERENCE, referenceGenerator::next);
         
         //create booking
-        Booking booking = new Booking(
+        return new Booking(
             bookingReference,
             request.getCustomerEmail(),
             request.getCustomerName(),
@@ -49,25 +419,39 @@ public class BookingService {
             request.getCheckInDate(),
             request.getCheckOutDate(),
             request.getNumberOfGuests(),
-            totalAmount
+            PricingEngine.fromMinor(totalMinor)
         );
-        
-        // update availability of the hotel
-        hotel.setAvailableRooms(hotel.getAvailableRooms() - request.getNumberOfGuests());
-        
-        return bookingRepository.save(booking);
     }
     
-    public List<Booking> findBookingsByEmail(String email) {
-        return bookingRepository.findByCustomerEmailOrderByCreatedAtDesc(email);
+    /**
+     * Read from the replica, unless the customer booked or cancelled within the
+     * replica's tolerated lag and would otherwise miss their own change. With
+     * several shards each returns its newest rows up to the end of the page and
+     * the page is cut from their merge, so deep pages cost more.
+     */
+    @Transactional(readOnly = true)
+    public List<BookingSummary> findBookingsByEmail(String email, int page, int size) {
+        return readYourWrites.read(ReadYourWrites.customer(email), () -> {
+            if (shards.count() == 1) {
+                return bookingRepository.findSummariesByCustomerEmail(email, PageRequest.of(page, size));
+            }
+            List<List<BookingSummary>> newest = shards.onEach(
+                () -> bookingRepository.findSummariesByCustomerEmail(email, PageRequest.of(0, (page + 1) * size)));
+            return Shards.merge(newest, NEWEST_FIRST, (long) page * size, size);
+        });
     }
     
-    private String generateBookingReference() {
-        String reference;
-        do {
-            reference = "TH-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        } while (bookingRepository.existsByBookingReference(reference));
-        
-        return reference;
+    /**
+     * Hands every booking of the customer, newest first, to the sink while the
+     * rows are scrolled from the database. Summaries are never attached to the
+     * persistence context, so memory stays flat however many bookings there are.
+     * With several shards their scrolls are merged as they go.
+     */
+    @Transactional(readOnly = true)
+    public void exportBookingsByEmail(String email, Consumer<BookingSummary> sink) {
+        readYourWrites.read(ReadYourWrites.customer(email), () -> {
+            shards.forEachMerged(() -> bookingRepository.streamSummariesByCustomerEmail(email), NEWEST_FIRST, sink);
+            return null;
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,247 @@
+package com.travelhub.service;
+
+import com.travelhub.event.HotelAvailabilityChangedEvent;
+import com.travelhub.model.Booking;
+import com.travelhub.model.Booking.BookingStatus;
+import com.travelhub.repository.BookingRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bookings written as PENDING in the transaction that reserved their rooms,
+ * waiting to be confirmed. A single worker drains the queue in batches of up to
+ * batchSize, waiting at most maxWait for a batch to fill, and moves each batch to
+ * CONFIRMED with one update. A booking that cannot be confirmed is marked FAILED
+ * and its rooms are handed back. Bookings still queued when the process dies
+ * stay PENDING with their rooms held, as a synchronous booking does; none is lost.
+ * <p>
+ * Capacity is claimed with {@link #tryClaim()} before the rooms are reserved, so
+ * a full queue turns the request away up front and an accepted booking can
+ * always be enqueued afterwards. The writer stops after the web server and
+ * writes every booking claimed until then.
+ */
+@Component
+public class BookingWriteBehind implements SmartLifecycle, MeterBinder {
+    
+    private static final Logger log = LoggerFactory.getLogger(BookingWriteBehind.class);
+    
+    private final int capacity;
+    private final Semaphore slots;
+    private final BlockingQueue<Booking> queue = new LinkedBlockingQueue<>();
+    private final int batchSize;
+    private final Duration maxWait;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private TransactionOperations transaction;
+    
+    @Autowired
+    private BookingRetry retry;
+    
+    @Autowired
+    private BookingMetrics metrics;
+    
+    @Autowired
+    private Shards shards;
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Autowired
+    private AvailabilityEngine availabilityEngine;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    private volatile boolean running;
+    private volatile boolean stopping;
+    private Thread worker;
+    
+    public BookingWriteBehind(@Value("${travelhub.booking.write-behind.capacity:1000}") int capacity,
+                              @Value("${travelhub.booking.write-behind.batch-size:50}") int batchSize,
+                              @Value("${travelhub.booking.write-behind.max-wait:50ms}") Duration maxWait) {
+        this.capacity = capacity;
+        this.slots = new Semaphore(capacity);
+        this.batchSize = batchSize;
+        this.maxWait = maxWait;
+    }
+    
+    // refused once stopping, nothing would be left to confirm the booking
+    public boolean tryClaim() {
+        return !stopping && slots.tryAcquire();
+    }
+    
+    // gives back a claim that was not used because the reservation failed
+    public void release() {
+        slots.release();
+    }
+    
+    // the caller must hold a claim, which is given back once the booking is confirmed or failed
+    public void enqueue(Booking booking) {
+        queue.add(booking);
+    }
+    
+    /**
+     * Confirms whatever is queued, one batch at a time, and returns how many
+     * bookings were taken off the queue.
+     */
+    int flush() {
+        int drained = 0;
+        for (List<Booking> batch = new ArrayList<>(batchSize); queue.drainTo(batch, batchSize) > 0;
+             batch = new ArrayList<>(batchSize)) {
+            drained += batch.size();
+            write(batch);
+        }
+        return drained;
+    }
+    
+    private void drain() {
+        // keeps going after stop until every claimed booking has been confirmed
+        while (running || slots.availablePermits() < capacity) {
+            List<Booking> batch = new ArrayList<>(batchSize);
+            try {
+                Booking first = queue.poll(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // give a burst the chance to fill the batch
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Booking next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // confirm what was already taken and what is still queued, the rooms are held for them
+                Thread.currentThread().interrupt();
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+                flush();
+                return;
+            }
+        }
+    }
+    
+    private void write(List<Booking> batch) {
+        try {
+            shards.partition(batch, booking -> booking.getHotel().getId()).forEach(this::write);
+        } finally {
+            slots.release(batch.size());
+        }
+    }
+    
+    private void write(int shard, List<Booking> bookings) {
+        try {
+            confirm(shard, bookings);
+        } catch (RuntimeException e) {
+            // find the booking that broke the batch and confirm the rest
+            log.warn("Confirming {} bookings failed with {}, confirming them one by one", bookings.size(), e.toString());
+            for (Booking booking : bookings) {
+                try {
+                    confirm(shard, List.of(booking));
+                } catch (RuntimeException single) {
+                    log.error("Could not confirm booking {}, releasing its rooms", booking.getBookingReference(), single);
+                    fail(shard, booking);
+                }
+            }
+        }
+    }
+    
+    // a booking cancelled while it was queued is left cancelled
+    private void confirm(int shard, List<Booking> bookings) {
+        List<String> references = bookings.stream().map(Booking::getBookingReference).toList();
+        shards.on(shard, () -> retry.execute(() -> transaction.execute(
+            status -> bookingRepository.updatePendingStatus(references, BookingStatus.CONFIRMED))));
+    }
+    
+    // the status flip and the release commit together; if they cannot, the booking stays PENDING and keeps its rooms
+    private void fail(int shard, Booking booking) {
+        Long hotelId = booking.getHotel().getId();
+        try {
+            Boolean failed = shards.on(shard, () -> transaction.execute(status -> {
+                if (bookingRepository.updatePendingStatus(List.of(booking.getBookingReference()), BookingStatus.FAILED) == 0) {
+                    return false;
+                }
+                inventoryService.release(hotelId, booking.getCheckInDate(), booking.getCheckOutDate(),
+                                         booking.getNumberOfGuests());
+                eventPublisher.publishEvent(new HotelAvailabilityChangedEvent(hotelId, booking.getCheckInDate(),
+                                                                              booking.getCheckOutDate()));
+                return true;
+            }));
+            if (Boolean.TRUE.equals(failed)) {
+                // offered from memory only once the ledger has them back
+                availabilityEngine.release(hotelId, booking.getCheckInDate(), booking.getCheckOutDate(),
+                                           booking.getNumberOfGuests());
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not fail booking {}, it stays PENDING with its rooms", booking.getBookingReference(), e);
+        }
+    }
+    
+    @Override
+    public void start() {
+        stopping = false;
+        running = true;
+        worker = Thread.ofPlatform().name("booking-write-behind").daemon().start(this::drain);
+    }
+    
+    // bookings already accepted are confirmed before the context closes
+    @Override
+    public void stop() {
+        stopping = true;
+        running = false;
+        try {
+            worker.join(Duration.ofSeconds(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // stops after the web server, so requests it is still finishing can enqueue
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("booking.queue.depth", queue, BlockingQueue::size)
+            .description("Accepted bookings waiting to be confirmed")
+            .register(registry);
+    }
+}
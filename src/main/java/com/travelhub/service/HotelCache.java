@@ -0,0 +1,82 @@
+package com.travelhub.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travelhub.model.Hotel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bounded caches in front of the hotel lookups. Entries expire after a fixed
+ * TTL and the least recently used ones are evicted past the maximum size; hit,
+ * miss and eviction counts are published as cache.* metrics.
+ */
+@Component
+public class HotelCache implements MeterBinder {
+    
+    private final Cache<Long, Hotel> byId;
+    private final Cache<String, List<Hotel>> byCity;
+    
+    public HotelCache(@Value("${travelhub.cache.hotels.maximum-size:10000}") long maximumSize,
+                      @Value("${travelhub.cache.hotels.ttl:10m}") Duration ttl) {
+        this.byId = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.byCity = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+    
+    // missing hotels are not cached, the loader returning null leaves no entry
+    public Hotel getById(Long id, Function<Long, Hotel> loader) {
+        return byId.get(id, loader);
+    }
+    
+    public List<Hotel> getByCity(String city, Function<String, List<Hotel>> loader) {
+        return byCity.get(cityKey(city), key -> loader.apply(city));
+    }
+    
+    // drops the hotels and, in one pass, every cached city list they appear in or now belong to
+    public void evict(Collection<Hotel> hotels) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> cities = new HashSet<>();
+        for (Hotel hotel : hotels) {
+            ids.add(hotel.getId());
+            cities.add(cityKey(hotel.getCity()));
+        }
+        byId.invalidateAll(ids);
+        byCity.asMap().entrySet().removeIf(entry ->
+            cities.contains(entry.getKey())
+                || entry.getValue().stream().anyMatch(hotel -> ids.contains(hotel.getId())));
+    }
+    
+    public void evictAll() {
+        byId.invalidateAll();
+        byCity.invalidateAll();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "hotels.byId");
+        CaffeineCacheMetrics.monitor(registry, byCity, "hotels.byCity");
+    }
+    
+    private static String cityKey(String city) {
+        return city.toLowerCase(Locale.ROOT);
+    }
+}
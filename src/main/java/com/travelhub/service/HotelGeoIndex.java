@@ -0,0 +1,389 @@
+package com.travelhub.service;
+
+import com.travelhub.datasource.ReadWriteRoutingDataSource;
+import com.travelhub.dto.NearbyCriteria;
+import com.travelhub.dto.NearbyHotel;
+import com.travelhub.event.HotelsChangedEvent;
+import com.travelhub.model.Hotel;
+import com.travelhub.repository.HotelRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Uniform latitude/longitude grid over the hotels that have coordinates, for
+ * proximity search.
+ *
+ * Hotels are sorted by cell and their coordinates kept in primitive arrays, so
+ * a radius query binary-searches the first occupied cell of each grid row the
+ * circle touches and compares squared-haversine terms of the hotels in the
+ * covered cells; no trigonometry beyond two sines per candidate. A k-nearest
+ * query is a radius query whose radius grows until k matches fall inside it.
+ * Readers work on an immutable snapshot; hotels added after the last build are
+ * kept in a small unsorted tail that is scanned linearly until the next build.
+ */
+@Component
+public class HotelGeoIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(HotelGeoIndex.class);
+    
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    // new hotels are scanned linearly up to this many, then the grid is rebuilt
+    static final int MAX_PENDING = 16_384;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private AvailabilityEngine availabilityEngine;
+    
+    // about 11 km at the equator
+    @Value("${travelhub.hotels.geo.cell-degrees:0.1}")
+    private double cellDegrees = 0.1;
+    
+    private volatile Grid grid = Grid.build(List.of(), 0.1);
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        // read from the primary like the search index
+        rebuild(ReadWriteRoutingDataSource.onPrimary(hotelRepository::findAll));
+        log.info("Indexed {} hotel locations in {} ms", size(), (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    public synchronized void rebuild(Collection<Hotel> hotels) {
+        grid = Grid.build(located(hotels), cellDegrees);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelsChanged(HotelsChangedEvent event) {
+        upsert(event.hotels());
+    }
+    
+    public synchronized void upsert(Collection<Hotel> hotels) {
+        Grid current = grid;
+        List<Hotel> added = located(hotels);
+        boolean onlyNew = hotels.stream().allMatch(hotel -> hotel.getId() > current.maxId);
+        if (onlyNew && current.pending.size() + added.size() <= MAX_PENDING) {
+            grid = current.withPending(added);
+            return;
+        }
+        // moved, removed or too many pending hotels: start over from everything indexed
+        Map<Long, Hotel> all = new HashMap<>();
+        current.points.forEach(hotel -> all.put(hotel.getId(), hotel));
+        current.pending.forEach(hotel -> all.put(hotel.getId(), hotel));
+        hotels.forEach(changed -> all.put(changed.getId(), changed));
+        rebuild(all.values());
+    }
+    
+    public int size() {
+        Grid current = grid;
+        return current.points.size() + current.pending.size();
+    }
+    
+    // nearest first, at most limit hotels
+    public List<NearbyHotel> nearby(NearbyCriteria criteria, int limit) {
+        Grid current = grid;
+        double latitude = criteria.getLatitude();
+        double longitude = criteria.getLongitude();
+        Predicate<Hotel> filter = filter(criteria);
+        if (criteria.getRadiusKm() != null) {
+            return current.within(latitude, longitude, criteria.getRadiusKm(), limit, filter).toList();
+        }
+        
+        // everything inside the radius is closer than anything outside it, so once
+        // k matches are inside they are the k nearest
+        double radiusKm = Math.max(1, current.cellDegrees * Math.PI / 180 * EARTH_RADIUS_KM);
+        while (true) {
+            Nearest found = current.within(latitude, longitude, radiusKm, limit, filter);
+            if (found.size == limit || radiusKm >= NearbyCriteria.MAX_RADIUS_KM) {
+                return found.toList();
+            }
+            radiusKm = Math.min(radiusKm * 4, NearbyCriteria.MAX_RADIUS_KM);
+        }
+    }
+    
+    private Predicate<Hotel> filter(NearbyCriteria criteria) {
+        int minStars = criteria.getMinStars() == null ? 0 : criteria.getMinStars();
+        return hotel -> (minStars <= 0 || (hotel.getStarRating() != null && hotel.getStarRating() >= minStars))
+            && (!criteria.hasStayWindow() || availabilityEngine.hasRooms(
+                hotel.getId(), criteria.getCheckIn(), criteria.getCheckOut(), criteria.getRooms()));
+    }
+    
+    private static List<Hotel> located(Collection<Hotel> hotels) {
+        List<Hotel> located = new ArrayList<>(hotels.size());
+        for (Hotel hotel : hotels) {
+            if (hotel.getLatitude() != null && hotel.getLongitude() != null) {
+                located.add(hotel);
+            }
+        }
+        return located;
+    }
+    
+    // hav(d / R) for two points given in radians, monotonic in the distance d
+    private static double haversine(double lat1, double cosLat1, double lon1,
+                                    double lat2, double cosLat2, double lon2) {
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLon = Math.sin((lon2 - lon1) / 2);
+        return sinLat * sinLat + cosLat1 * cosLat2 * sinLon * sinLon;
+    }
+    
+    private static double toKm(double haversine) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1, haversine)));
+    }
+    
+    // coordinates in radians, struct-of-arrays
+    private static final class Points {
+        private final Hotel[] hotels;
+        private final double[] lats;
+        private final double[] lons;
+        private final double[] cosLats;
+        
+        Points(List<Hotel> hotels) {
+            int size = hotels.size();
+            this.hotels = hotels.toArray(new Hotel[0]);
+            lats = new double[size];
+            lons = new double[size];
+            cosLats = new double[size];
+            for (int i = 0; i < size; i++) {
+                lats[i] = Math.toRadians(hotels.get(i).getLatitude());
+                lons[i] = Math.toRadians(hotels.get(i).getLongitude());
+                cosLats[i] = Math.cos(lats[i]);
+            }
+        }
+        
+        int size() {
+            return hotels.length;
+        }
+        
+        void forEach(Consumer<Hotel> action) {
+            for (Hotel hotel : hotels) {
+                action.accept(hotel);
+            }
+        }
+        
+        void scan(int from, int to, Query query) {
+            for (int i = from; i < to; i++) {
+                double hav = haversine(query.lat, query.cosLat, query.lon, lats[i], cosLats[i], lons[i]);
+                if (hav <= query.maxHaversine) {
+                    query.nearest.offer(hav, hotels[i], query.filter);
+                }
+            }
+        }
+    }
+    
+    private record Query(double lat, double cosLat, double lon, double maxHaversine,
+                         Predicate<Hotel> filter, Nearest nearest) {
+    }
+    
+    private static final class Grid {
+        private final double cellDegrees;
+        private final int latCells;
+        private final int lonCells;
+        // occupied cells in key order, cell c holds points cellStarts[c] until cellStarts[c + 1]
+        private final long[] cellKeys;
+        private final int[] cellStarts;
+        private final Points points;
+        private final Points pending;
+        // highest id in points or pending, anything at or below it may already be indexed
+        private final long maxId;
+        
+        private Grid(double cellDegrees, long[] cellKeys, int[] cellStarts, Points points, Points pending, long maxId) {
+            this.cellDegrees = cellDegrees;
+            this.latCells = (int) Math.ceil(180 / cellDegrees);
+            this.lonCells = (int) Math.ceil(360 / cellDegrees);
+            this.cellKeys = cellKeys;
+            this.cellStarts = cellStarts;
+            this.points = points;
+            this.pending = pending;
+            this.maxId = maxId;
+        }
+        
+        static Grid build(List<Hotel> hotels, double cellDegrees) {
+            if (!(cellDegrees >= 0.01 && cellDegrees <= 90)) {
+                throw new IllegalArgumentException("Grid cells must be between 0.01 and 90 degrees");
+            }
+            Grid shape = new Grid(cellDegrees, new long[0], new int[] {0}, new Points(List.of()),
+                                  new Points(List.of()), 0);
+            
+            // cell key in the high half, position in the low half: one primitive sort orders both
+            long[] packed = new long[hotels.size()];
+            for (int i = 0; i < packed.length; i++) {
+                Hotel hotel = hotels.get(i);
+                packed[i] = shape.cellKey(hotel.getLatitude(), hotel.getLongitude()) << 32 | i;
+            }
+            Arrays.sort(packed);
+            
+            List<Hotel> ordered = new ArrayList<>(packed.length);
+            long[] keys = new long[packed.length];
+            int[] starts = new int[packed.length + 1];
+            int cells = 0;
+            long maxId = 0;
+            for (int i = 0; i < packed.length; i++) {
+                long key = packed[i] >>> 32;
+                if (cells == 0 || keys[cells - 1] != key) {
+                    keys[cells] = key;
+                    starts[cells++] = i;
+                }
+                Hotel hotel = hotels.get((int) packed[i]);
+                ordered.add(hotel);
+                maxId = Math.max(maxId, hotel.getId());
+            }
+            starts[cells] = packed.length;
+            return new Grid(cellDegrees, Arrays.copyOf(keys, cells), Arrays.copyOf(starts, cells + 1),
+                            new Points(ordered), new Points(List.of()), maxId);
+        }
+        
+        Grid withPending(List<Hotel> added) {
+            List<Hotel> tail = new ArrayList<>(pending.size() + added.size());
+            tail.addAll(Arrays.asList(pending.hotels));
+            tail.addAll(added);
+            long highest = maxId;
+            for (Hotel hotel : added) {
+                highest = Math.max(highest, hotel.getId());
+            }
+            return new Grid(cellDegrees, cellKeys, cellStarts, points, new Points(tail), highest);
+        }
+        
+        Nearest within(double latitude, double longitude, double radiusKm, int limit, Predicate<Hotel> filter) {
+            double angular = Math.min(Math.PI, radiusKm / EARTH_RADIUS_KM);
+            double halfAngle = Math.sin(angular / 2);
+            double lat = Math.toRadians(latitude);
+            Query query = new Query(lat, Math.cos(lat), Math.toRadians(longitude), halfAngle * halfAngle,
+                                    filter, new Nearest(limit));
+            
+            double spanDegrees = Math.toDegrees(angular);
+            double minLat = latitude - spanDegrees;
+            double maxLat = latitude + spanDegrees;
+            // how far east and west the circle reaches; over a pole it covers every longitude
+            double reach = Math.sin(angular) / Math.cos(lat);
+            boolean allLongitudes = minLat <= -90 || maxLat >= 90 || angular >= Math.PI / 2 || reach >= 1;
+            double lonSpan = allLongitudes ? 180 : Math.toDegrees(Math.asin(reach));
+            
+            int firstCol = column(longitude - lonSpan);
+            int lastCol = column(longitude + lonSpan);
+            for (int row = row(Math.max(-90, minLat)), lastRow = row(Math.min(90, maxLat)); row <= lastRow; row++) {
+                long rowStart = (long) row * lonCells;
+                if (allLongitudes) {
+                    scanCells(rowStart, rowStart + lonCells - 1, query);
+                } else if (firstCol <= lastCol) {
+                    scanCells(rowStart + firstCol, rowStart + lastCol, query);
+                } else {
+                    // the circle crosses the antimeridian
+                    scanCells(rowStart + firstCol, rowStart + lonCells - 1, query);
+                    scanCells(rowStart, rowStart + lastCol, query);
+                }
+            }
+            pending.scan(0, pending.size(), query);
+            return query.nearest;
+        }
+        
+        private void scanCells(long fromKey, long toKey, Query query) {
+            int found = Arrays.binarySearch(cellKeys, fromKey);
+            for (int cell = found >= 0 ? found : -found - 1; cell < cellKeys.length && cellKeys[cell] <= toKey; cell++) {
+                points.scan(cellStarts[cell], cellStarts[cell + 1], query);
+            }
+        }
+        
+        long cellKey(double latitude, double longitude) {
+            return (long) row(latitude) * lonCells + column(longitude);
+        }
+        
+        private int row(double latitude) {
+            return Math.min(latCells - 1, Math.max(0, (int) Math.floor((latitude + 90) / cellDegrees)));
+        }
+        
+        private int column(double longitude) {
+            return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), lonCells);
+        }
+    }
+    
+    // bounded max-heap on the haversine term, the root is the furthest kept hotel
+    private static final class Nearest {
+        private final double[] distances;
+        private final Hotel[] hotels;
+        private int size;
+        
+        Nearest(int limit) {
+            distances = new double[limit];
+            hotels = new Hotel[limit];
+        }
+        
+        // the filter runs last, it may ask the availability engine
+        void offer(double distance, Hotel hotel, Predicate<Hotel> filter) {
+            boolean full = size == distances.length;
+            if ((full && distance >= distances[0]) || !filter.test(hotel)) {
+                return;
+            }
+            if (full) {
+                distances[0] = distance;
+                hotels[0] = hotel;
+                siftDown(0);
+            } else {
+                distances[size] = distance;
+                hotels[size] = hotel;
+                siftUp(size++);
+            }
+        }
+        
+        List<NearbyHotel> toList() {
+            NearbyHotel[] sorted = new NearbyHotel[size];
+            while (size > 0) {
+                sorted[size - 1] = new NearbyHotel(hotels[0], Math.round(toKm(distances[0]) * 1000) / 1000.0);
+                size--;
+                distances[0] = distances[size];
+                hotels[0] = hotels[size];
+                siftDown(0);
+            }
+            return Arrays.asList(sorted);
+        }
+        
+        private void siftUp(int at) {
+            while (at > 0) {
+                int parent = (at - 1) / 2;
+                if (distances[parent] >= distances[at]) {
+                    return;
+                }
+                swap(parent, at);
+                at = parent;
+            }
+        }
+        
+        private void siftDown(int at) {
+            while (true) {
+                int largest = at;
+                int left = 2 * at + 1;
+                int right = left + 1;
+                if (left < size && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < size && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == at) {
+                    return;
+                }
+                swap(at, largest);
+                at = largest;
+            }
+        }
+        
+        private void swap(int a, int b) {
+            double distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+            Hotel hotel = hotels[a];
+            hotels[a] = hotels[b];
+            hotels[b] = hotel;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.travelhub.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.travelhub.dto.HotelImportResult;
+import com.travelhub.dto.HotelImportRow;
+import com.travelhub.event.HotelsChangedEvent;
+import com.travelhub.model.Hotel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads supplier catalogs of any size. The input is read a line at a time and
+ * valid rows are written in chunks, each chunk in its own transaction and sent
+ * as JDBC batches, with the persistence context flushed and cleared every batch.
+ * Memory use therefore depends on the chunk size, not on the file. Invalid rows
+ * are skipped and reported; chunks already written stay written if the upload
+ * breaks off.
+ */
+@Service
+public class HotelImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(HotelImportService.class);
+    
+    static final int MAX_REPORTED_ERRORS = 100;
+    static final List<String> CSV_COLUMNS = List.of("name", "city", "country", "starRating", "pricePerNight", "availableRooms");
+    
+    @Autowired
+    private TransactionOperations transaction;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${travelhub.hotels.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize = 50;
+    
+    // header line naming the columns in any order, latitude and longitude may be
+    // left out, then one hotel per line
+    public HotelImportResult importCsv(InputStream input) throws IOException {
+        try (BufferedReader reader = reader(input)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return new Import().finish();
+            }
+            Map<String, Integer> columns = csvColumns(parseCsvLine(header));
+            return importLines(reader, 2, line -> csvRow(parseCsvLine(line), columns));
+        }
+    }
+    
+    public HotelImportResult importNdjson(InputStream input) throws IOException {
+        ObjectReader rows = objectMapper.readerFor(HotelImportRow.class);
+        try (BufferedReader reader = reader(input)) {
+            return importLines(reader, 1, line -> {
+                try {
+                    return rows.readValue(line);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("not a valid hotel: " + e.getOriginalMessage());
+                }
+            });
+        }
+    }
+    
+    private HotelImportResult importLines(BufferedReader reader, long firstLine,
+                                          Function<String, HotelImportRow> parser) throws IOException {
+        Import current = new Import();
+        long lineNumber = firstLine;
+        for (String line = reader.readLine(); line != null; line = reader.readLine(), lineNumber++) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                current.accept(parser.apply(line), lineNumber);
+            } catch (IllegalArgumentException e) {
+                current.reject(lineNumber, e.getMessage());
+            }
+        }
+        return current.finish();
+    }
+    
+    private void write(List<Hotel> chunk) {
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < chunk.size(); i++) {
+                entityManager.persist(chunk.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            // delivered after commit, the in-memory views pick up the chunk as a whole
+            eventPublisher.publishEvent(new HotelsChangedEvent(List.copyOf(chunk)));
+        });
+    }
+    
+    private final class Import {
+        private final long started = System.nanoTime();
+        private final List<String> errors = new ArrayList<>();
+        private List<Hotel> chunk = new ArrayList<>(chunkSize);
+        private long imported;
+        private long rejected;
+        
+        void accept(HotelImportRow row, long lineNumber) {
+            Set<ConstraintViolation<HotelImportRow>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                reject(lineNumber, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+                return;
+            }
+            Hotel hotel = new Hotel(row.name().strip(), row.city().strip(), row.country().strip(),
+                                    row.starRating(), row.pricePerNight(), row.availableRooms());
+            hotel.setLatitude(row.latitude());
+            hotel.setLongitude(row.longitude());
+            chunk.add(hotel);
+            if (chunk.size() == chunkSize) {
+                flush();
+            }
+        }
+        
+        void reject(long lineNumber, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + lineNumber + ": " + reason);
+            }
+        }
+        
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            write(chunk);
+            imported += chunk.size();
+            chunk = new ArrayList<>(chunkSize);
+            if (imported % (chunkSize * 50L) == 0) {
+                log.info("Imported {} hotels, {} rows/s", imported, rowsPerSecond(imported, System.nanoTime() - started));
+            }
+        }
+        
+        HotelImportResult finish() {
+            flush();
+            long elapsed = System.nanoTime() - started;
+            long rows = imported + rejected;
+            log.info("Imported {} hotels and rejected {} rows in {} ms", imported, rejected, elapsed / 1_000_000);
+            return new HotelImportResult(imported, rejected, List.copyOf(errors), elapsed / 1_000_000,
+                                         rowsPerSecond(rows, elapsed));
+        }
+    }
+    
+    private static long rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : rows * 1_000_000_000L / elapsedNanos;
+    }
+    
+    private static BufferedReader reader(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+    }
+    
+    private static Map<String, Integer> csvColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).strip().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!columns.containsKey(column.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("CSV header is missing column " + column);
+            }
+        }
+        return columns;
+    }
+    
+    private static HotelImportRow csvRow(List<String> fields, Map<String, Integer> columns) {
+        Function<String, String> field = column -> {
+            Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+            String value = index != null && index < fields.size() ? fields.get(index).strip() : "";
+            return value.isEmpty() ? null : value;
+        };
+        try {
+            return new HotelImportRow(field.apply("name"), field.apply("city"), field.apply("country"),
+                integerOrNull(field.apply("starRating")), decimalOrNull(field.apply("pricePerNight")),
+                integerOrNull(field.apply("availableRooms")), doubleOrNull(field.apply("latitude")),
+                doubleOrNull(field.apply("longitude")));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + e.getMessage());
+        }
+    }
+    
+    private static Integer integerOrNull(String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+    
+    private static Double doubleOrNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        double parsed = Double.parseDouble(value);
+        if (!Double.isFinite(parsed)) {
+            throw new NumberFormatException(value);
+        }
+        return parsed;
+    }
+    
+    private static BigDecimal decimalOrNull(String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+    
+    // RFC 4180 fields on a single line: quoted fields may hold commas and "" for a quote
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,9 @@
+package com.travelhub.service;
+
+// the hotel has no nightly price, so no stay there can be quoted or booked
+public class HotelNotPricedException extends RuntimeException {
+    
+    public HotelNotPricedException() {
+        super("Hotel has no price");
+    }
+}
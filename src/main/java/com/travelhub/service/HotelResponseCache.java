@@ -0,0 +1,179 @@
+package com.travelhub.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travelhub.dto.CachedResponse;
+import com.travelhub.dto.HotelPage;
+import com.travelhub.event.HotelAvailabilityChangedEvent;
+import com.travelhub.event.HotelsChangedEvent;
+import com.travelhub.model.Hotel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized hotel responses, so repeated reads skip both the lookup and Jackson.
+ *
+ * Single hotels are keyed by id and re-rendered in place when the hotel changes.
+ * Listings and searches are keyed by their normalized query; each remembers the
+ * nights its result depends on, so an availability change only drops listings
+ * whose nights overlap the change, while any catalog change drops them all.
+ * ETags are derived from the bytes, so a regenerated but identical body keeps
+ * its ETag and clients holding it still get 304.
+ */
+@Component
+public class HotelResponseCache implements MeterBinder {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final Cache<Long, CachedResponse> byId;
+    private final Cache<ListingKey, CachedResponse> listings;
+    // bodies shorter than this are sent as they are, gzip would barely shrink them
+    private final int gzipMinBytes;
+    // bumped by every change; a response rendered while its counter moved may be stale and is not kept
+    private final AtomicLong catalogChanges = new AtomicLong();
+    private final AtomicLong availabilityChanges = new AtomicLong();
+    
+    public HotelResponseCache(@Value("${travelhub.cache.responses.maximum-size:10000}") long maximumSize,
+                              @Value("${travelhub.cache.responses.ttl:10m}") Duration ttl,
+                              @Value("${travelhub.cache.responses.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.byId = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.listings = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.gzipMinBytes = gzipMinBytes;
+    }
+    
+    // null for an unknown hotel, which is not cached
+    public CachedResponse hotel(Long id, Function<Long, Hotel> loader) {
+        long seen = catalogChanges.get();
+        CachedResponse response = byId.get(id, key -> {
+            Hotel hotel = loader.apply(key);
+            return hotel == null ? null : render(hotel, null);
+        });
+        if (catalogChanges.get() != seen) {
+            byId.invalidate(id);
+        }
+        return response;
+    }
+    
+    /**
+     * A page of hotels under a normalized query, compared by value. The stay window
+     * names the nights whose availability decides what is on the page, null if none does.
+     */
+    public CachedResponse listing(List<?> query, LocalDate checkIn, LocalDate checkOut, Supplier<HotelPage> loader) {
+        ListingKey listingKey = new ListingKey(query, checkIn, checkOut);
+        long seenCatalog = catalogChanges.get();
+        long seenAvailability = availabilityChanges.get();
+        CachedResponse response = listings.get(listingKey, key -> {
+            HotelPage page = loader.get();
+            return render(page.hotels(), page.nextCursor());
+        });
+        if (catalogChanges.get() != seenCatalog || (checkIn != null && availabilityChanges.get() != seenAvailability)) {
+            listings.invalidate(listingKey);
+        }
+        return response;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelsChanged(HotelsChangedEvent event) {
+        catalogChanges.incrementAndGet();
+        for (Hotel hotel : event.hotels()) {
+            byId.asMap().computeIfPresent(hotel.getId(), (id, stale) -> render(hotel, null));
+        }
+        // a new or edited hotel can appear on any page
+        listings.invalidateAll();
+    }
+    
+    @TransactionalEventListener
+    public void onAvailabilityChanged(HotelAvailabilityChangedEvent event) {
+        availabilityChanges.incrementAndGet();
+        listings.asMap().keySet().removeIf(key -> key.overlaps(event.checkIn(), event.checkOut()));
+    }
+    
+    public void evictAll() {
+        byId.invalidateAll();
+        listings.invalidateAll();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "hotels.responses.byId");
+        CaffeineCacheMetrics.monitor(registry, listings, "hotels.responses.listings");
+    }
+    
+    private CachedResponse render(Object value, String nextCursor) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+        String hash = hash(body);
+        if (gzipMinBytes < 0 || body.length < gzipMinBytes) {
+            return new CachedResponse(body, quoted(hash), null, null, nextCursor);
+        }
+        // a different encoding is a different representation, so it gets its own strong ETag
+        return new CachedResponse(body, quoted(hash), gzip(body), quoted(hash + "-gzip"), nextCursor);
+    }
+    
+    // first 128 bits of SHA-256, base64url
+    static String hash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static String quoted(String tag) {
+        return "\"" + tag + "\"";
+    }
+    
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+    
+    // checkIn null means the page does not depend on availability
+    private record ListingKey(List<?> query, LocalDate checkIn, LocalDate checkOut) {
+        
+        boolean overlaps(LocalDate from, LocalDate to) {
+            return checkIn != null && checkIn.isBefore(to) && from.isBefore(checkOut);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.travelhub.service;
+
+import com.travelhub.datasource.ReadWriteRoutingDataSource;
+import com.travelhub.dto.HotelCursor;
+import com.travelhub.dto.HotelSearchCriteria;
+import com.travelhub.dto.HotelSort;
+import com.travelhub.event.HotelsChangedEvent;
+import com.travelhub.model.Hotel;
+import com.travelhub.repository.HotelRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.IntStream;
+
+/**
+ * Inverted index over the hotel catalog for multi-criteria search.
+ *
+ * Every hotel gets a dense ordinal in id order. City and country words map to
+ * sorted ordinal arrays, prices and star ratings live in primitive arrays, so a
+ * query is a few posting lookups followed by a scan of the surviving ordinals.
+ * Writers share the arrays with the published snapshot: new hotels are appended
+ * past its size, which keeps readers off them until the next snapshot, and the
+ * arrays only grow by doubling. A changed hotel is overwritten in place, so a
+ * query running at that moment may see some of its fields old and some new.
+ */
+@Component
+public class HotelSearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(HotelSearchIndex.class);
+    private static final int MAX_STARS = 5;
+    private static final long NO_PRICE = -1;
+    private static final int[] NO_POSTINGS = new int[0];
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private AvailabilityEngine availabilityEngine;
+    
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        // must hold every hotel the primary has
+        rebuild(ReadWriteRoutingDataSource.onPrimary(hotelRepository::findAll));
+        log.info("Indexed {} hotels in {} ms", snapshot.size, (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    public synchronized void rebuild(Collection<Hotel> hotels) {
+        snapshot = Snapshot.build(hotels);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelsChanged(HotelsChangedEvent event) {
+        upsert(event.hotels());
+    }
+    
+    // costs the changed hotels, not the catalog, unless a new id is below the indexed ones
+    public synchronized void upsert(Collection<Hotel> hotels) {
+        Snapshot current = snapshot;
+        Snapshot next = current.with(hotels);
+        if (next == null) {
+            // ids arriving out of order would break the id ordering of ordinals
+            Map<Long, Hotel> all = new HashMap<>();
+            for (int ord = 0; ord < current.size; ord++) {
+                all.put(current.ids[ord], current.hotels[ord]);
+            }
+            hotels.forEach(changed -> all.put(changed.getId(), changed));
+            next = Snapshot.build(all.values());
+        }
+        snapshot = next;
+    }
+    
+    public int size() {
+        return snapshot.size;
+    }
+    
+    public List<Hotel> search(HotelSearchCriteria criteria, HotelCursor cursor, int limit) {
+        Snapshot current = snapshot;
+        BitSet candidates = current.filter(criteria);
+        
+        long minPrice = criteria.getMinPrice() == null ? Long.MIN_VALUE : toCents(criteria.getMinPrice());
+        long maxPrice = criteria.getMaxPrice() == null ? Long.MAX_VALUE : toCents(criteria.getMaxPrice());
+        boolean priceFiltered = criteria.getMinPrice() != null || criteria.getMaxPrice() != null
+            || cursor.getSort() == HotelSort.PRICE;
+        int minStars = criteria.getMinStars() == null ? 0 : Math.max(0, criteria.getMinStars());
+        int maxStars = criteria.getMaxStars() == null ? MAX_STARS : Math.min(MAX_STARS, criteria.getMaxStars());
+        Bounds bounds = new Bounds(priceFiltered, minPrice, maxPrice, minStars, maxStars);
+        
+        if (cursor.getSort() == HotelSort.ID) {
+            List<Hotel> page = new ArrayList<>(Math.min(limit, 64));
+            int from = current.firstOrdinalAfter(cursor.getLastId());
+            for (int ord = nextCandidate(candidates, from, current.size); ord >= 0 && page.size() < limit;
+                 ord = nextCandidate(candidates, ord + 1, current.size)) {
+                if (matches(current, ord, criteria, bounds)) {
+                    page.add(current.hotels[ord]);
+                }
+            }
+            return page;
+        }
+        
+        // price order: keep the cheapest `limit` matches after the cursor in a bounded max-heap
+        long afterPrice = toCents(cursor.getLastPrice());
+        long afterId = cursor.getLastId();
+        Cheapest cheapest = new Cheapest(current, Math.max(0, Math.min(limit, current.size)));
+        for (int ord = nextCandidate(candidates, 0, current.size); ord >= 0;
+             ord = nextCandidate(candidates, ord + 1, current.size)) {
+            long price = current.prices[ord];
+            boolean afterCursor = price > afterPrice || (price == afterPrice && current.ids[ord] > afterId);
+            if (afterCursor && matches(current, ord, criteria, bounds)) {
+                cheapest.offer(ord);
+            }
+        }
+        
+        int[] ordered = cheapest.sorted();
+        List<Hotel> page = new ArrayList<>(ordered.length);
+        for (int ord : ordered) {
+            page.add(current.hotels[ord]);
+        }
+        return page;
+    }
+    
+    private boolean matches(Snapshot current, int ord, HotelSearchCriteria criteria, Bounds bounds) {
+        long price = current.prices[ord];
+        if (bounds.priceFiltered() && (price == NO_PRICE || price < bounds.minPrice() || price > bounds.maxPrice())) {
+            return false;
+        }
+        int stars = current.stars[ord];
+        if (stars < bounds.minStars() || stars > bounds.maxStars()) {
+            return false;
+        }
+        return !criteria.hasStayWindow() || availabilityEngine.hasRooms(
+            current.ids[ord], criteria.getCheckIn(), criteria.getCheckOut(), criteria.getRooms());
+    }
+    
+    // the price and star limits of one query, unrated hotels count as 0 stars
+    private record Bounds(boolean priceFiltered, long minPrice, long maxPrice, int minStars, int maxStars) {}
+    
+    // null candidates means no posting filter applied, i.e. every ordinal
+    private static int nextCandidate(BitSet candidates, int from, int size) {
+        if (candidates == null) {
+            return from < size ? from : -1;
+        }
+        int next = candidates.nextSetBit(from);
+        return next < size ? next : -1;
+    }
+    
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    static Set<String> tokens(String value) {
+        Set<String> tokens = new HashSet<>();
+        if (value == null) {
+            return tokens;
+        }
+        String normalized = normalize(value);
+        tokens.add(normalized);
+        for (String word : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                tokens.add(word);
+            }
+        }
+        return tokens;
+    }
+    
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Ordinals 0..size-1 of arrays that may be longer and shared with later
+     * snapshots. Postings may name ordinals past size, which readers skip.
+     */
+    private static final class Snapshot {
+        private long[] ids;
+        private Hotel[] hotels;
+        private long[] prices;
+        private byte[] stars;
+        private int size;
+        private NavigableMap<String, int[]> cityTokens;
+        private NavigableMap<String, int[]> countryTokens;
+        
+        static Snapshot build(Collection<Hotel> hotels) {
+            List<Hotel> sorted = new ArrayList<>(hotels);
+            sorted.sort(Comparator.comparing(Hotel::getId));
+            
+            Snapshot built = new Snapshot();
+            built.ids = new long[sorted.size()];
+            built.hotels = new Hotel[sorted.size()];
+            built.prices = new long[sorted.size()];
+            built.stars = new byte[sorted.size()];
+            
+            Map<String, List<Integer>> cities = new HashMap<>();
+            Map<String, List<Integer>> countries = new HashMap<>();
+            for (Hotel hotel : sorted) {
+                int ord = built.size++;
+                built.ids[ord] = hotel.getId();
+                built.setAttributes(ord, hotel);
+                tokens(hotel.getCity()).forEach(token -> cities.computeIfAbsent(token, t -> new ArrayList<>()).add(ord));
+                tokens(hotel.getCountry()).forEach(token -> countries.computeIfAbsent(token, t -> new ArrayList<>()).add(ord));
+            }
+            built.cityTokens = toPostings(cities);
+            built.countryTokens = toPostings(countries);
+            return built;
+        }
+        
+        /**
+         * Writes the hotels into the shared arrays and returns the snapshot showing
+         * them, or null, having written nothing, if a new hotel's id is not above
+         * every indexed id. Each touched posting list is replaced once.
+         */
+        Snapshot with(Collection<Hotel> changed) {
+            Map<Long, Hotel> byId = new TreeMap<>();
+            changed.forEach(hotel -> byId.put(hotel.getId(), hotel));
+            int added = 0;
+            for (Long id : byId.keySet()) {
+                if (Arrays.binarySearch(ids, 0, size, id) < 0) {
+                    if (size > 0 && id <= ids[size - 1]) {
+                        return null;
+                    }
+                    added++;
+                }
+            }
+            
+            Snapshot next = new Snapshot();
+            next.size = size + added;
+            next.ids = ids;
+            next.hotels = hotels;
+            next.prices = prices;
+            next.stars = stars;
+            if (next.size > ids.length) {
+                int capacity = Math.max(next.size, ids.length * 2);
+                next.ids = Arrays.copyOf(ids, capacity);
+                next.hotels = Arrays.copyOf(hotels, capacity);
+                next.prices = Arrays.copyOf(prices, capacity);
+                next.stars = Arrays.copyOf(stars, capacity);
+            }
+            next.cityTokens = cityTokens;
+            next.countryTokens = countryTokens;
+            
+            PostingChanges cities = new PostingChanges();
+            PostingChanges countries = new PostingChanges();
+            int appended = size;
+            for (Hotel hotel : byId.values()) {
+                int found = Arrays.binarySearch(ids, 0, size, hotel.getId());
+                int ord = found >= 0 ? found : appended++;
+                if (found >= 0) {
+                    Hotel previous = next.hotels[ord];
+                    tokens(previous.getCity()).forEach(token -> cities.remove(token, ord));
+                    tokens(previous.getCountry()).forEach(token -> countries.remove(token, ord));
+                } else {
+                    next.ids[ord] = hotel.getId();
+                }
+                next.setAttributes(ord, hotel);
+                tokens(hotel.getCity()).forEach(token -> cities.add(token, ord));
+                tokens(hotel.getCountry()).forEach(token -> countries.add(token, ord));
+            }
+            cities.applyTo(next.cityTokens);
+            countries.applyTo(next.countryTokens);
+            return next;
+        }
+        
+        private void setAttributes(int ord, Hotel hotel) {
+            hotels[ord] = hotel;
+            prices[ord] = hotel.getPricePerNight() == null ? NO_PRICE : toCents(hotel.getPricePerNight());
+            stars[ord] = (byte) (hotel.getStarRating() == null ? 0 : Math.max(0, Math.min(MAX_STARS, hotel.getStarRating())));
+        }
+        
+        BitSet filter(HotelSearchCriteria criteria) {
+            BitSet candidates = null;
+            if (criteria.getCity() != null && !criteria.getCity().isBlank()) {
+                candidates = intersect(candidates, prefixMatches(cityTokens, criteria.getCity()));
+            }
+            if (criteria.getCountry() != null && !criteria.getCountry().isBlank()) {
+                candidates = intersect(candidates, prefixMatches(countryTokens, criteria.getCountry()));
+            }
+            return candidates;
+        }
+        
+        int firstOrdinalAfter(long id) {
+            int found = Arrays.binarySearch(ids, 0, size, id);
+            return found >= 0 ? found + 1 : -found - 1;
+        }
+        
+        private static BitSet prefixMatches(NavigableMap<String, int[]> tokens, String prefix) {
+            String normalized = normalize(prefix);
+            BitSet matches = new BitSet();
+            for (int[] postings : tokens.subMap(normalized, true, normalized + Character.MAX_VALUE, true).values()) {
+                for (int ord : postings) {
+                    matches.set(ord);
+                }
+            }
+            return matches;
+        }
+        
+        private static BitSet intersect(BitSet candidates, BitSet filter) {
+            if (candidates == null) {
+                return filter;
+            }
+            candidates.and(filter);
+            return candidates;
+        }
+        
+        // concurrent, so readers can walk a prefix while a writer replaces posting arrays
+        private static NavigableMap<String, int[]> toPostings(Map<String, List<Integer>> lists) {
+            NavigableMap<String, int[]> postings = new ConcurrentSkipListMap<>();
+            lists.forEach((token, ords) -> postings.put(token, ords.stream().mapToInt(Integer::intValue).toArray()));
+            return postings;
+        }
+    }
+    
+    // the posting changes of one upsert, each touched token gets one new array
+    private static final class PostingChanges {
+        private final Map<String, Set<Integer>> removed = new HashMap<>();
+        private final Map<String, Set<Integer>> added = new HashMap<>();
+        
+        void remove(String token, int ord) {
+            removed.computeIfAbsent(token, t -> new HashSet<>()).add(ord);
+        }
+        
+        void add(String token, int ord) {
+            added.computeIfAbsent(token, t -> new HashSet<>()).add(ord);
+        }
+        
+        void applyTo(NavigableMap<String, int[]> tokens) {
+            Set<String> touched = new HashSet<>(removed.keySet());
+            touched.addAll(added.keySet());
+            for (String token : touched) {
+                Set<Integer> gone = removed.getOrDefault(token, Set.of());
+                int[] postings = IntStream.concat(
+                        Arrays.stream(tokens.getOrDefault(token, NO_POSTINGS)).filter(ord -> !gone.contains(ord)),
+                        added.getOrDefault(token, Set.of()).stream().mapToInt(Integer::intValue))
+                    .sorted()
+                    .distinct()
+                    .toArray();
+                if (postings.length == 0) {
+                    tokens.remove(token);
+                } else {
+                    tokens.put(token, postings);
+                }
+            }
+        }
+    }
+    
+    // max-heap of ordinals by price then id, the root is the dearest of the cheapest kept
+    private static final class Cheapest {
+        private final long[] prices;
+        private final long[] ids;
+        private final int[] heap;
+        private int size;
+        
+        Cheapest(Snapshot snapshot, int limit) {
+            this.prices = snapshot.prices;
+            this.ids = snapshot.ids;
+            this.heap = new int[limit];
+        }
+        
+        void offer(int ord) {
+            if (size < heap.length) {
+                heap[size] = ord;
+                siftUp(size++);
+            } else if (size > 0 && before(ord, heap[0])) {
+                heap[0] = ord;
+                siftDown(0);
+            }
+        }
+        
+        // cheapest first, empties the heap
+        int[] sorted() {
+            int[] ordered = new int[size];
+            for (int i = ordered.length - 1; i >= 0; i--) {
+                ordered[i] = heap[0];
+                heap[0] = heap[--size];
+                siftDown(0);
+            }
+            return ordered;
+        }
+        
+        private boolean before(int a, int b) {
+            return prices[a] < prices[b] || (prices[a] == prices[b] && ids[a] < ids[b]);
+        }
+        
+        private void siftUp(int at) {
+            while (at > 0) {
+                int parent = (at - 1) / 2;
+                if (!before(heap[parent], heap[at])) {
+                    return;
+                }
+                swap(parent, at);
+                at = parent;
+            }
+        }
+        
+        private void siftDown(int at) {
+            while (true) {
+                int child = 2 * at + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && before(heap[child], heap[child + 1])) {
+                    child++;
+                }
+                if (!before(heap[at], heap[child])) {
+                    return;
+                }
+                swap(at, child);
+                at = child;
+            }
+        }
+        
+        private void swap(int a, int b) {
+            int held = heap[a];
+            heap[a] = heap[b];
+            heap[b] = held;
+        }
+    }
+}
@@ -1,10 +1,24 @@
 package com.travelhub.service;
 
+import com.travelhub.dto.HotelCursor;
+import com.travelhub.dto.HotelPage;
+import com.travelhub.dto.HotelSearchCriteria;
+import com.travelhub.dto.HotelSort;
+import com.travelhub.dto.NearbyCriteria;
+import com.travelhub.dto.NearbyHotel;
+import com.travelhub.dto.PriceQuote;
+import com.travelhub.event.HotelsChangedEvent;
 import com.travelhub.model.Hotel;
 import com.travelhub.repository.HotelRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
@@ -13,19 +27,119 @@ public class HotelService {
     @Autowired
     private HotelRepository hotelRepository;
     
+    @Autowired
+    private AvailabilityEngine availabilityEngine;
+    
+    @Autowired
+    private HotelCache hotelCache;
+    
+    @Autowired
+    private HotelSearchIndex hotelSearchIndex;
+    
+    @Autowired
+    private HotelGeoIndex hotelGeoIndex;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PricingEngine pricingEngine;
+    
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Autowired
+    private Shards shards;
+    
+    // repository reads are read-only and go to the replica, if one is configured, unless
+    // the catalog changed within its tolerated lag; cache hits never take a connection
     public List<Hotel> findAll() {
-        return hotelRepository.findAll();
+        return readYourWrites.read(ReadYourWrites.CATALOG, hotelRepository::findAll);
+    }
+    
+    /**
+     * Saves the hotel, moving its ledger nights by the change in its room count in
+     * the same transaction when they live on the home shard; ShardCatalog does the
+     * same on the other shards. A room count below what is already booked on some
+     * night is refused with IllegalStateException.
+     */
+    @Transactional
+    public Hotel save(Hotel hotel) {
+        int addedRooms = hotel.getId() == null ? 0 : hotelRepository.lockById(hotel.getId())
+            .map(previous -> roomsOf(hotel) - roomsOf(previous))
+            .orElse(0);
+        Hotel saved = hotelRepository.save(hotel);
+        if (addedRooms != 0 && shards.of(saved.getId()) == Shards.HOME) {
+            inventoryService.resize(saved.getId(), addedRooms);
+        }
+        eventPublisher.publishEvent(new HotelsChangedEvent(List.of(saved)));
+        return saved;
+    }
+    
+    static int roomsOf(Hotel hotel) {
+        return hotel.getAvailableRooms() == null ? 0 : hotel.getAvailableRooms();
     }
     
     public Optional<Hotel> findById(Long id) {
-        return hotelRepository.findById(id);
+        return Optional.ofNullable(hotelCache.getById(id, key -> readYourWrites.read(ReadYourWrites.CATALOG,
+            () -> hotelRepository.findById(key).orElse(null))));
+    }
+    
+    // what the stay would cost if booked now, empty for an unknown hotel, HotelNotPricedException for an unpriced one
+    public Optional<PriceQuote> quote(Long id, LocalDate checkIn, LocalDate checkOut, int guests) {
+        return findById(id).map(hotel -> PriceQuote.of(id, checkIn, checkOut, guests,
+            pricingEngine.quote(hotel, checkIn, checkOut, guests)));
     }
     
     public List<Hotel> findByCity(String city) {
-        return hotelRepository.findByCityIgnoreCase(city);
+        return hotelCache.getByCity(city, name -> readYourWrites.read(ReadYourWrites.CATALOG,
+            () -> hotelRepository.findByCityKey(name.toLowerCase(Locale.ROOT))));
+    }
+    
+    // served from the in-memory index, no database access
+    public HotelPage search(HotelSearchCriteria criteria, HotelCursor cursor, int size) {
+        List<Hotel> hotels = hotelSearchIndex.search(criteria, cursor, size);
+        return new HotelPage(hotels, nextCursor(hotels, cursor.getSort(), size));
     }
     
+    // nearest first from the in-memory grid, no database access
+    public List<NearbyHotel> findNearby(NearbyCriteria criteria, int size) {
+        return hotelGeoIndex.nearby(criteria, size);
+    }
+    
+    // hotels with rooms left tonight, answered by the in-memory engine
     public List<Hotel> findAvailableHotels() {
-        return hotelRepository.findByAvailableRoomsGreaterThan(0);
+        return availabilityEngine.findAvailableHotels(LocalDate.now());
+    }
+    
+    public HotelPage findAvailableHotels(HotelCursor cursor, int size) {
+        LocalDate tonight = LocalDate.now();
+        if (cursor.getSort() == HotelSort.ID) {
+            List<Hotel> hotels = availabilityEngine.findAvailableHotels(tonight, cursor.getLastId(), size);
+            return new HotelPage(hotels, nextCursor(hotels, HotelSort.ID, size));
+        }
+        
+        // the price index only knows about room counts, tonight's availability is
+        // filtered afterwards so a page can come back short but the cursor still moves on
+        List<Hotel> rows = readYourWrites.read(ReadYourWrites.CATALOG, () -> hotelRepository.findAvailableAfterPrice(
+            cursor.getLastPrice(), cursor.getLastId(), Limit.of(size)));
+        List<Hotel> hotels = rows.stream()
+            .filter(hotel -> availabilityEngine.isAvailable(hotel.getId(), tonight))
+            .toList();
+        return new HotelPage(hotels, nextCursor(rows, HotelSort.PRICE, size));
+    }
+    
+    private static String nextCursor(List<Hotel> page, HotelSort sort, int size) {
+        return page.size() < size ? null : HotelCursor.after(page.get(page.size() - 1), sort).encode();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelsChanged(HotelsChangedEvent event) {
+        // before evicting, so the reload cannot come from a replica without the change
+        readYourWrites.wrote(ReadYourWrites.CATALOG);
+        hotelCache.evict(event.hotels());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package com.travelhub.service;
+
+// the Idempotency-Key was first used for a different booking request
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    
+    public IdempotencyKeyMismatchException() {
+        super("Idempotency key was already used for a different booking");
+    }
+}
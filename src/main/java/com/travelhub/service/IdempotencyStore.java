@@ -0,0 +1,60 @@
+package com.travelhub.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travelhub.dto.IdempotentBooking;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Recent outcomes of bookings made with an Idempotency-Key, held in memory for a
+ * bounded TTL. The first request for a key runs the booking on the caller's
+ * thread; retries arriving meanwhile wait for that same result instead of
+ * booking again, and later ones get it straight from memory. Failures are not
+ * kept, so a request that failed can be retried with the same key.
+ */
+@Component
+public class IdempotencyStore {
+    
+    private final Cache<String, CompletableFuture<IdempotentBooking>> outcomes;
+    
+    public IdempotencyStore(@Value("${travelhub.booking.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${travelhub.booking.idempotency.ttl:24h}") Duration ttl) {
+        this.outcomes = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+    
+    public IdempotentBooking execute(String key, Supplier<IdempotentBooking> firstRequest) {
+        CompletableFuture<IdempotentBooking> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotentBooking> existing = outcomes.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            return new IdempotentBooking(await(existing).booking(), true);
+        }
+        
+        try {
+            IdempotentBooking outcome = firstRequest.get();
+            mine.complete(outcome);
+            return outcome;
+        } catch (RuntimeException e) {
+            outcomes.asMap().remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    private static IdempotentBooking await(CompletableFuture<IdempotentBooking> outcome) {
+        try {
+            return outcome.join();
+        } catch (CompletionException e) {
+            // the request we waited on failed, report the same failure
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.travelhub.service;
+
+import com.travelhub.model.Hotel;
+import com.travelhub.model.RoomInventory;
+import com.travelhub.repository.RoomInventoryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Service
+public class InventoryService {
+    
+    /**
+     * How reserve protects a night from being sold twice. CONDITIONAL_UPDATE
+     * decrements every night in one statement guarded by available_rooms >= rooms;
+     * PESSIMISTIC locks the nights with SELECT ... FOR UPDATE and checks them in
+     * Java first. Both are safe, the setting exists to compare them under load.
+     */
+    public enum Locking { CONDITIONAL_UPDATE, PESSIMISTIC }
+    
+    @Value("${travelhub.inventory.locking:conditional-update}")
+    private Locking locking = Locking.CONDITIONAL_UPDATE;
+    
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate newTransaction;
+    
+    @PostConstruct
+    void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    /**
+     * Takes {@code rooms} rooms off every night in [checkIn, checkOut), with a single
+     * conditional update or under row locks depending on {@link Locking}. The nights
+     * must already exist (see createMissingNights), a missing one counts as full. If
+     * any night is short the caller's transaction is rolled back by the exception,
+     * which also undoes the nights that were decremented.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Hotel hotel, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        long nights = nights(checkIn, checkOut);
+        
+        boolean reserved = locking == Locking.PESSIMISTIC
+            ? reserveLocked(hotel, checkIn, checkOut, rooms, nights)
+            : roomInventoryRepository.reserve(hotel.getId(), checkIn, checkOut, rooms) == nights;
+        if (!reserved) {
+            throw new RuntimeException("Not enough rooms available");
+        }
+    }
+    
+    /**
+     * For callers that reserve many stays in one transaction, where a short stay
+     * must not roll everything back. The nights must already exist (see
+     * createMissingNights); they are locked and checked before any is touched, so
+     * a short stay returns false without leaving partial decrements behind. The
+     * decrements are written on flush, batched with the rest of the transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryReserve(Hotel hotel, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        return reserveLocked(hotel, checkIn, checkOut, rooms, nights(checkIn, checkOut));
+    }
+    
+    private boolean reserveLocked(Hotel hotel, LocalDate checkIn, LocalDate checkOut, int rooms, long nights) {
+        List<RoomInventory> stay = roomInventoryRepository.lockStay(hotel.getId(), checkIn, checkOut);
+        if (stay.size() != nights || stay.stream().anyMatch(night -> night.getAvailableRooms() < rooms)) {
+            return false;
+        }
+        stay.forEach(night -> night.setAvailableRooms(night.getAvailableRooms() - rooms));
+        return true;
+    }
+    
+    /**
+     * Gives {@code rooms} rooms back to every night in [checkIn, checkOut) with one
+     * relative update, so it can run alongside reservations of the same nights.
+     * Nights that were never booked have no row and need nothing back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long hotelId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        roomInventoryRepository.release(hotelId, checkIn, checkOut, rooms);
+    }
+    
+    /**
+     * Moves the total and free rooms of the hotel's nights from today on by
+     * {@code addedRooms}. Must run in the transaction that writes the hotel row
+     * of the same database, so the ledger and the room count never disagree;
+     * nights without a row yet get the new count when they are created. Fewer
+     * rooms than are booked on any of those nights are refused, rolling the
+     * caller back; the bookings stay as they are.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void resize(Long hotelId, int addedRooms) {
+        if (addedRooms == 0) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        roomInventoryRepository.resize(hotelId, today, addedRooms);
+        // the update holds the rows, no booking can take rooms between it and this check
+        if (addedRooms < 0 && roomInventoryRepository.countOverbooked(hotelId, today) > 0) {
+            throw new IllegalStateException("More rooms are booked than the hotel would have");
+        }
+    }
+    
+    /**
+     * Creates the ledger rows for any of the given nights the hotel does not have
+     * yet, all in one separate transaction. If a concurrent booking created some of
+     * them first we fall back to one transaction per night and skip the duplicates.
+     * Bookings call it before opening their own transaction, so they never hold
+     * two connections at once.
+     */
+    public void createMissingNights(Hotel hotel, Collection<LocalDate> nights) {
+        if (nights.isEmpty()) {
+            return;
+        }
+        TreeSet<LocalDate> sorted = new TreeSet<>(nights);
+        Set<LocalDate> existing = new HashSet<>(roomInventoryRepository.findStayDates(
+            hotel.getId(), sorted.first(), sorted.last().plusDays(1)));
+        List<RoomInventory> missing = sorted.stream()
+            .filter(night -> !existing.contains(night))
+            .map(night -> new RoomInventory(hotel.getId(), night, hotel.getAvailableRooms()))
+            .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        
+        try {
+            newTransaction.executeWithoutResult(status -> roomInventoryRepository.saveAllAndFlush(missing));
+        } catch (DataIntegrityViolationException e) {
+            missing.forEach(this::createNight);
+        }
+    }
+    
+    private void createNight(RoomInventory night) {
+        try {
+            newTransaction.executeWithoutResult(status -> roomInventoryRepository.saveAndFlush(
+                new RoomInventory(night.getHotelId(), night.getStayDate(), night.getTotalRooms())));
+        } catch (DataIntegrityViolationException e) {
+            // already created by another booking
+        }
+    }
+    
+    public static List<LocalDate> nightsOf(LocalDate checkIn, LocalDate checkOut) {
+        return checkIn.datesUntil(checkOut).toList();
+    }
+    
+    private static long nights(LocalDate checkIn, LocalDate checkOut) {
+        long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+        if (nights <= 0) {
+            throw new RuntimeException("Check-out date must be after check-in date");
+        }
+        return nights;
+    }
+}
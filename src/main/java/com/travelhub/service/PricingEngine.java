@@ -0,0 +1,190 @@
+package com.travelhub.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travelhub.model.Hotel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Prices stays in long minor units. The first quote for a hotel builds its rate
+ * calendar: the nightly rate with every surcharge applied for each night of the
+ * horizon, stored as running totals, so the rooms of any stay inside the horizon
+ * cost two array reads whatever its length. Nights outside it are priced one by
+ * one, still without allocating. Calendars are rebuilt when the hotel's price
+ * changes and dropped every night so the horizon moves with the date. At most
+ * max-calendars are kept; a hotel whose calendar was evicted builds it again on
+ * its next quote. A hotel without a price cannot be quoted at all.
+ */
+@Component
+public class PricingEngine {
+    
+    private static final long BPS = 10_000;
+    private static final long DEFAULT_MAX_CALENDARS = 10_000;
+    
+    private final PricingRules rules;
+    private final int horizonDays;
+    private final Cache<Long, RateCalendar> calendars;
+    
+    @Autowired
+    public PricingEngine(@Value("${travelhub.pricing.weekend-surcharge-percent:0}") BigDecimal weekendSurchargePercent,
+                         @Value("${travelhub.pricing.weekend-nights:FRIDAY,SATURDAY}") Set<DayOfWeek> weekendNights,
+                         @Value("${travelhub.pricing.peak-surcharge-percent:0}") BigDecimal peakSurchargePercent,
+                         @Value("${travelhub.pricing.peak-months:}") Set<Month> peakMonths,
+                         @Value("${travelhub.pricing.included-guests:2}") int includedGuests,
+                         @Value("${travelhub.pricing.extra-guest-fee:0}") BigDecimal extraGuestFee,
+                         @Value("${travelhub.pricing.tax-percent:0}") BigDecimal taxPercent,
+                         @Value("${travelhub.pricing.horizon-days:365}") int horizonDays,
+                         @Value("${travelhub.pricing.max-calendars:10000}") long maxCalendars) {
+        this(new PricingRules(basisPoints(weekendSurchargePercent), copy(weekendNights, DayOfWeek.class),
+                              basisPoints(peakSurchargePercent), copy(peakMonths, Month.class),
+                              includedGuests, toMinor(extraGuestFee), basisPoints(taxPercent)),
+             horizonDays, maxCalendars);
+    }
+    
+    public PricingEngine(PricingRules rules, int horizonDays) {
+        this(rules, horizonDays, DEFAULT_MAX_CALENDARS);
+    }
+    
+    public PricingEngine(PricingRules rules, int horizonDays, long maxCalendars) {
+        this.rules = rules;
+        this.horizonDays = horizonDays;
+        this.calendars = Caffeine.newBuilder()
+            .maximumSize(maxCalendars)
+            .build();
+    }
+    
+    /**
+     * Total for the stay in minor units: rooms for every night of [checkIn, checkOut),
+     * fees for guests beyond the included ones, and tax on both.
+     *
+     * @throws HotelNotPricedException if the hotel has no nightly price
+     */
+    public long totalMinor(Hotel hotel, LocalDate checkIn, LocalDate checkOut, int guests) {
+        long rooms = roomsMinor(hotel, checkIn, checkOut);
+        long fees = guestFeesMinor(nights(checkIn, checkOut), guests);
+        return rooms + fees + percentOf(rooms + fees, rules.taxBps());
+    }
+    
+    public Quote quote(Hotel hotel, LocalDate checkIn, LocalDate checkOut, int guests) {
+        long nights = nights(checkIn, checkOut);
+        long rooms = roomsMinor(hotel, checkIn, checkOut);
+        long fees = guestFeesMinor(nights, guests);
+        long tax = percentOf(rooms + fees, rules.taxBps());
+        return new Quote(nights, rooms, fees, tax, rooms + fees + tax);
+    }
+    
+    // money in minor units, total = rooms + guestFees + tax
+    public record Quote(long nights, long roomsMinor, long guestFeesMinor, long taxMinor, long totalMinor) {}
+    
+    @Scheduled(cron = "${travelhub.pricing.reload-cron:0 0 0 * * *}")
+    public void clear() {
+        calendars.invalidateAll();
+    }
+    
+    private long roomsMinor(Hotel hotel, LocalDate checkIn, LocalDate checkOut) {
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        if (to <= from) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+        if (hotel.getPricePerNight() == null) {
+            throw new HotelNotPricedException();
+        }
+        RateCalendar calendar = calendarOf(hotel);
+        long start = calendar.firstDay();
+        long end = start + calendar.length();
+        
+        long total = 0;
+        long inFrom = Math.max(from, start);
+        long inTo = Math.min(to, end);
+        if (inFrom < inTo) {
+            total += calendar.running()[(int) (inTo - start)] - calendar.running()[(int) (inFrom - start)];
+        }
+        for (long day = from; day < Math.min(to, start); day++) {
+            total += nightlyMinor(calendar.baseMinor(), day);
+        }
+        for (long day = Math.max(from, end); day < to; day++) {
+            total += nightlyMinor(calendar.baseMinor(), day);
+        }
+        return total;
+    }
+    
+    private RateCalendar calendarOf(Hotel hotel) {
+        RateCalendar calendar = calendars.getIfPresent(hotel.getId());
+        if (calendar != null && calendar.basePrice().compareTo(hotel.getPricePerNight()) == 0) {
+            return calendar;
+        }
+        RateCalendar built = build(hotel.getPricePerNight(), LocalDate.now().toEpochDay());
+        calendars.put(hotel.getId(), built);
+        return built;
+    }
+    
+    private RateCalendar build(BigDecimal basePrice, long firstDay) {
+        long baseMinor = toMinor(basePrice);
+        long[] running = new long[horizonDays + 1];
+        for (int i = 0; i < horizonDays; i++) {
+            running[i + 1] = running[i] + nightlyMinor(baseMinor, firstDay + i);
+        }
+        return new RateCalendar(basePrice, baseMinor, firstDay, running);
+    }
+    
+    private long nightlyMinor(long baseMinor, long epochDay) {
+        long rate = baseMinor;
+        // 1970-01-01 was a Thursday
+        if (rules.weekendNights().contains(DayOfWeek.of((int) Math.floorMod(epochDay + 3, 7L) + 1))) {
+            rate += percentOf(rate, rules.weekendSurchargeBps());
+        }
+        if (!rules.peakMonths().isEmpty() && rules.peakMonths().contains(LocalDate.ofEpochDay(epochDay).getMonth())) {
+            rate += percentOf(rate, rules.peakSurchargeBps());
+        }
+        return rate;
+    }
+    
+    private long guestFeesMinor(long nights, int guests) {
+        long extraGuests = Math.max(0, guests - rules.includedGuests());
+        return extraGuests * nights * rules.extraGuestFeeMinor();
+    }
+    
+    private static long nights(LocalDate checkIn, LocalDate checkOut) {
+        return checkOut.toEpochDay() - checkIn.toEpochDay();
+    }
+    
+    // rounded half up, amounts are never negative
+    private static long percentOf(long amount, int bps) {
+        return bps == 0 ? 0 : (amount * bps + BPS / 2) / BPS;
+    }
+    
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    public static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+    
+    private static int basisPoints(BigDecimal percent) {
+        return percent.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+    
+    private static <E extends Enum<E>> Set<E> copy(Set<E> values, Class<E> type) {
+        return values.isEmpty() ? EnumSet.noneOf(type) : EnumSet.copyOf(values);
+    }
+    
+    // running[i] is the price of the first i nights starting at firstDay
+    private record RateCalendar(BigDecimal basePrice, long baseMinor, long firstDay, long[] running) {
+        int length() {
+            return running.length - 1;
+        }
+    }
+}
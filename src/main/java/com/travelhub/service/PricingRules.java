@@ -0,0 +1,22 @@
+package com.travelhub.service;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Surcharges applied on top of a hotel's base nightly price. Percentages are in
+ * basis points (1250 = 12.5%) and money in minor units, so pricing never needs
+ * BigDecimal. Weekend and peak surcharges compound on the nightly rate; tax is
+ * charged on the rooms plus the guest fees.
+ */
+public record PricingRules(int weekendSurchargeBps, Set<DayOfWeek> weekendNights,
+                           int peakSurchargeBps, Set<Month> peakMonths,
+                           int includedGuests, long extraGuestFeeMinor, int taxBps) {
+    
+    // base price times nights, as bookings were always priced
+    public static PricingRules flat() {
+        return new PricingRules(0, EnumSet.noneOf(DayOfWeek.class), 0, EnumSet.noneOf(Month.class), Integer.MAX_VALUE, 0, 0);
+    }
+}
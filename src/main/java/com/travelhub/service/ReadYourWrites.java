@@ -0,0 +1,87 @@
+package com.travelhub.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travelhub.datasource.ReadWriteRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Remembers who wrote recently, so their reads can skip a replica that may not
+ * have caught up yet. A key is kept for max-lag after the write commits; reads
+ * for it within that window run on the primary, all others in a read-only
+ * transaction, which a configured replica serves. These reads are the only ones
+ * sent to the replica.
+ */
+@Component
+public class ReadYourWrites {
+    
+    // the whole hotel catalog, changed by saves and imports
+    public static final String CATALOG = "catalog";
+    
+    private final Cache<String, Boolean> recentWrites;
+    
+    private TransactionOperations readOnlyTransaction = TransactionOperations.withoutTransaction();
+    
+    public ReadYourWrites(@Value("${travelhub.datasource.replica.max-lag:5s}") Duration maxLag,
+                          @Value("${travelhub.datasource.replica.max-tracked:100000}") long maxTracked) {
+        this.recentWrites = Caffeine.newBuilder()
+            .maximumSize(maxTracked)
+            .expireAfterWrite(maxLag)
+            .build();
+    }
+    
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        this.readOnlyTransaction = template;
+    }
+    
+    public static String customer(String email) {
+        return "customer:" + email.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Records a write for the key. Inside a transaction the window starts again
+     * once it commits, so a slow commit does not eat into it.
+     */
+    public void wrote(String key) {
+        recentWrites.put(key, Boolean.TRUE);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWrites.put(key, Boolean.TRUE);
+                }
+            });
+        }
+    }
+    
+    public boolean wroteRecently(String key) {
+        return recentWrites.getIfPresent(key) != null;
+    }
+    
+    // runs the query on the primary if the key was written within max-lag, else read-only;
+    // inside a read-write transaction it joins that and stays on the primary either way
+    public <T> T read(String key, Supplier<T> query) {
+        if (wroteRecently(key)) {
+            return ReadWriteRoutingDataSource.onPrimary(query);
+        }
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+    
+    public void evictAll() {
+        recentWrites.invalidateAll();
+    }
+}
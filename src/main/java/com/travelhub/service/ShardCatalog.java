@@ -0,0 +1,104 @@
+package com.travelhub.service;
+
+import com.travelhub.datasource.ShardRoutingDataSource;
+import com.travelhub.event.HotelsChangedEvent;
+import com.travelhub.model.Hotel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Copies committed hotel changes from the home shard to every other shard, so
+ * bookings there can reference and join their hotel. Hotel ids come from the
+ * home shard's sequence and are kept as they are. A shard owning a hotel moves
+ * its ledger nights by the change in rooms in the same transaction as the copy.
+ */
+@Component
+public class ShardCatalog {
+    
+    private static final Logger log = LoggerFactory.getLogger(ShardCatalog.class);
+    
+    private static final String UPDATE = "UPDATE hotels SET name = ?, city = ?, country = ?, star_rating = ?, " +
+        "price_per_night = ?, available_rooms = ?, latitude = ?, longitude = ? WHERE id = ?";
+    private static final String INSERT = "INSERT INTO hotels (name, city, country, star_rating, price_per_night, " +
+        "available_rooms, latitude, longitude, id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    @Autowired
+    private Shards shards;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionOperations transaction;
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelsChanged(HotelsChangedEvent event) {
+        if (shards.count() == 1) {
+            return;
+        }
+        List<Integer> others = IntStream.range(1, shards.count()).boxed().toList();
+        try {
+            shards.onShards(others, () -> transaction.execute(status -> copy(event.hotels())));
+        } catch (RuntimeException e) {
+            // the home shard has committed, bookings of these hotels fail on lagging shards until they are saved again
+            log.error("Copying {} hotels to the other shards failed", event.hotels().size(), e);
+        }
+    }
+    
+    // updates the hotels a shard already has and inserts the rest
+    private int copy(List<Hotel> hotels) {
+        Map<Long, Integer> previousRooms = lockOwnedRooms(hotels);
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE, hotels.stream().map(ShardCatalog::row).toList());
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < hotels.size(); i++) {
+            if (updated[i] == 0) {
+                missing.add(row(hotels.get(i)));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, missing);
+        }
+        for (Hotel hotel : hotels) {
+            Integer previous = previousRooms.get(hotel.getId());
+            if (previous != null) {
+                inventoryService.resize(hotel.getId(), HotelService.roomsOf(hotel) - previous);
+            }
+        }
+        return missing.size();
+    }
+    
+    // room counts of the hotels whose ledger this shard keeps, locked until the copy commits
+    private Map<Long, Integer> lockOwnedRooms(List<Hotel> hotels) {
+        int shard = ShardRoutingDataSource.current();
+        List<Long> owned = hotels.stream().map(Hotel::getId).filter(id -> shards.of(id) == shard).toList();
+        Map<Long, Integer> rooms = new HashMap<>();
+        if (!owned.isEmpty()) {
+            String ids = String.join(", ", Collections.nCopies(owned.size(), "?"));
+            jdbcTemplate.query("SELECT id, available_rooms FROM hotels WHERE id IN (" + ids + ") FOR UPDATE",
+                (RowCallbackHandler) row -> rooms.put(row.getLong(1), row.getInt(2)), owned.toArray());
+        }
+        return rooms;
+    }
+    
+    private static Object[] row(Hotel hotel) {
+        return new Object[] {hotel.getName(), hotel.getCity(), hotel.getCountry(), hotel.getStarRating(),
+                             hotel.getPricePerNight(), hotel.getAvailableRooms(), hotel.getLatitude(),
+                             hotel.getLongitude(), hotel.getId()};
+    }
+}
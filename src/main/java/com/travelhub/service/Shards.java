@@ -0,0 +1,276 @@
+package com.travelhub.service;
+
+import com.travelhub.datasource.ShardRoutingDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Which shard owns a hotel's bookings and inventory, and the means to run work
+ * there: on one shard, on every shard in parallel, or merging rows that every
+ * shard returns in the same order. With a single database everything runs
+ * inline on the caller's thread, exactly as without sharding.
+ */
+@Component
+public class Shards implements DisposableBean {
+    
+    // rows buffered per shard while a merge waits for the slowest one
+    static final int MERGE_BUFFER = 500;
+    
+    // spring.datasource, which also keeps the hotel catalog
+    static final int HOME = 0;
+    
+    private static final Object END = new Object();
+    
+    private final int count;
+    private final ExecutorService fanOut = Executors.newVirtualThreadPerTaskExecutor();
+    private TransactionOperations readOnlyTransaction;
+    
+    public Shards(@Value("${travelhub.sharding.shard-urls:}") List<String> shardUrls) {
+        this.count = 1 + shardUrls.size();
+    }
+    
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        this.readOnlyTransaction = template;
+    }
+    
+    public int count() {
+        return count;
+    }
+    
+    public int of(Long hotelId) {
+        return (int) Math.floorMod(hotelId, (long) count);
+    }
+    
+    /**
+     * Runs the work with every connection taken from the shard. A transaction
+     * cannot span shards, so this must not be called inside one begun elsewhere.
+     */
+    public <T> T on(int shard, Supplier<T> work) {
+        if (count == 1) {
+            return work.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive() && ShardRoutingDataSource.current() != shard) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction on shard "
+                + ShardRoutingDataSource.current());
+        }
+        return ShardRoutingDataSource.on(shard, work);
+    }
+    
+    public <T> T onShardOf(Long hotelId, Supplier<T> work) {
+        return on(of(hotelId), work);
+    }
+    
+    // results in shard order, the shards are queried in parallel
+    public <T> List<T> onEach(Supplier<T> work) {
+        return onShards(IntStream.range(0, count).boxed().toList(), work);
+    }
+    
+    public <T> List<T> onShards(List<Integer> shards, Supplier<T> work) {
+        if (count == 1) {
+            return shards.stream().map(shard -> work.get()).toList();
+        }
+        List<Future<T>> pending = shards.stream()
+            .map(shard -> fanOut.submit(() -> ShardRoutingDataSource.on(shard, work)))
+            .toList();
+        List<T> results = new ArrayList<>(pending.size());
+        for (Future<T> result : pending) {
+            results.add(await(result));
+        }
+        return results;
+    }
+    
+    // first shard on which the probe holds, the home shard if it holds on none
+    public int find(Supplier<Boolean> probe) {
+        if (count == 1) {
+            return 0;
+        }
+        List<Boolean> found = onEach(probe);
+        return Math.max(0, found.indexOf(Boolean.TRUE));
+    }
+    
+    // items grouped by the shard owning their hotel, in order of first appearance
+    public <T> Map<Integer, List<T>> partition(List<T> items, Function<T, Long> hotelId) {
+        if (count == 1) {
+            return Map.of(0, items);
+        }
+        Map<Integer, List<T>> byShard = new LinkedHashMap<>();
+        for (T item : items) {
+            byShard.computeIfAbsent(of(hotelId.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return byShard;
+    }
+    
+    /**
+     * Merges lists every shard returned in the given order, skipping the first
+     * skip rows of the merged result and returning at most limit after them.
+     */
+    public static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order, long skip, int limit) {
+        PriorityQueue<Cursor<T>> cursors = new PriorityQueue<>((a, b) -> order.compare(a.row(), b.row()));
+        for (List<T> rows : sorted) {
+            if (!rows.isEmpty()) {
+                cursors.add(new Cursor<>(rows, 0));
+            }
+        }
+        List<T> merged = new ArrayList<>(Math.max(0, limit));
+        for (long taken = 0; !cursors.isEmpty() && merged.size() < limit; taken++) {
+            Cursor<T> cursor = cursors.poll();
+            if (taken >= skip) {
+                merged.add(cursor.row());
+            }
+            if (cursor.index() + 1 < cursor.rows().size()) {
+                cursors.add(new Cursor<>(cursor.rows(), cursor.index() + 1));
+            }
+        }
+        return merged;
+    }
+    
+    /**
+     * Streams the query's rows from every shard to the sink in the given order,
+     * which each shard must already return them in. Every shard streams inside
+     * its own read-only transaction on its own thread, at most MERGE_BUFFER rows
+     * ahead of the sink, so memory stays flat however many rows there are.
+     */
+    public <T> void forEachMerged(Supplier<Stream<T>> query, Comparator<? super T> order, Consumer<? super T> sink) {
+        if (count == 1) {
+            try (Stream<T> rows = query.get()) {
+                rows.forEachOrdered(sink);
+            }
+            return;
+        }
+        
+        List<BlockingQueue<Object>> buffers = new ArrayList<>(count);
+        List<Future<?>> producers = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(MERGE_BUFFER);
+            buffers.add(buffer);
+            int owner = shard;
+            producers.add(fanOut.submit(() -> produce(owner, query, buffer)));
+        }
+        try {
+            PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.row(), b.row()));
+            for (int shard = 0; shard < count; shard++) {
+                T first = take(buffers.get(shard));
+                if (first != null) {
+                    heads.add(new Head<>(first, shard));
+                }
+            }
+            while (!heads.isEmpty()) {
+                Head<T> head = heads.poll();
+                sink.accept(head.row());
+                T next = take(buffers.get(head.shard()));
+                if (next != null) {
+                    heads.add(new Head<>(next, head.shard()));
+                }
+            }
+        } finally {
+            // a sink that gave up leaves producers blocked on a full buffer
+            producers.forEach(producer -> producer.cancel(true));
+        }
+    }
+    
+    private <T> void produce(int shard, Supplier<Stream<T>> query, BlockingQueue<Object> buffer) {
+        try {
+            ShardRoutingDataSource.on(shard, () -> readOnlyTransaction.execute(status -> {
+                try (Stream<T> rows = query.get()) {
+                    rows.forEachOrdered(row -> put(buffer, row));
+                }
+                return null;
+            }));
+            put(buffer, END);
+        } catch (ShardInterruptedException e) {
+            // the merge was abandoned, nobody is waiting for the rest
+        } catch (RuntimeException e) {
+            put(buffer, new Failure(e));
+        }
+    }
+    
+    private static void put(BlockingQueue<Object> buffer, Object row) {
+        try {
+            buffer.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardInterruptedException(e);
+        }
+    }
+    
+    // the next row, or null once the shard has no more
+    @SuppressWarnings("unchecked")
+    private static <T> T take(BlockingQueue<Object> buffer) {
+        Object row;
+        try {
+            row = buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardInterruptedException(e);
+        }
+        if (row instanceof Failure failure) {
+            throw failure.cause();
+        }
+        return row == END ? null : (T) row;
+    }
+    
+    private static <T> T await(Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardInterruptedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        fanOut.shutdownNow();
+    }
+    
+    private record Cursor<T>(List<T> rows, int index) {
+        T row() {
+            return rows.get(index);
+        }
+    }
+    
+    // the next row streamed from a shard
+    private record Head<T>(T row, int shard) {
+    }
+    
+    private record Failure(RuntimeException cause) {
+    }
+    
+    static class ShardInterruptedException extends RuntimeException {
+        ShardInterruptedException(InterruptedException cause) {
+            super("Interrupted while waiting for a shard", cause);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.travelhub.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style references: 41 bits of milliseconds since 2024-01-01, a 10 bit
+ * node id and a 12 bit per-millisecond sequence, written as 13 Crockford base32
+ * characters. Every API instance must run with its own travelhub.booking.node-id;
+ * within a node the (millisecond, sequence) pair only moves forward, so a burst of
+ * more than 4096 references in a millisecond, or a clock that steps back, borrows
+ * from the next milliseconds instead of repeating one.
+ */
+@Component
+public class SnowflakeReferenceGenerator implements BookingReferenceGenerator, MeterBinder {
+    
+    static final String PREFIX = "TH-";
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 13;
+    
+    private final long nodeId;
+    private final LongSupplier clock;
+    // last (millisecond << SEQUENCE_BITS | sequence) handed out by this node
+    private final AtomicLong last = new AtomicLong(-1);
+    // references handed out ahead of the clock, the old collision retries' counterpart
+    private final LongAdder borrowed = new LongAdder();
+    
+    @Autowired
+    public SnowflakeReferenceGenerator(@Value("${travelhub.booking.node-id:0}") long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+    
+    SnowflakeReferenceGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+    
+    @Override
+    public String next() {
+        return encode(nextId());
+    }
+    
+    public long nextId() {
+        while (true) {
+            long previous = last.get();
+            long now = clock.getAsLong() - EPOCH;
+            long next = Math.max(now << SEQUENCE_BITS, previous + 1);
+            if (last.compareAndSet(previous, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                if (millis > now) {
+                    borrowed.increment();
+                }
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return millis << (NODE_BITS + SEQUENCE_BITS) | nodeId << SEQUENCE_BITS | sequence;
+            }
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("booking.reference.borrowed", borrowed, LongAdder::sum)
+            .description("References issued ahead of the clock after a sequence overflow or clock step back")
+            .register(registry);
+    }
+    
+    // fixed width, so references sort the same way as their ids
+    static String encode(long id) {
+        char[] chars = new char[PREFIX.length() + LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
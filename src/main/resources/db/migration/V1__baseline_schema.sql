@@ -0,0 +1,40 @@
+-- schema as previously generated by hibernate from the entities
+
+CREATE TABLE hotels (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(255)   NOT NULL,
+    city            VARCHAR(255)   NOT NULL,
+    country         VARCHAR(255)   NOT NULL,
+    star_rating     INTEGER,
+    price_per_night NUMERIC(10, 2),
+    available_rooms INTEGER
+);
+
+CREATE INDEX idx_hotels_price_id ON hotels (price_per_night, id);
+
+CREATE SEQUENCE booking_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE bookings (
+    id                BIGINT         PRIMARY KEY,
+    booking_reference VARCHAR(255)   NOT NULL,
+    customer_email    VARCHAR(255)   NOT NULL,
+    customer_name     VARCHAR(255)   NOT NULL,
+    hotel_id          BIGINT         NOT NULL,
+    check_in_date     DATE           NOT NULL,
+    check_out_date    DATE           NOT NULL,
+    number_of_guests  INTEGER        NOT NULL,
+    total_amount      NUMERIC(12, 2) NOT NULL,
+    status            VARCHAR(20),
+    created_at        TIMESTAMP(6),
+    CONSTRAINT uk_bookings_reference UNIQUE (booking_reference),
+    CONSTRAINT fk_bookings_hotel FOREIGN KEY (hotel_id) REFERENCES hotels (id)
+);
+
+CREATE TABLE room_inventory (
+    id              BIGINT  GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hotel_id        BIGINT  NOT NULL,
+    stay_date       DATE    NOT NULL,
+    total_rooms     INTEGER NOT NULL,
+    available_rooms INTEGER NOT NULL,
+    CONSTRAINT uk_room_inventory_hotel_night UNIQUE (hotel_id, stay_date)
+);
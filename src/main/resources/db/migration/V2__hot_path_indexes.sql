@@ -0,0 +1,10 @@
+-- booking history: where customer_email = ? order by created_at desc
+CREATE INDEX idx_bookings_email_created ON bookings (customer_email, created_at);
+
+-- case-insensitive city lookups compare against a stored lowercase copy, since
+-- an index on lower(city) is not available on every database we run on
+ALTER TABLE hotels ADD COLUMN city_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(city));
+CREATE INDEX idx_hotels_city_key ON hotels (city_key);
+
+-- available_rooms > 0 listings, id keeps the scan in id order
+CREATE INDEX idx_hotels_available_rooms ON hotels (available_rooms, id);
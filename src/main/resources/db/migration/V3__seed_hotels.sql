@@ -1,6 +1,8 @@
+-- sample catalog, previously data.sql
+
 INSERT INTO hotels (name, city, country, star_rating, price_per_night, available_rooms) VALUES
 ('Mandarin Oriental', 'Bangkok', 'Thailand', 5, 250.00, 10),
 ('Shangri La Bangkok', 'Bangkok', 'Thailand', 4, 200.00, 5),
 ('Chiang Mai Orchid Hotel', 'Chiang Mai', 'Thailand', 4, 80.00, 8),
 ('Marina Bay Sands', 'Singapore', 'Singapore', 5, 350.00, 12),
-('Phuket Mariott Resort and Spa', 'Phuket', 'Thailand', 3, 400.00, 15);
\ No newline at end of file
+('Phuket Mariott Resort and Spa', 'Phuket', 'Thailand', 3, 400.00, 15);
@@ -0,0 +1,4 @@
+-- client supplied Idempotency-Key of the request that created the booking;
+-- unique so concurrent retries on different instances cannot both insert
+ALTER TABLE bookings ADD COLUMN idempotency_key VARCHAR(100);
+CREATE UNIQUE INDEX uk_bookings_idempotency_key ON bookings (idempotency_key);
@@ -0,0 +1,6 @@
+-- hotels take ids from a pooled sequence like bookings, so bulk imports are
+-- sent as JDBC batches; identity ids would force one insert per round trip
+ALTER TABLE hotels ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE hotel_seq START WITH 1 INCREMENT BY 50;
+-- hibernate hands out the 50 ids up to each value, start past the existing rows
+ALTER SEQUENCE hotel_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM hotels);
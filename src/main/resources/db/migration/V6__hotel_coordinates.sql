@@ -0,0 +1,11 @@
+-- coordinates for the proximity search; hotels without them are simply not found by it
+ALTER TABLE hotels ADD COLUMN latitude DOUBLE PRECISION;
+ALTER TABLE hotels ADD COLUMN longitude DOUBLE PRECISION;
+ALTER TABLE hotels ADD CONSTRAINT ck_hotels_coordinates
+    CHECK (latitude BETWEEN -90 AND 90 AND longitude BETWEEN -180 AND 180);
+
+UPDATE hotels SET latitude = 13.7236, longitude = 100.5145 WHERE name = 'Mandarin Oriental';
+UPDATE hotels SET latitude = 13.7178, longitude = 100.5134 WHERE name = 'Shangri La Bangkok';
+UPDATE hotels SET latitude = 18.7953, longitude = 98.9685 WHERE name = 'Chiang Mai Orchid Hotel';
+UPDATE hotels SET latitude = 1.2834, longitude = 103.8607 WHERE name = 'Marina Bay Sands';
+UPDATE hotels SET latitude = 7.8961, longitude = 98.2962 WHERE name = 'Phuket Mariott Resort and Spa';
@@ -0,0 +1,67 @@
+package com.travelhub;
+
+import com.travelhub.dto.BookingRequest;
+import com.travelhub.model.Booking;
+import com.travelhub.service.BookingService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("prod")
+class ProductionProfileTest {
+    
+    @TempDir
+    static Path dataDir;
+    
+    @DynamicPropertySource
+    static void dataDir(DynamicPropertyRegistry registry) {
+        registry.add("travelhub.data-dir", () -> dataDir.toString());
+    }
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Test
+    void prodProfile_ShouldUseSizedPoolOnFileBackedDatabase() {
+        HikariDataSource hikari = assertInstanceOf(HikariDataSource.class, dataSource);
+        assertEquals(20, hikari.getMaximumPoolSize());
+        assertFalse(hikari.isAutoCommit());
+        assertTrue(hikari.getJdbcUrl().startsWith("jdbc:h2:file:"));
+        assertTrue(Files.exists(dataDir.resolve("travelhub.mv.db")));
+    }
+    
+    @Test
+    void prodProfile_ShouldCommitBookingsWithAutoCommitOff() {
+        // Given
+        BookingRequest request = new BookingRequest();
+        request.setHotelId(1L);
+        request.setCustomerEmail("prod-profile@example.com");
+        request.setCustomerName("Prod Profile");
+        request.setCheckInDate(LocalDate.now().plusDays(3));
+        request.setCheckOutDate(LocalDate.now().plusDays(5));
+        request.setNumberOfGuests(1);
+        
+        // When
+        Booking booking = bookingService.createBooking(request);
+        
+        // Then
+        assertNotNull(booking.getId());
+        assertEquals(1, bookingService.findBookingsByEmail("prod-profile@example.com", 0, 10).size());
+    }
+}
@@ -0,0 +1,142 @@
+package com.travelhub;
+
+import com.travelhub.datasource.ReadWriteRoutingDataSource;
+import com.travelhub.dto.BookingRequest;
+import com.travelhub.model.Booking;
+import com.travelhub.model.Hotel;
+import com.travelhub.service.AvailabilityEngine;
+import com.travelhub.service.BookingService;
+import com.travelhub.service.HotelGeoIndex;
+import com.travelhub.service.HotelSearchIndex;
+import com.travelhub.service.HotelService;
+import com.travelhub.service.ReadYourWrites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// two embedded databases that never replicate, so where a row shows up tells which one was read
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+    "travelhub.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+    "travelhub.datasource.replica.username=sa",
+    "travelhub.datasource.replica.password=password",
+    "travelhub.datasource.replica.migrate=true"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+    
+    @Autowired
+    private HotelService hotelService;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    
+    @Autowired
+    private AvailabilityEngine availabilityEngine;
+    
+    @Autowired
+    private HotelSearchIndex hotelSearchIndex;
+    
+    @Autowired
+    private HotelGeoIndex hotelGeoIndex;
+    
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+    
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+    
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        readYourWrites.evictAll();
+    }
+    
+    @Test
+    void readOnlyMethods_ShouldBeServedByTheReplica() {
+        // Given - a hotel the primary has never seen
+        replica.update("INSERT INTO hotels (id, name, city, country, star_rating, price_per_night, available_rooms) "
+            + "VALUES (990001, 'Mirror Lodge', 'Mirrorton', 'Nowhere', 3, 80.00, 5)");
+        
+        // When / Then
+        assertEquals(1, hotelService.findByCity("Mirrorton").size());
+        assertEquals(0, primary.queryForObject("SELECT COUNT(*) FROM hotels WHERE city = 'Mirrorton'", Integer.class));
+        assertEquals(ReadWriteRoutingDataSource.Route.PRIMARY, ReadWriteRoutingDataSource.currentRoute());
+    }
+    
+    @Test
+    void createBooking_ShouldWriteToThePrimaryAndStillShowTheCustomerTheirBooking() {
+        // Given
+        BookingRequest request = new BookingRequest();
+        request.setHotelId(2L);
+        request.setCustomerEmail("routing-own@example.com");
+        request.setCustomerName("Routing Own");
+        request.setCheckInDate(LocalDate.now().plusDays(210));
+        request.setCheckOutDate(LocalDate.now().plusDays(212));
+        request.setNumberOfGuests(1);
+        
+        // When
+        Booking booking = bookingService.createBooking(request);
+        
+        // Then - only the primary has it, yet the customer's next read finds it
+        String count = "SELECT COUNT(*) FROM bookings WHERE customer_email = 'routing-own@example.com'";
+        assertEquals(1, primary.queryForObject(count, Integer.class));
+        assertEquals(0, replica.queryForObject(count, Integer.class));
+        assertEquals(1, bookingService.findBookingsByEmail("routing-own@example.com", 0, 10).size());
+        assertTrue(bookingService.findStatus(booking.getBookingReference()).isPresent());
+        
+        // once the tolerated lag has passed the replica answers again
+        readYourWrites.evictAll();
+        assertEquals(0, bookingService.findBookingsByEmail("routing-own@example.com", 0, 10).size());
+    }
+    
+    @Test
+    void save_ShouldReadTheChangedCatalogFromThePrimary() {
+        // Given
+        Hotel hotel = new Hotel("Fresh Paint Inn", "Newbuildville", "Nowhere", 4, new BigDecimal("120.00"), 8);
+        
+        // When
+        hotelService.save(hotel);
+        
+        // Then - the replica does not have it, the catalog read goes to the primary
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM hotels WHERE city = 'Newbuildville'", Integer.class));
+        assertEquals(1, hotelService.findByCity("Newbuildville").size());
+    }
+    
+    @Test
+    void load_ShouldRebuildInMemoryStateFromThePrimary() {
+        // Given - a hotel the replica has not caught up with
+        primary.update("INSERT INTO hotels (id, name, city, country, star_rating, price_per_night, available_rooms, "
+            + "latitude, longitude) VALUES (990002, 'Lagging Lodge', 'Behindham', 'Nowhere', 3, 70.00, 4, 10.5, 20.5)");
+        
+        // When
+        availabilityEngine.load();
+        hotelSearchIndex.load();
+        hotelGeoIndex.load();
+        
+        // Then
+        assertTrue(availabilityEngine.findHotel(990002L).isPresent());
+        assertEquals(primary.queryForObject("SELECT COUNT(*) FROM hotels", Integer.class), hotelSearchIndex.size());
+        assertEquals(primary.queryForObject("SELECT COUNT(*) FROM hotels WHERE latitude IS NOT NULL", Integer.class),
+                     hotelGeoIndex.size());
+    }
+}
@@ -0,0 +1,163 @@
+package com.travelhub;
+
+import com.travelhub.dto.BatchBookingResult;
+import com.travelhub.dto.BookingRequest;
+import com.travelhub.dto.BookingSummary;
+import com.travelhub.model.Booking;
+import com.travelhub.model.Hotel;
+import com.travelhub.service.BookingService;
+import com.travelhub.service.HotelService;
+import com.travelhub.service.Shards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// three embedded databases; seeded hotels 3, 1 and 4, 2 and 5 belong to shards 0, 1 and 2
+@SpringBootTest(properties = {
+    "spring.datasource.url=" + ShardingTest.HOME,
+    "travelhub.sharding.shard-urls=" + ShardingTest.SHARD_ONE + "," + ShardingTest.SHARD_TWO
+})
+@ActiveProfiles("test")
+class ShardingTest {
+    
+    static final String HOME = "jdbc:h2:mem:sharding-home;DB_CLOSE_DELAY=-1";
+    static final String SHARD_ONE = "jdbc:h2:mem:sharding-one;DB_CLOSE_DELAY=-1";
+    static final String SHARD_TWO = "jdbc:h2:mem:sharding-two;DB_CLOSE_DELAY=-1";
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private HotelService hotelService;
+    
+    @Autowired
+    private Shards shards;
+    
+    private List<JdbcTemplate> databases;
+    
+    @BeforeEach
+    void setUp() {
+        databases = Stream.of(HOME, SHARD_ONE, SHARD_TWO)
+            .map(url -> new JdbcTemplate(new DriverManagerDataSource(url, "sa", "password")))
+            .toList();
+    }
+    
+    @Test
+    void createBooking_ShouldLandOnTheOwningShardAndHistoryShouldMergeNewestFirst() {
+        // Given
+        List<Booking> booked = new ArrayList<>();
+        for (long hotelId : new long[] {1, 2, 3}) {
+            booked.add(bookingService.createBooking(request(hotelId, "history@example.com", 300)));
+        }
+        
+        // Then - one booking on every shard
+        for (int shard = 0; shard < 3; shard++) {
+            assertEquals(List.of((long) (shard == 0 ? 3 : shard)), databases.get(shard).queryForList(
+                "SELECT hotel_id FROM bookings WHERE customer_email = 'history@example.com'", Long.class));
+        }
+        assertEquals(3, booked.stream().map(Booking::getId).distinct().count());
+        
+        // pages are cut from the merge of every shard, newest first
+        assertEquals(List.of(3L, 2L), hotelIds(bookingService.findBookingsByEmail("history@example.com", 0, 2)));
+        assertEquals(List.of(1L), hotelIds(bookingService.findBookingsByEmail("history@example.com", 1, 2)));
+        List<BookingSummary> exported = new ArrayList<>();
+        bookingService.exportBookingsByEmail("history@example.com", exported::add);
+        assertEquals(List.of(3L, 2L, 1L), hotelIds(exported));
+    }
+    
+    @Test
+    void cancelBooking_ShouldFindTheBookingOnItsShard() {
+        // Given
+        Booking booking = bookingService.createBooking(request(5L, "cancel-shard@example.com", 310));
+        
+        // When
+        assertTrue(bookingService.cancelBooking(booking.getBookingReference()));
+        
+        // Then
+        assertEquals(Booking.BookingStatus.CANCELLED, bookingService.findStatus(booking.getBookingReference()).orElseThrow());
+        assertEquals(Integer.valueOf(1), databases.get(2).queryForObject(
+            "SELECT COUNT(*) FROM bookings WHERE customer_email = 'cancel-shard@example.com'", Integer.class));
+    }
+    
+    @Test
+    void createBookings_ShouldBookEveryShardsPartOnThatShard() {
+        // When
+        List<BatchBookingResult> results = bookingService.createBookings(List.of(
+            request(4L, "batch-shard@example.com", 320),
+            request(3L, "batch-shard@example.com", 320),
+            request(4L, "batch-shard@example.com", 322)));
+        
+        // Then - results keep the request order
+        assertEquals(List.of(0, 1, 2), results.stream().map(BatchBookingResult::index).toList());
+        assertTrue(results.stream().allMatch(BatchBookingResult::success));
+        String count = "SELECT COUNT(*) FROM bookings WHERE customer_email = 'batch-shard@example.com'";
+        assertEquals(Integer.valueOf(1), databases.get(0).queryForObject(count, Integer.class));
+        assertEquals(Integer.valueOf(2), databases.get(1).queryForObject(count, Integer.class));
+        assertEquals(Integer.valueOf(0), databases.get(2).queryForObject(count, Integer.class));
+    }
+    
+    @Test
+    void save_ShouldCopyNewHotelsToEveryShard() {
+        // Given
+        Hotel hotel = hotelService.save(new Hotel("Shardside Inn", "Shardtown", "Nowhere", 3, new BigDecimal("90.00"), 6));
+        
+        // When
+        bookingService.createBooking(request(hotel.getId(), "new-hotel-shard@example.com", 330));
+        
+        // Then
+        for (JdbcTemplate database : databases) {
+            assertEquals(Integer.valueOf(1), database.queryForObject(
+                "SELECT COUNT(*) FROM hotels WHERE city = 'Shardtown'", Integer.class));
+        }
+        assertEquals(Integer.valueOf(1), databases.get(shards.of(hotel.getId())).queryForObject(
+            "SELECT COUNT(*) FROM bookings WHERE customer_email = 'new-hotel-shard@example.com'", Integer.class));
+    }
+    
+    @Test
+    void save_WithMoreRooms_ShouldMoveTheLedgerOnTheOwningShard() {
+        // Given - hotel 4 has a booked stay on shard 1
+        bookingService.createBooking(request(4L, "resize-shard@example.com", 340));
+        String totals = "SELECT total_rooms FROM room_inventory WHERE hotel_id = 4 AND stay_date = ?";
+        LocalDate night = LocalDate.now().plusDays(340);
+        int before = databases.get(1).queryForObject(totals, Integer.class, night);
+        Hotel hotel = hotelService.findById(4L).orElseThrow();
+        Hotel bigger = new Hotel(hotel.getName(), hotel.getCity(), hotel.getCountry(), hotel.getStarRating(),
+                                 hotel.getPricePerNight(), hotel.getAvailableRooms() + 2);
+        bigger.setId(4L);
+        bigger.setLatitude(hotel.getLatitude());
+        bigger.setLongitude(hotel.getLongitude());
+        
+        // When
+        hotelService.save(bigger);
+        
+        // Then
+        assertEquals(Integer.valueOf(before + 2), databases.get(1).queryForObject(totals, Integer.class, night));
+    }
+    
+    private static BookingRequest request(long hotelId, String email, int daysAhead) {
+        BookingRequest request = new BookingRequest();
+        request.setHotelId(hotelId);
+        request.setCustomerEmail(email);
+        request.setCustomerName("Shard Guest");
+        request.setCheckInDate(LocalDate.now().plusDays(daysAhead));
+        request.setCheckOutDate(LocalDate.now().plusDays(daysAhead + 2));
+        request.setNumberOfGuests(1);
+        return request;
+    }
+    
+    private static List<Long> hotelIds(List<BookingSummary> bookings) {
+        return bookings.stream().map(BookingSummary::hotelId).toList();
+    }
+}
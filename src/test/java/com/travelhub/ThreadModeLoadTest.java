@@ -0,0 +1,182 @@
+package com.travelhub;
+
+import com.travelhub.dto.HotelCursor;
+import com.travelhub.dto.HotelSort;
+import com.travelhub.model.Hotel;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the same load against the API served from the Tomcat thread pool and from
+ * virtual threads: every other request books a one-night stay through
+ * POST /api/bookings, the rest page the price-sorted listing from a cursor no
+ * earlier request used, so it misses the response cache and queries the
+ * database. Both modes must answer every request.
+ * <p>
+ * With -Dtravelhub.load.downstream-millis=50 every request also waits on a
+ * simulated downstream call, which caps the platform mode at threads.max / 50 ms
+ * while virtual threads keep accepting work; only then is virtual expected to
+ * win. Excluded from the default build, run with mvn test -Pload-test.
+ */
+@Tag("load")
+class ThreadModeLoadTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(ThreadModeLoadTest.class);
+    
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS = 8_000;
+    private static final int WARM_UP = 200;
+    private static final int PLATFORM_THREADS = 50;
+    // the seeded hotels, the smallest of which has 5 rooms a night
+    private static final int HOTELS = 5;
+    private static final int NIGHTS = 300;
+    private static final long DOWNSTREAM_MILLIS = Long.getLong("travelhub.load.downstream-millis", 0);
+    
+    @Test
+    void bothThreadModes_ShouldServeBookingsAndDatabaseReadsUnderHighConcurrency() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+        
+        log.info("Downstream wait {} ms", DOWNSTREAM_MILLIS);
+        log.info("platform threads: {} req/s, p50 {} ms, p99 {} ms",
+                 Math.round(platform.throughput()), Math.round(platform.p50()), Math.round(platform.p99()));
+        log.info("virtual threads: {} req/s, p50 {} ms, p99 {} ms",
+                 Math.round(virtual.throughput()), Math.round(virtual.p50()), Math.round(virtual.p99()));
+        
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+        if (DOWNSTREAM_MILLIS > 0) {
+            assertTrue(virtual.throughput() > platform.throughput());
+            assertTrue(virtual.p99() < platform.p99());
+        }
+    }
+    
+    private Result run(boolean virtualThreads) throws Exception {
+        SpringApplicationBuilder app = DOWNSTREAM_MILLIS > 0
+            ? new SpringApplicationBuilder(TravelHubApp.class, SlowDownstream.class)
+            : new SpringApplicationBuilder(TravelHubApp.class);
+        try (ConfigurableApplicationContext context = app
+                .run("--server.port=0",
+                     "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                     "--spring.threads.virtual.enabled=" + virtualThreads,
+                     "--spring.datasource.url=jdbc:h2:mem:load-" + (virtualThreads ? "virtual" : "platform"),
+                     "--spring.jpa.show-sql=false",
+                     // every client books once per other request, measure the threads rather than admission
+                     "--travelhub.booking.admission.rate-per-second=0",
+                     "--travelhub.booking.admission.max-concurrent=" + CLIENTS,
+                     "--travelhub.booking.admission.max-wait=30s",
+                     "--logging.level.com.travelhub=WARN",
+                     "--logging.level.com.travelhub.ThreadModeLoadTest=INFO")) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            LocalDate today = LocalDate.now();
+            
+            // warm up before measuring, on indexes the measured run does not use
+            for (int i = REQUESTS; i < REQUESTS + WARM_UP; i++) {
+                client.send(request(base, i, today), HttpResponse.BodyHandlers.discarding());
+            }
+            
+            long[] latencies = new long[REQUESTS];
+            AtomicInteger errors = new AtomicInteger();
+            long started = System.nanoTime();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int c = 0; c < CLIENTS; c++) {
+                    int first = c;
+                    workers.add(clients.submit(() -> {
+                        for (int i = first; i < REQUESTS; i += CLIENTS) {
+                            HttpRequest request = request(base, i, today);
+                            long sent = System.nanoTime();
+                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                            latencies[i] = System.nanoTime() - sent;
+                            if (response.statusCode() != 200) {
+                                log.warn("{} {} answered {}: {}", request.method(), request.uri(),
+                                         response.statusCode(), response.body());
+                                errors.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            }
+            long elapsed = System.nanoTime() - started;
+            
+            Arrays.sort(latencies);
+            return new Result(REQUESTS * 1e9 / elapsed, millis(latencies, 0.50), millis(latencies, 0.99), errors.get());
+        }
+    }
+    
+    /**
+     * Even indexes book one room for one night, spread so no hotel gets more than
+     * three bookings a night; odd ones read a listing page after a cursor of their own.
+     */
+    private static HttpRequest request(String base, int index, LocalDate today) {
+        if (index % 2 == 0) {
+            int booking = index / 2;
+            LocalDate checkIn = today.plusDays(1 + (booking / HOTELS) % NIGHTS);
+            String body = String.format("{\"hotelId\":%d,\"customerEmail\":\"load-%d@example.com\","
+                + "\"customerName\":\"Load Client\",\"checkInDate\":\"%s\",\"checkOutDate\":\"%s\","
+                + "\"numberOfGuests\":1}", 1 + booking % HOTELS, index % CLIENTS, checkIn, checkIn.plusDays(1));
+            return HttpRequest.newBuilder(URI.create(base + "/bookings"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        }
+        Hotel after = new Hotel();
+        after.setId((long) index);
+        after.setPricePerNight(BigDecimal.valueOf(index % 400));
+        String cursor = HotelCursor.after(after, HotelSort.PRICE).encode();
+        return HttpRequest.newBuilder(URI.create(base + "/hotels?sort=price&size=5&cursor=" + cursor)).GET().build();
+    }
+    
+    private static double millis(long[] sorted, double percentile) {
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1e6;
+    }
+    
+    record Result(double throughput, double p50, double p99, int errors) {}
+    
+    // opt-in stand-in for a slow downstream call, see the class comment; not a @Configuration,
+    // so the application's component scan does not pick it up on its own
+    static class SlowDownstream implements WebMvcConfigurer {
+    
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new HandlerInterceptor() {
+                @Override
+                public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler) throws Exception {
+                    Thread.sleep(DOWNSTREAM_MILLIS);
+                    return true;
+                }
+            }).addPathPatterns("/api/**");
+        }
+    }
+}
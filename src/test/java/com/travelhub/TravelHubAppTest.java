@@ -4,20 +4,25 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.travelhub.dto.BookingRequest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 @ActiveProfiles("test")
 @Transactional
 class TravelHubAppTest {
@@ -61,4 +66,61 @@ class TravelHubAppTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].customerEmail").value("integration-test@example.com"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void asyncBooking_ShouldBeConfirmedByTheWriteBehindQueue() throws Exception {
+        // Given - the reservation and the queued insert commit outside the test transaction
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setHotelId(5L);
+        bookingRequest.setCustomerEmail("async-test@example.com");
+        bookingRequest.setCustomerName("Async Test User");
+        bookingRequest.setCheckInDate(LocalDate.now().plusDays(330));
+        bookingRequest.setCheckOutDate(LocalDate.now().plusDays(332));
+        bookingRequest.setNumberOfGuests(1);
+
+        // When
+        String body = mockMvc.perform(post("/api/bookings")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bookingRequest)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String reference = objectMapper.readTree(body).get("bookingReference").asText();
+
+        // Then
+        String status = "PENDING";
+        for (long deadline = System.currentTimeMillis() + 10_000;
+             status.equals("PENDING") && System.currentTimeMillis() < deadline; Thread.sleep(20)) {
+            String polled = mockMvc.perform(get("/api/bookings/" + reference + "/status"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            status = objectMapper.readTree(polled).get("status").asText();
+        }
+        assertEquals("CONFIRMED", status);
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeBookingRequestAndPoolMetrics() throws Exception {
+        // Given - one booking through the API
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setHotelId(2L);
+        bookingRequest.setCustomerEmail("metrics-test@example.com");
+        bookingRequest.setCustomerName("Metrics Test User");
+        bookingRequest.setCheckInDate(LocalDate.now().plusDays(30));
+        bookingRequest.setCheckOutDate(LocalDate.now().plusDays(31));
+        bookingRequest.setNumberOfGuests(1);
+        mockMvc.perform(post("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bookingRequest)))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("booking_stage_seconds_bucket{stage=\"ledger\"")))
+                .andExpect(content().string(containsString("booking_created_total")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+}
@@ -1,30 +1,51 @@
 package com.travelhub.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelhub.dto.BatchBookingRequest;
+import com.travelhub.dto.BatchBookingResult;
 import com.travelhub.dto.BookingRequest;
+import com.travelhub.dto.BookingSummary;
+import com.travelhub.dto.IdempotentBooking;
 import com.travelhub.model.Booking;
 import com.travelhub.model.Hotel;
+import com.travelhub.service.BookingAdmission;
+import com.travelhub.service.BookingNotFoundException;
+import com.travelhub.service.BookingOverloadedException;
+import com.travelhub.service.BookingQueueFullException;
+import com.travelhub.service.BookingRateLimitedException;
 import com.travelhub.service.BookingService;
+import com.travelhub.service.IdempotencyKeyMismatchException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(BookingController.class)
+@WebMvcTest(controllers = BookingController.class, properties = "travelhub.booking.admission.trust-client-id=true")
 class BookingControllerTest {
 
     @Autowired
@@ -33,11 +54,19 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    // a mock admits everything, its null permit is skipped by try-with-resources
+    @MockBean
+    private BookingAdmission admission;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private BookingController bookingController;
+
     private BookingRequest validBookingRequest;
     private Booking testBooking;
+    private BookingSummary testSummary;
     private Hotel testHotel;
 
     @BeforeEach
@@ -66,6 +95,11 @@ class BookingControllerTest {
         testBooking.setTotalAmount(BigDecimal.valueOf(450.0));
         testBooking.setCreatedAt(LocalDateTime.now());
         testBooking.setStatus(Booking.BookingStatus.PENDING);
+
+        // Setup test booking summary
+        testSummary = new BookingSummary(1L, "TH-12345678", "test@example.com", "Test User",
+                1L, "Test Hotel", "Bangkok", LocalDate.now().plusDays(5), LocalDate.now().plusDays(8),
+                2, BigDecimal.valueOf(450.0), Booking.BookingStatus.PENDING, LocalDateTime.now());
     }
 
     @Test
@@ -155,11 +189,258 @@ class BookingControllerTest {
         verify(bookingService).createBooking(any(BookingRequest.class));
     }
 
+    @Test
+    void createBooking_WithIdempotencyKey_ShouldReportWhetherReplayed() throws Exception {
+        // Given
+        when(bookingService.createBooking(any(BookingRequest.class), eq("key-1")))
+            .thenReturn(new IdempotentBooking(testBooking, true));
+
+        // When & Then
+        mockMvc.perform(post("/api/bookings")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validBookingRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.bookingReference").value("TH-12345678"))
+                .andExpect(jsonPath("$.idempotencyKey").doesNotExist());
+        verify(bookingService, never()).createBooking(any(BookingRequest.class));
+    }
+
+    @Test
+    void createBooking_WithOverlongIdempotencyKey_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/bookings")
+                .header("Idempotency-Key", "k".repeat(101))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validBookingRequest)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void createBooking_WithIdempotencyKeyReusedForAnotherStay_ShouldReturnUnprocessable() throws Exception {
+        // Given
+        when(bookingService.createBooking(any(BookingRequest.class), eq("key-1")))
+            .thenThrow(new IdempotencyKeyMismatchException());
+
+        // When & Then
+        mockMvc.perform(post("/api/bookings")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validBookingRequest)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void createBooking_WithPreferRespondAsync_ShouldAcceptAndPointToStatus() throws Exception {
+        // Given
+        when(bookingService.enqueueBooking(any(BookingRequest.class))).thenReturn(testBooking);
+
+        // When & Then
+        mockMvc.perform(post("/api/bookings")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validBookingRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/bookings/TH-12345678/status"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.bookingReference").value("TH-12345678"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+        verify(bookingService, never()).createBooking(any(BookingRequest.class));
+    }
+
+    @Test
+    void createBooking_WhenQueueIsFull_ShouldReturnServiceUnavailable() throws Exception {
+        // Given
+        when(bookingService.enqueueBooking(any(BookingRequest.class))).thenThrow(new BookingQueueFullException());
+
+        // When & Then
+        mockMvc.perform(post("/api/bookings")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validBookingRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void createBooking_OverTheClientRate_ShouldReturnTooManyRequests() throws Exception {
+        // Given
+        when(admission.admit("client:agency-7", 1)).thenThrow(new BookingRateLimitedException(Duration.ofMillis(1500)));
+
+        // When & Then
+        mockMvc.perform(post("/api/bookings")
+                .header("X-Client-Id", "agency-7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validBookingRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void createBooking_WithUntrustedClientId_ShouldLimitByEmail() throws Exception {
+        // Given - without a gateway vouching for it the header could name a fresh bucket every time
+        ReflectionTestUtils.setField(bookingController, "trustClientId", false);
+        when(admission.admit("email:test@example.com", 1)).thenThrow(new BookingRateLimitedException(Duration.ofMillis(1500)));
+
+        // When & Then
+        try {
+            mockMvc.perform(post("/api/bookings")
+                    .header("X-Client-Id", "agency-" + System.nanoTime())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(validBookingRequest)))
+                    .andExpect(status().isTooManyRequests());
+        } finally {
+            ReflectionTestUtils.setField(bookingController, "trustClientId", true);
+        }
+
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void createBooking_WhenOverloaded_ShouldShedBeforeBooking() throws Exception {
+        // Given - without a client id the customer email is the client
+        when(admission.admit("email:test@example.com", 1)).thenThrow(new BookingOverloadedException());
+
+        // When & Then
+        mockMvc.perform(post("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validBookingRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void createBooking_WhenAdmitted_ShouldReleaseTheSlotAfterBooking() throws Exception {
+        // Given
+        BookingAdmission.Permit permit = mock(BookingAdmission.Permit.class);
+        when(admission.admit("email:test@example.com", 1)).thenReturn(permit);
+        when(bookingService.createBooking(any(BookingRequest.class))).thenReturn(testBooking);
+
+        // When
+        mockMvc.perform(post("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validBookingRequest)))
+                .andExpect(status().isOk());
+
+        // Then
+        verify(permit).close();
+    }
+
+    @Test
+    void getBookingStatus_ShouldReturnStatusOrNotFound() throws Exception {
+        // Given
+        when(bookingService.findStatus("TH-12345678")).thenReturn(Optional.of(Booking.BookingStatus.CONFIRMED));
+        when(bookingService.findStatus("TH-UNKNOWN")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/bookings/TH-12345678/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+        mockMvc.perform(get("/api/bookings/TH-UNKNOWN/status"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void cancelBooking_ShouldReturnCancelledStatus() throws Exception {
+        // Given
+        when(bookingService.cancelBooking("TH-12345678")).thenReturn(true);
+
+        // When & Then
+        mockMvc.perform(post("/api/bookings/TH-12345678/cancel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookingReference").value("TH-12345678"))
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+
+    @Test
+    void deleteBooking_WithUnknownReference_ShouldReturnNotFound() throws Exception {
+        // Given
+        when(bookingService.cancelBooking("TH-UNKNOWN")).thenThrow(new BookingNotFoundException("TH-UNKNOWN"));
+
+        // When & Then
+        mockMvc.perform(delete("/api/bookings/TH-UNKNOWN"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createBookings_WithMixedOutcome_ShouldReportEachItem() throws Exception {
+        // Given
+        BatchBookingRequest batch = new BatchBookingRequest();
+        batch.setBookings(List.of(validBookingRequest, validBookingRequest));
+        when(bookingService.createBookings(anyList())).thenReturn(List.of(
+            BatchBookingResult.created(0, "TH-12345678"),
+            BatchBookingResult.failed(1, "Not enough rooms available")));
+
+        // When & Then
+        mockMvc.perform(post("/api/bookings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].bookingReference").value("TH-12345678"))
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andExpect(jsonPath("$.results[1].error").value("Not enough rooms available"));
+    }
+
+    @Test
+    void createBookings_LargerThanTheBurst_ShouldReturnTooManyRequestsWithoutRetryAfter() throws Exception {
+        // Given
+        BatchBookingRequest batch = new BatchBookingRequest();
+        batch.setBookings(Collections.nCopies(BatchBookingRequest.MAX_BOOKINGS, validBookingRequest));
+        when(admission.admit("email:test@example.com", BatchBookingRequest.MAX_BOOKINGS))
+            .thenThrow(new BookingRateLimitedException(null));
+
+        // When & Then
+        mockMvc.perform(post("/api/bookings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().doesNotExist("Retry-After"));
+
+        verify(bookingService, never()).createBookings(any());
+    }
+
+    @Test
+    void createBookings_WithInvalidItem_ShouldReturnBadRequest() throws Exception {
+        // Given
+        BookingRequest invalidRequest = new BookingRequest();
+        BatchBookingRequest batch = new BatchBookingRequest();
+        batch.setBookings(List.of(validBookingRequest, invalidRequest));
+
+        // When & Then
+        mockMvc.perform(post("/api/bookings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).createBookings(any());
+    }
+
+    @Test
+    void createBookings_WithoutItemsOrWithNullItem_ShouldReturnBadRequest() throws Exception {
+        // When & Then - rejected before the first item's email names the client
+        for (String body : List.of("{\"bookings\":[]}", "{\"bookings\":[null]}", "{}")) {
+            mockMvc.perform(post("/api/bookings/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                    .andExpect(status().isBadRequest());
+        }
+
+        verify(bookingService, never()).createBookings(any());
+    }
+
     @Test
     void getBookings_WithValidEmail_ShouldReturnBookingsList() throws Exception {
         // Given
-        List<Booking> bookings = Arrays.asList(testBooking);
-        when(bookingService.findBookingsByEmail("test@example.com")).thenReturn(bookings);
+        List<BookingSummary> bookings = Arrays.asList(testSummary);
+        when(bookingService.findBookingsByEmail("test@example.com", 0, 50)).thenReturn(bookings);
 
         // When & Then
         mockMvc.perform(get("/api/bookings")
@@ -169,15 +450,17 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].customerEmail").value("test@example.com"))
-                .andExpect(jsonPath("$[0].bookingReference").value("TH-12345678"));
+                .andExpect(jsonPath("$[0].bookingReference").value("TH-12345678"))
+                .andExpect(jsonPath("$[0].hotelName").value("Test Hotel"))
+                .andExpect(jsonPath("$[0].hotelCity").value("Bangkok"));
 
-        verify(bookingService).findBookingsByEmail("test@example.com");
+        verify(bookingService).findBookingsByEmail("test@example.com", 0, 50);
     }
 
     @Test
     void getBookings_WithNonExistentEmail_ShouldReturnEmptyList() throws Exception {
         // Given
-        when(bookingService.findBookingsByEmail("nonexistent@example.com"))
+        when(bookingService.findBookingsByEmail("nonexistent@example.com", 0, 50))
             .thenReturn(Arrays.asList());
 
         // When & Then
@@ -188,7 +471,7 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$").isEmpty());
 
-        verify(bookingService).findBookingsByEmail("nonexistent@example.com");
+        verify(bookingService).findBookingsByEmail("nonexistent@example.com", 0, 50);
     }
 
     @Test
@@ -197,6 +480,91 @@ class BookingControllerTest {
         mockMvc.perform(get("/api/bookings"))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingService, never()).findBookingsByEmail(any());
+        verify(bookingService, never()).findBookingsByEmail(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getBookings_WithPageParameters_ShouldPassThemToService() throws Exception {
+        // Given
+        when(bookingService.findBookingsByEmail("test@example.com", 2, 10)).thenReturn(Arrays.asList(testSummary));
+
+        // When & Then
+        mockMvc.perform(get("/api/bookings")
+                .param("email", "test@example.com")
+                .param("page", "2")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingReference").value("TH-12345678"));
+
+        mockMvc.perform(get("/api/bookings")
+                .param("email", "test@example.com")
+                .param("size", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportBookings_AsNdjson_ShouldWriteOneBookingPerLine() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<BookingSummary> sink = invocation.getArgument(1);
+            sink.accept(testSummary);
+            sink.accept(testSummary);
+            return null;
+        }).when(bookingService).exportBookingsByEmail(eq("test@example.com"), any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/bookings/export").param("email", "test@example.com"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("TH-12345678", objectMapper.readTree(lines[0]).get("bookingReference").asText());
+        assertEquals("Test Hotel", objectMapper.readTree(lines[1]).get("hotelName").asText());
+    }
+
+    @Test
+    void exportBookings_AsCsv_ShouldQuoteFieldsWithCommas() throws Exception {
+        // Given
+        BookingSummary withComma = new BookingSummary(1L, "TH-12345678", "test@example.com", "User, Test",
+                1L, "Test Hotel", "Bangkok", LocalDate.now().plusDays(5), LocalDate.now().plusDays(8),
+                2, BigDecimal.valueOf(450.0), Booking.BookingStatus.PENDING, LocalDateTime.now());
+        doAnswer(invocation -> {
+            Consumer<BookingSummary> sink = invocation.getArgument(1);
+            sink.accept(withComma);
+            return null;
+        }).when(bookingService).exportBookingsByEmail(eq("test@example.com"), any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/bookings/export")
+                .param("email", "test@example.com")
+                .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("bookingReference,customerEmail,customerName"));
+        assertTrue(lines[1].startsWith("TH-12345678,test@example.com,\"User, Test\",1,Test Hotel,Bangkok,"));
+    }
+
+    @Test
+    void exportBookings_WithUnknownFormat_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/bookings/export")
+                .param("email", "test@example.com")
+                .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).exportBookingsByEmail(any(), any());
     }
-}
\ No newline at end of file
+}
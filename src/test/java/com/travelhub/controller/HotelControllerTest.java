@@ -1,23 +1,47 @@
 package com.travelhub.controller;
 
+import com.travelhub.dto.HotelCursor;
+import com.travelhub.dto.HotelImportResult;
+import com.travelhub.dto.HotelPage;
+import com.travelhub.dto.HotelSearchCriteria;
+import com.travelhub.dto.HotelSort;
+import com.travelhub.dto.NearbyCriteria;
+import com.travelhub.dto.NearbyHotel;
+import com.travelhub.dto.PriceQuote;
 import com.travelhub.model.Hotel;
+import com.travelhub.service.HotelImportService;
+import com.travelhub.service.HotelNotPricedException;
+import com.travelhub.service.HotelResponseCache;
 import com.travelhub.service.HotelService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(HotelController.class)
+@Import(HotelResponseCache.class)
 class HotelControllerTest {
     
     @Autowired
@@ -26,13 +50,25 @@ class HotelControllerTest {
     @MockBean
     private HotelService hotelService;
     
+    @MockBean
+    private HotelImportService hotelImportService;
+    
+    @Autowired
+    private HotelResponseCache responseCache;
+    
+    @BeforeEach
+    void setUp() {
+        responseCache.evictAll();
+    }
+    
     @Test
     void getAllHotels_ShouldReturnHotelsList() throws Exception {
         Hotel hotel = new Hotel("Test Hotel", "Bangkok", "Thailand",
                                4, BigDecimal.valueOf(150.0), 10);
         hotel.setId(1L);
 
-        when(hotelService.findAvailableHotels()).thenReturn(Arrays.asList(hotel));
+        when(hotelService.findAvailableHotels(HotelCursor.start(HotelSort.ID), 20))
+            .thenReturn(new HotelPage(Arrays.asList(hotel), null));
 
         mockMvc.perform(get("/api/hotels"))
                 .andExpect(status().isOk())
@@ -40,9 +76,10 @@ class HotelControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("Test Hotel"))
-                .andExpect(jsonPath("$[0].city").value("Bangkok"));
+                .andExpect(jsonPath("$[0].city").value("Bangkok"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
 
-        verify(hotelService).findAvailableHotels();
+        verify(hotelService).findAvailableHotels(HotelCursor.start(HotelSort.ID), 20);
     }
     
     @Test
@@ -71,19 +108,244 @@ class HotelControllerTest {
         verify(hotelService).findById(1L);
     }
     
+    @Test
+    void getHotel_WithMatchingIfNoneMatch_ShouldReturnNotModifiedFromCache() throws Exception {
+        Hotel hotel = new Hotel("Test Hotel", "Bangkok", "Thailand",
+                               4, BigDecimal.valueOf(150.0), 10);
+        hotel.setId(1L);
+        when(hotelService.findById(1L)).thenReturn(Optional.of(hotel));
+
+        String etag = mockMvc.perform(get("/api/hotels/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/hotels/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/api/hotels/1").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Test Hotel"));
+
+        // serialized once, every later request was served from the cached bytes
+        verify(hotelService, times(1)).findById(1L);
+    }
+    
+    @Test
+    void getAllHotels_AcceptingGzip_ShouldServeThePrecompressedBody() throws Exception {
+        List<Hotel> hotels = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            Hotel hotel = new Hotel("Test Hotel " + id, "Bangkok", "Thailand", 4, BigDecimal.valueOf(150.0), 10);
+            hotel.setId(id);
+            hotels.add(hotel);
+        }
+        when(hotelService.findAvailableHotels(HotelCursor.start(HotelSort.ID), 20))
+            .thenReturn(new HotelPage(hotels, "next"));
+
+        String plainEtag = mockMvc.perform(get("/api/hotels"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        byte[] gzipped = mockMvc.perform(get("/api/hotels").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HotelController.NEXT_CURSOR_HEADER, "next"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(gzipped)).readAllBytes());
+        assertTrue(json.contains("Test Hotel 20"));
+        mockMvc.perform(get("/api/hotels").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(header().string(HttpHeaders.ETAG, plainEtag));
+        verify(hotelService, times(1)).findAvailableHotels(HotelCursor.start(HotelSort.ID), 20);
+    }
+    
     @Test
     void searchHotels_ShouldReturnFilteredHotels() throws Exception {
         Hotel hotel = new Hotel("Bangkok Hotel", "Bangkok", "Thailand",
                                4, BigDecimal.valueOf(150.0), 10);
         hotel.setId(1L);
 
-        when(hotelService.findByCity("Bangkok")).thenReturn(Arrays.asList(hotel));
+        when(hotelService.search(any(HotelSearchCriteria.class), eq(HotelCursor.start(HotelSort.ID)), eq(20)))
+            .thenReturn(new HotelPage(Arrays.asList(hotel), null));
 
         mockMvc.perform(get("/api/hotels/search?city=Bangkok"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].city").value("Bangkok"));
 
-        verify(hotelService).findByCity("Bangkok");
+        verify(hotelService).search(any(HotelSearchCriteria.class), eq(HotelCursor.start(HotelSort.ID)), eq(20));
+    }
+    
+    @Test
+    void searchHotels_ShouldBindEveryFilter() throws Exception {
+        when(hotelService.search(any(HotelSearchCriteria.class), any(HotelCursor.class), anyInt()))
+            .thenReturn(new HotelPage(Arrays.asList(), null));
+
+        mockMvc.perform(get("/api/hotels/search")
+                        .param("city", "bang")
+                        .param("country", "thai")
+                        .param("minStars", "4")
+                        .param("maxStars", "5")
+                        .param("minPrice", "100")
+                        .param("maxPrice", "300.50")
+                        .param("checkIn", "2030-01-10")
+                        .param("checkOut", "2030-01-12")
+                        .param("rooms", "2"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<HotelSearchCriteria> captor = ArgumentCaptor.forClass(HotelSearchCriteria.class);
+        verify(hotelService).search(captor.capture(), eq(HotelCursor.start(HotelSort.ID)), eq(20));
+        HotelSearchCriteria criteria = captor.getValue();
+        assertEquals("bang", criteria.getCity());
+        assertEquals("thai", criteria.getCountry());
+        assertEquals(4, criteria.getMinStars());
+        assertEquals(5, criteria.getMaxStars());
+        assertEquals(new BigDecimal("300.50"), criteria.getMaxPrice());
+        assertEquals(LocalDate.of(2030, 1, 10), criteria.getCheckIn());
+        assertEquals(2, criteria.getRooms());
+    }
+    
+    @Test
+    void nearbyHotels_ShouldReturnHotelsWithTheirDistance() throws Exception {
+        Hotel hotel = new Hotel("Bangkok Hotel", "Bangkok", "Thailand",
+                               4, BigDecimal.valueOf(150.0), 10);
+        hotel.setId(1L);
+        hotel.setLatitude(13.7236);
+        hotel.setLongitude(100.5145);
+        when(hotelService.findNearby(any(NearbyCriteria.class), eq(5)))
+            .thenReturn(List.of(new NearbyHotel(hotel, 0.404)));
+
+        mockMvc.perform(get("/api/hotels/nearby")
+                        .param("latitude", "13.72")
+                        .param("longitude", "100.514")
+                        .param("radiusKm", "5")
+                        .param("minStars", "4")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].hotel.name").value("Bangkok Hotel"))
+                .andExpect(jsonPath("$[0].hotel.latitude").value(13.7236))
+                .andExpect(jsonPath("$[0].distanceKm").value(0.404));
+
+        ArgumentCaptor<NearbyCriteria> captor = ArgumentCaptor.forClass(NearbyCriteria.class);
+        verify(hotelService).findNearby(captor.capture(), eq(5));
+        assertEquals(13.72, captor.getValue().getLatitude());
+        assertEquals(5.0, captor.getValue().getRadiusKm());
+        assertEquals(4, captor.getValue().getMinStars());
+    }
+    
+    @Test
+    void nearbyHotels_WithInvalidPoint_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/hotels/nearby").param("latitude", "13.72"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/hotels/nearby").param("latitude", "91").param("longitude", "100"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/hotels/nearby").param("latitude", "13.72").param("longitude", "100")
+                            .param("radiusKm", "0"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(hotelService);
+    }
+    
+    @Test
+    void searchHotels_WithHalfOpenStayWindow_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/hotels/search").param("checkIn", "2030-01-10"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(hotelService);
+    }
+    
+    @Test
+    void getAllHotels_WhenMorePagesExist_ShouldReturnNextCursorThatResumesAfterLastHotel() throws Exception {
+        Hotel cheap = new Hotel("Cheap Hotel", "Bangkok", "Thailand",
+                               3, BigDecimal.valueOf(80.0), 10);
+        cheap.setId(7L);
+        String next = HotelCursor.after(cheap, HotelSort.PRICE).encode();
+
+        when(hotelService.findAvailableHotels(HotelCursor.start(HotelSort.PRICE), 1))
+            .thenReturn(new HotelPage(Arrays.asList(cheap), next));
+        when(hotelService.findAvailableHotels(HotelCursor.decode(next), 1))
+            .thenReturn(new HotelPage(Arrays.asList(), null));
+
+        mockMvc.perform(get("/api/hotels").param("sort", "price").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(header().string("X-Next-Cursor", next));
+
+        mockMvc.perform(get("/api/hotels").param("sort", "price").param("size", "1").param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+    
+    @Test
+    void getAllHotels_WithInvalidPaging_ShouldReturnBadRequest() throws Exception {
+        String idCursor = HotelCursor.start(HotelSort.ID).encode();
+
+        mockMvc.perform(get("/api/hotels").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/hotels").param("size", "1000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/hotels").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/hotels").param("sort", "price").param("cursor", idCursor))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(hotelService);
+    }
+    
+    @Test
+    void quote_ShouldReturnPriceBreakdown() throws Exception {
+        LocalDate checkIn = LocalDate.of(2030, 3, 7);
+        LocalDate checkOut = LocalDate.of(2030, 3, 10);
+        PriceQuote quote = new PriceQuote(1L, checkIn, checkOut, 3, 3, new BigDecimal("480.00"),
+            new BigDecimal("45.00"), new BigDecimal("36.75"), new BigDecimal("561.75"));
+        when(hotelService.quote(1L, checkIn, checkOut, 3)).thenReturn(Optional.of(quote));
+
+        mockMvc.perform(get("/api/hotels/1/quote")
+                .param("checkIn", "2030-03-07").param("checkOut", "2030-03-10").param("guests", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nights").value(3))
+                .andExpect(jsonPath("$.total").value(561.75));
+    }
+    
+    @Test
+    void quote_WithInvalidStayOrUnknownHotel_ShouldBeRejected() throws Exception {
+        when(hotelService.quote(eq(99L), any(), any(), anyInt())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/hotels/1/quote").param("checkIn", "2030-03-10").param("checkOut", "2030-03-10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/hotels/1/quote")
+                .param("checkIn", "2030-03-07").param("checkOut", "2030-03-10").param("guests", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/hotels/99/quote").param("checkIn", "2030-03-07").param("checkOut", "2030-03-10"))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void quote_ForUnpricedHotel_ShouldBeUnprocessable() throws Exception {
+        when(hotelService.quote(eq(2L), any(), any(), anyInt())).thenThrow(new HotelNotPricedException());
+
+        mockMvc.perform(get("/api/hotels/2/quote").param("checkIn", "2030-03-07").param("checkOut", "2030-03-10"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+    
+    @Test
+    void importHotels_ShouldDispatchOnContentType() throws Exception {
+        HotelImportResult result = new HotelImportResult(2, 0, List.of(), 5, 400);
+        when(hotelImportService.importCsv(any())).thenReturn(result);
+        when(hotelImportService.importNdjson(any())).thenReturn(result);
+
+        mockMvc.perform(post("/api/hotels/import").contentType("text/csv").content("name,city\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+        mockMvc.perform(post("/api/hotels/import").contentType("application/x-ndjson").content("{}\n"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/hotels/import").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(hotelImportService).importCsv(any());
+        verify(hotelImportService).importNdjson(any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package com.travelhub.repository;
+
+import com.travelhub.dto.BookingSummary;
+import com.travelhub.model.Booking;
+import com.travelhub.model.Hotel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the entity read path (bookings plus a hotel load per distinct hotel)
+ * with the single join projection for a customer with 1,000 bookings, counting
+ * JDBC statements through Hibernate statistics. The allocation comparison, read
+ * through the thread MXBean, is tagged load and runs with mvn test -Pload-test.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("test")
+@Transactional
+class BookingReadPathBenchmarkTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(BookingReadPathBenchmarkTest.class);
+    
+    private static final String EMAIL = "corporate@example.com";
+    private static final int BOOKINGS = 1_000;
+    private static final int HOTELS = 100;
+    private static final int WARM_UP = 5;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        
+        List<Hotel> hotels = new ArrayList<>();
+        for (int i = 0; i < HOTELS; i++) {
+            hotels.add(new Hotel("Hotel " + i, "City " + i, "Thailand", 4, BigDecimal.valueOf(100), 50));
+        }
+        hotelRepository.saveAll(hotels);
+        
+        List<Booking> bookings = new ArrayList<>();
+        LocalDate checkIn = LocalDate.now().plusDays(30);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = new Booking("TH-B" + i, EMAIL, "Corporate Traveller", hotels.get(i % HOTELS),
+                                          checkIn, checkIn.plusDays(2), 1, BigDecimal.valueOf(200));
+            booking.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+            bookings.add(booking);
+        }
+        bookingRepository.saveAll(bookings);
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    @Test
+    void projection_ShouldUseOneQueryInsteadOfOnePerHotel() {
+        // warm up both paths so query plan caching is not measured
+        readEntities();
+        readSummaries();
+        
+        Measurement entities = measure(this::readEntities);
+        Measurement summaries = measure(this::readSummaries);
+        
+        assertEquals(1 + HOTELS, entities.statements());
+        assertEquals(1, summaries.statements());
+    }
+    
+    // allocation depends on the JIT and the collector, so it stays out of the default build
+    @Test
+    @Tag("load")
+    void projection_ShouldAllocateLessThanEntityGraph() {
+        for (int i = 0; i < WARM_UP; i++) {
+            readEntities();
+            readSummaries();
+        }
+        
+        Measurement entities = measure(this::readEntities);
+        Measurement summaries = measure(this::readSummaries);
+        
+        log.info("entity graph: {} statements, {} KB allocated", entities.statements(), entities.allocatedBytes() / 1024);
+        log.info("projection: {} statements, {} KB allocated", summaries.statements(), summaries.allocatedBytes() / 1024);
+        
+        assertTrue(summaries.allocatedBytes() < entities.allocatedBytes(),
+                   "projection allocated " + summaries.allocatedBytes() + " bytes, entities " + entities.allocatedBytes());
+    }
+    
+    // what the controller used to serialize: every booking with its hotel initialized
+    private int readEntities() {
+        List<Booking> bookings = bookingRepository.findByCustomerEmailOrderByCreatedAtDesc(EMAIL);
+        int touched = 0;
+        for (Booking booking : bookings) {
+            touched += booking.getHotel().getName().length();
+        }
+        assertEquals(BOOKINGS, bookings.size());
+        entityManager.clear();
+        return touched;
+    }
+    
+    private int readSummaries() {
+        List<BookingSummary> bookings = bookingRepository.findSummariesByCustomerEmail(EMAIL, PageRequest.of(0, BOOKINGS));
+        int touched = 0;
+        for (BookingSummary booking : bookings) {
+            touched += booking.hotelName().length();
+        }
+        assertEquals(BOOKINGS, bookings.size());
+        entityManager.clear();
+        return touched;
+    }
+    
+    private Measurement measure(Supplier<Integer> readPath) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        
+        statistics.clear();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        readPath.get();
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Measurement(statistics.getPrepareStatementCount(), allocated);
+    }
+    
+    private record Measurement(long statements, long allocatedBytes) {
+    }
+}
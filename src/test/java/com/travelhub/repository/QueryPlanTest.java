@@ -0,0 +1,108 @@
+package com.travelhub.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs each hot repository query, captures the SQL Hibernate generated for it
+ * and asks H2 for its plan, so a query that stops matching its index fails here
+ * instead of turning into a table scan in production.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.travelhub.repository.QueryPlanTest$RecordingInspector"
+})
+@ActiveProfiles("test")
+@Transactional
+class QueryPlanTest {
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        RecordingInspector.statements.clear();
+    }
+    
+    @Test
+    void bookingHistory_ShouldUseEmailCreatedAtIndex() {
+        bookingRepository.findSummariesByCustomerEmail("guest@example.com", PageRequest.of(0, 20));
+        
+        assertPlanUses("IDX_BOOKINGS_EMAIL_CREATED", "'guest@example.com'", 20);
+    }
+    
+    @Test
+    void cityLookup_ShouldUseLowercaseCityIndex() {
+        hotelRepository.findByCityKey("bangkok");
+        
+        assertPlanUses("IDX_HOTELS_CITY_KEY", "'bangkok'");
+    }
+    
+    @Test
+    void availableHotels_ShouldUseAvailabilityIndex() {
+        hotelRepository.findByAvailableRoomsGreaterThan(0);
+        
+        assertPlanUses("IDX_HOTELS_AVAILABLE_ROOMS", 0);
+    }
+    
+    @Test
+    void priceKeysetPage_ShouldUsePriceIdIndex() {
+        hotelRepository.findAvailableAfterPrice(new BigDecimal("100.00"), 0L, Limit.of(20));
+        
+        assertPlanUses("IDX_HOTELS_PRICE_ID", 100.00, 100.00, 100.00, 0, 20);
+    }
+    
+    @Test
+    void stayLock_ShouldUseHotelNightKey() {
+        LocalDate night = LocalDate.of(2030, 1, 1);
+        roomInventoryRepository.lockStay(1L, night, night.plusDays(3));
+        
+        assertPlanUses("UK_ROOM_INVENTORY_HOTEL_NIGHT", 1, "DATE '2030-01-01'", "DATE '2030-01-04'");
+    }
+    
+    // explains the last captured statement with its parameters inlined in order
+    private void assertPlanUses(String index, Object... parameters) {
+        assertFalse(RecordingInspector.statements.isEmpty(), "no statement captured");
+        String sql = RecordingInspector.statements.get(RecordingInspector.statements.size() - 1);
+        for (Object parameter : parameters) {
+            sql = sql.replaceFirst("\\?", String.valueOf(parameter));
+        }
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        assertTrue(plan.contains(index), "expected " + index + " in plan:\n" + plan);
+    }
+    
+    public static class RecordingInspector implements StatementInspector {
+        
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+        
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
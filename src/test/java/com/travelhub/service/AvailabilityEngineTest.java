@@ -0,0 +1,179 @@
+package com.travelhub.service;
+
+import com.travelhub.event.HotelsChangedEvent;
+import com.travelhub.model.Hotel;
+import com.travelhub.model.RoomInventory;
+import com.travelhub.repository.HotelRepository;
+import com.travelhub.repository.RoomInventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityEngineTest {
+    
+    @Mock
+    private HotelRepository hotelRepository;
+    
+    @Mock
+    private RoomInventoryRepository roomInventoryRepository;
+    
+    @Spy
+    private Shards shards = new Shards(List.of());
+    
+    @InjectMocks
+    private AvailabilityEngine availabilityEngine;
+    
+    private final LocalDate today = LocalDate.now();
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(availabilityEngine, "horizonDays", 30);
+        
+        Hotel bangkok = new Hotel("Test Hotel", "Bangkok", "Thailand", 4, BigDecimal.valueOf(150.0), 2);
+        bangkok.setId(1L);
+        Hotel phuket = new Hotel("Beach Hotel", "Phuket", "Thailand", 3, BigDecimal.valueOf(90.0), 5);
+        phuket.setId(2L);
+        
+        // phuket is already sold out tonight in the ledger
+        RoomInventory soldOut = new RoomInventory(2L, today, 5);
+        soldOut.setAvailableRooms(0);
+        
+        when(hotelRepository.findAll()).thenReturn(Arrays.asList(bangkok, phuket));
+        when(roomInventoryRepository.findByStayDateGreaterThanEqual(any())).thenReturn(List.of(soldOut));
+        
+        availabilityEngine.load();
+    }
+    
+    @Test
+    void load_ShouldApplyLedgerOnTopOfHotelCapacity() {
+        assertTrue(availabilityEngine.isAvailable(1L, today));
+        assertFalse(availabilityEngine.isAvailable(2L, today));
+        assertTrue(availabilityEngine.isAvailable(2L, today.plusDays(1)));
+        
+        List<Hotel> available = availabilityEngine.findAvailableHotels(today);
+        assertEquals(1, available.size());
+        assertEquals(1L, available.get(0).getId());
+    }
+    
+    @Test
+    void tryReserve_WhenAnyNightIsShort_ShouldLeaveEveryNightUntouched() {
+        // Given - night 2 of hotel 1 is fully booked
+        assertTrue(availabilityEngine.tryReserve(1L, today.plusDays(2), today.plusDays(3), 2));
+        
+        // When
+        boolean reserved = availabilityEngine.tryReserve(1L, today, today.plusDays(4), 1);
+        
+        // Then
+        assertFalse(reserved);
+        assertTrue(availabilityEngine.isAvailable(1L, today));
+        assertTrue(availabilityEngine.isAvailable(1L, today.plusDays(1)));
+        assertFalse(availabilityEngine.isAvailable(1L, today.plusDays(2)));
+    }
+    
+    @Test
+    void tryReserve_ForUnknownHotel_ShouldDeferToLedger() {
+        assertTrue(availabilityEngine.tryReserve(99L, today, today.plusDays(1), 1));
+        assertTrue(availabilityEngine.findHotel(99L).isEmpty());
+    }
+    
+    @Test
+    void tryReserve_BeyondHorizon_ShouldDeferToLedger() {
+        assertTrue(availabilityEngine.tryReserve(1L, today.plusDays(100), today.plusDays(102), 2));
+        assertTrue(availabilityEngine.tryReserve(1L, today.plusDays(100), today.plusDays(102), 2));
+    }
+    
+    @Test
+    void tryTake_ShouldLeaveGivingBackToTheCaller() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Given - a stay taken then turned down, and one accepted
+            assertTrue(availabilityEngine.tryTake(1L, today, today.plusDays(1), 2));
+            availabilityEngine.release(1L, today, today.plusDays(1), 2);
+            assertTrue(availabilityEngine.tryTake(1L, today, today.plusDays(1), 2));
+            availabilityEngine.releaseOnRollback(1L, today, today.plusDays(1), 2);
+            
+            // When - the transaction rolls back
+            List<TransactionSynchronization> registered = TransactionSynchronizationManager.getSynchronizations();
+            registered.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            
+            // Then - only the accepted stay waits for the outcome, and both are back
+            assertEquals(1, registered.size());
+            assertTrue(availabilityEngine.hasRooms(1L, today, today.plusDays(1), 2));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    void onHotelsChanged_WithMoreRooms_ShouldAddThemToEveryNight() {
+        // Given - tonight at hotel 1 is fully booked
+        assertTrue(availabilityEngine.tryReserve(1L, today, today.plusDays(1), 2));
+        Hotel bigger = new Hotel("Test Hotel", "Bangkok", "Thailand", 4, BigDecimal.valueOf(150.0), 5);
+        bigger.setId(1L);
+        
+        // When
+        availabilityEngine.onHotelsChanged(new HotelsChangedEvent(List.of(bigger)));
+        
+        // Then - the booked rooms stay taken, the new ones are free on every night
+        assertTrue(availabilityEngine.hasRooms(1L, today, today.plusDays(1), 3));
+        assertFalse(availabilityEngine.hasRooms(1L, today, today.plusDays(1), 4));
+        assertTrue(availabilityEngine.hasRooms(1L, today.plusDays(1), today.plusDays(2), 5));
+        assertEquals(5, availabilityEngine.findHotel(1L).orElseThrow().getAvailableRooms());
+    }
+    
+    @Test
+    void onHotelsChanged_WithFewerRooms_ShouldTakeThemOffEveryNight() {
+        // Given - one of hotel 1's two rooms is booked tonight
+        assertTrue(availabilityEngine.tryReserve(1L, today, today.plusDays(1), 1));
+        Hotel smaller = new Hotel("Test Hotel", "Bangkok", "Thailand", 4, BigDecimal.valueOf(150.0), 1);
+        smaller.setId(1L);
+        
+        // When
+        availabilityEngine.onHotelsChanged(new HotelsChangedEvent(List.of(smaller)));
+        
+        // Then - tonight is full, tomorrow has the one room left
+        assertFalse(availabilityEngine.hasRooms(1L, today, today.plusDays(1), 1));
+        assertTrue(availabilityEngine.hasRooms(1L, today.plusDays(1), today.plusDays(2), 1));
+        assertFalse(availabilityEngine.hasRooms(1L, today.plusDays(1), today.plusDays(2), 2));
+    }
+    
+    @Test
+    void onHotelsChanged_DuringLoad_ShouldNotWaitForItAndShouldReachTheLoadedSnapshot() {
+        // Given - hotel 3 opens while the load reads a catalog that does not have it yet
+        Hotel bangkok = availabilityEngine.findHotel(1L).orElseThrow();
+        Hotel opened = new Hotel("New Hotel", "Krabi", "Thailand", 3, BigDecimal.valueOf(80.0), 4);
+        opened.setId(3L);
+        when(hotelRepository.findAll()).thenAnswer(invocation -> {
+            Thread event = Thread.ofVirtual().start(
+                () -> availabilityEngine.onHotelsChanged(new HotelsChangedEvent(List.of(opened))));
+            assertTrue(event.join(Duration.ofSeconds(5)));
+            return List.of(bangkok);
+        });
+        
+        // When
+        availabilityEngine.load();
+        
+        // Then
+        assertSame(opened, availabilityEngine.findHotel(3L).orElseThrow());
+        assertTrue(availabilityEngine.isAvailable(3L, today));
+        assertTrue(availabilityEngine.isAvailable(1L, today));
+    }
+}
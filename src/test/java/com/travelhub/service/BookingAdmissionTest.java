@@ -0,0 +1,114 @@
+package com.travelhub.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingAdmissionTest {
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    
+    private BookingAdmission admission;
+    
+    @BeforeEach
+    void setUp() {
+        // 2 bookings a second, bursts of 3, 2 at a time
+        admission = new BookingAdmission(2, 3, 2, Duration.ZERO, 1000);
+        ReflectionTestUtils.setField(admission, "metrics", new BookingMetrics(registry));
+        ReflectionTestUtils.setField(admission, "clock", (LongSupplier) now::get);
+        admission.bindTo(registry);
+    }
+    
+    @Test
+    void admit_OverTheBurst_ShouldRejectUntilTheBucketRefills() {
+        // Given - the whole burst used up
+        for (int i = 0; i < 3; i++) {
+            admission.admit("email:flood@example.com", 1).close();
+        }
+        
+        // When
+        BookingRateLimitedException rejected = assertThrows(BookingRateLimitedException.class,
+            () -> admission.admit("email:flood@example.com", 1));
+        
+        // Then - the next token is half a second away, other clients are unaffected
+        assertEquals(Duration.ofMillis(500), rejected.getRetryAfter());
+        admission.admit("email:someone@example.com", 1).close();
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        admission.admit("EMAIL:FLOOD@example.com", 1).close();
+        assertEquals(5.0, registry.get("booking.admitted").counter().count());
+        assertEquals(1.0, registry.get("booking.rejected").tag("reason", "rate_limited").counter().count());
+    }
+    
+    @Test
+    void admit_WithEverySlotTaken_ShouldShedAndGiveTheTokenBack() {
+        // Given
+        BookingAdmission.Permit first = admission.admit("client:a", 1);
+        BookingAdmission.Permit second = admission.admit("client:b", 1);
+        assertEquals(2.0, registry.get("booking.admission.in_flight").gauge().value());
+        
+        // When
+        assertThrows(BookingOverloadedException.class, () -> admission.admit("client:c", 3));
+        first.close();
+        first.close();
+        
+        // Then - one slot is free again and client c still has its whole burst
+        assertEquals(1, admission.inFlight());
+        admission.admit("client:c", 3).close();
+        second.close();
+        assertEquals(0, admission.inFlight());
+        assertEquals(1.0, registry.get("booking.rejected").tag("reason", "overloaded").counter().count());
+    }
+    
+    @Test
+    void admit_WithBatch_ShouldChargeEveryItem() {
+        // Given - two of the three tokens go to one batch
+        admission.admit("client:agency", 2).close();
+        
+        // When / Then - a second batch of two does not fit until one more token has refilled
+        BookingRateLimitedException rejected = assertThrows(BookingRateLimitedException.class,
+            () -> admission.admit("client:agency", 2));
+        assertEquals(Duration.ofMillis(500), rejected.getRetryAfter());
+        admission.admit("client:agency", 1).close();
+    }
+    
+    @Test
+    void admit_WithBatchOfFiveHundred_ShouldBeRateLimitedWithoutCharging() {
+        // Given - the defaults, 5 bookings a second in bursts of 20
+        admission = new BookingAdmission(5, 20, 8, Duration.ZERO, 1000);
+        ReflectionTestUtils.setField(admission, "metrics", new BookingMetrics(registry));
+        ReflectionTestUtils.setField(admission, "clock", (LongSupplier) now::get);
+        
+        // When
+        BookingRateLimitedException rejected = assertThrows(BookingRateLimitedException.class,
+            () -> admission.admit("client:agency", 500));
+        
+        // Then - waiting would never help, and the client keeps its whole burst
+        assertNull(rejected.getRetryAfter());
+        admission.admit("client:agency", 20).close();
+        assertThrows(BookingRateLimitedException.class, () -> admission.admit("client:agency", 1));
+        assertEquals(2.0, registry.get("booking.rejected").tag("reason", "rate_limited").counter().count());
+    }
+    
+    @Test
+    void admit_WithZeroRate_ShouldOnlyLimitConcurrency() {
+        // Given
+        admission = new BookingAdmission(0, 3, 2, Duration.ZERO, 1000);
+        ReflectionTestUtils.setField(admission, "metrics", new BookingMetrics(new SimpleMeterRegistry()));
+        
+        // When / Then
+        for (int i = 0; i < 100; i++) {
+            admission.admit("client:agency", 1).close();
+        }
+        admission.admit("client:agency", 1);
+        admission.admit("client:agency", 1);
+        assertThrows(BookingOverloadedException.class, () -> admission.admit("client:agency", 1));
+    }
+}
@@ -1,19 +1,34 @@
 package com.travelhub.service;
 
+import com.travelhub.dto.BatchBookingResult;
 import com.travelhub.dto.BookingRequest;
+import com.travelhub.dto.BookingSummary;
+import com.travelhub.dto.IdempotentBooking;
+import com.travelhub.event.HotelAvailabilityChangedEvent;
 import com.travelhub.model.Booking;
 import com.travelhub.model.Hotel;
 import com.travelhub.repository.BookingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,6 +43,44 @@ class BookingServiceTest {
     @Mock
     private HotelService hotelService;
     
+    @Mock
+    private InventoryService inventoryService;
+    
+    @Mock
+    private AvailabilityEngine availabilityEngine;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private BookingReferenceGenerator referenceGenerator;
+    
+    @Mock
+    private BookingWriteBehind writeBehind;
+    
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine(PricingRules.flat(), 30);
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    
+    @Spy
+    private BookingMetrics metrics = new BookingMetrics(registry);
+    
+    @Spy
+    private BookingRetry retry = new BookingRetry(3, Duration.ZERO, Duration.ZERO, metrics);
+    
+    @Spy
+    private TransactionOperations transaction = TransactionOperations.withoutTransaction();
+    
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(100, Duration.ofHours(1));
+    
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 100);
+    
+    @Spy
+    private Shards shards = new Shards(List.of());
+    
     @InjectMocks
     private BookingService bookingService;
     
@@ -53,7 +106,9 @@ class BookingServiceTest {
     void createBooking_WithValidRequest_ShouldCreateBooking() {
         // Given
         when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
-        when(bookingRepository.existsByBookingReference(anyString())).thenReturn(false);
+        when(availabilityEngine.tryReserve(1L, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2))
+            .thenReturn(true);
+        when(referenceGenerator.next()).thenReturn("TH-0000000000001");
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
             Booking booking = invocation.getArgument(0);
             booking.setId(1L);
@@ -67,14 +122,28 @@ class BookingServiceTest {
         assertNotNull(result);
         assertEquals("test@example.com", result.getCustomerEmail());
         assertEquals("Test User", result.getCustomerName());
-        assertEquals(BigDecimal.valueOf(450.0), result.getTotalAmount()); // 3 nights * 150
+        assertEquals("TH-0000000000001", result.getBookingReference());
+        assertEquals(new BigDecimal("450.00"), result.getTotalAmount()); // 3 nights * 150, in the column's scale
         assertEquals(Booking.BookingStatus.PENDING, result.getStatus());
         
-        // Verify hotel availability was updated
-        assertEquals(8, testHotel.getAvailableRooms()); // 10 - 2 = 8
+        // Verify the rooms were reserved per night and the hotel itself was left alone
+        verify(inventoryService).reserve(testHotel, LocalDate.of(2024, 12, 15),
+                                         LocalDate.of(2024, 12, 18), 2);
+        assertEquals(10, testHotel.getAvailableRooms());
+        verify(eventPublisher).publishEvent(
+            new HotelAvailabilityChangedEvent(1L, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18)));
         
         verify(hotelService).findById(1L);
         verify(bookingRepository).save(any(Booking.class));
+        
+        // every stage was timed once and the booking counted
+        for (BookingMetrics.Stage stage : BookingMetrics.Stage.values()) {
+            assertEquals(1, registry.get("booking.stage").tag("stage", stage.name().toLowerCase()).timer().count());
+        }
+        assertEquals(1.0, registry.get("booking.created").counter().count());
+        // the customer's own reads go to the primary for a while
+        assertTrue(readYourWrites.wroteRecently(ReadYourWrites.customer("Test@Example.com")));
+        assertFalse(readYourWrites.wroteRecently(ReadYourWrites.customer("other@example.com")));
     }
     
     @Test
@@ -91,11 +160,44 @@ class BookingServiceTest {
         verify(bookingRepository, never()).save(any());
     }
     
+    @Test
+    void createBooking_ForUnpricedHotel_ShouldBeRejectedBeforeTakingRooms() {
+        // Given
+        testHotel.setPricePerNight(null);
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        
+        // When & Then
+        HotelNotPricedException exception = assertThrows(HotelNotPricedException.class,
+            () -> bookingService.createBooking(bookingRequest));
+        
+        assertEquals("Hotel has no price", exception.getMessage());
+        verifyNoInteractions(availabilityEngine, inventoryService);
+        verify(bookingRepository, never()).save(any());
+        assertEquals(1.0, registry.get("booking.rejected").tag("reason", "not_priced").counter().count());
+    }
+    
+    @Test
+    void createBookings_ForUnpricedHotel_ShouldFailItsItems() {
+        // Given
+        testHotel.setPricePerNight(null);
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        
+        // When
+        List<BatchBookingResult> results = bookingService.createBookings(List.of(bookingRequest));
+        
+        // Then
+        assertEquals("Hotel has no price", results.get(0).error());
+        verifyNoInteractions(availabilityEngine, inventoryService);
+        verify(bookingRepository).saveAll(List.of());
+    }
+    
     @Test
     void createBooking_WithInsufficientRooms_ShouldThrowException() {
         // Given
-        testHotel.setAvailableRooms(1); // Less than requested guests (2)
         when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(availabilityEngine.tryReserve(any(), any(), any(), anyInt())).thenReturn(true);
+        doThrow(new RuntimeException("Not enough rooms available"))
+            .when(inventoryService).reserve(any(), any(), any(), anyInt());
         
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, 
@@ -105,4 +207,332 @@ class BookingServiceTest {
         verify(hotelService).findById(1L);
         verify(bookingRepository, never()).save(any());
     }
-}
\ No newline at end of file
+    
+    @Test
+    void createBooking_ShouldCreateMissingNightsBeforeOpeningItsTransaction() {
+        // Given
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(availabilityEngine.hasRooms(1L, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2))
+            .thenReturn(true);
+        when(availabilityEngine.tryReserve(any(), any(), any(), anyInt())).thenReturn(true);
+        when(referenceGenerator.next()).thenReturn("TH-0000000000001");
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        bookingService.createBooking(bookingRequest);
+        
+        // Then - the nights commit on their own, so the booking holds one connection at a time
+        InOrder inOrder = inOrder(inventoryService, transaction);
+        inOrder.verify(inventoryService).createMissingNights(testHotel,
+            List.of(LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 16), LocalDate.of(2024, 12, 17)));
+        inOrder.verify(transaction).execute(any());
+        inOrder.verify(inventoryService).reserve(testHotel, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2);
+    }
+    
+    @Test
+    void createBooking_WhenLedgerLockTimesOut_ShouldRetryInANewTransaction() {
+        // Given
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(availabilityEngine.tryReserve(any(), any(), any(), anyInt())).thenReturn(true);
+        doThrow(new CannotAcquireLockException("lock timeout"))
+            .doNothing()
+            .when(inventoryService).reserve(any(), any(), any(), anyInt());
+        when(referenceGenerator.next()).thenReturn("TH-0000000000001");
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        Booking result = bookingService.createBooking(bookingRequest);
+        
+        // Then
+        assertEquals("TH-0000000000001", result.getBookingReference());
+        verify(transaction, times(2)).execute(any());
+        verify(bookingRepository, times(1)).save(any());
+        assertEquals(1.0, registry.get("booking.retried").counter().count());
+    }
+    
+    @Test
+    void createBooking_WhenLockTimeoutsPersist_ShouldGiveUpAfterMaxAttempts() {
+        // Given
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(availabilityEngine.tryReserve(any(), any(), any(), anyInt())).thenReturn(true);
+        doThrow(new CannotAcquireLockException("lock timeout"))
+            .when(inventoryService).reserve(any(), any(), any(), anyInt());
+        
+        // When & Then
+        assertThrows(CannotAcquireLockException.class, () -> bookingService.createBooking(bookingRequest));
+        verify(inventoryService, times(3)).reserve(any(), any(), any(), anyInt());
+        verify(bookingRepository, never()).save(any());
+    }
+    
+    @Test
+    void createBooking_WhenEngineHasNoRooms_ShouldRejectWithoutTouchingLedger() {
+        // Given
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(availabilityEngine.tryReserve(any(), any(), any(), anyInt())).thenReturn(false);
+        
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, 
+            () -> bookingService.createBooking(bookingRequest));
+        
+        assertEquals("Not enough rooms available", exception.getMessage());
+        verifyNoInteractions(inventoryService);
+        verify(bookingRepository, never()).save(any());
+        assertEquals(1.0, registry.get("booking.rejected").tag("reason", "no_rooms").counter().count());
+        assertEquals(0.0, registry.get("booking.created").counter().count());
+    }
+    
+    @Test
+    void createBooking_WithRepeatedIdempotencyKey_ShouldBookOnceAndReplay() {
+        // Given
+        when(bookingRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(availabilityEngine.tryReserve(eq(1L), any(), any(), anyInt())).thenReturn(true);
+        when(referenceGenerator.next()).thenReturn("TH-0000000000001");
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        IdempotentBooking first = bookingService.createBooking(bookingRequest, "key-1");
+        IdempotentBooking second = bookingService.createBooking(bookingRequest, "key-1");
+        
+        // Then
+        assertFalse(first.replayed());
+        assertTrue(second.replayed());
+        assertSame(first.booking(), second.booking());
+        assertEquals("key-1", first.booking().getIdempotencyKey());
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(inventoryService, times(1)).reserve(any(), any(), any(), anyInt());
+        assertEquals(1.0, registry.get("booking.replayed").counter().count());
+    }
+    
+    @Test
+    void createBooking_WithKeyAlreadyStored_ShouldReturnStoredBooking() {
+        // Given
+        Booking stored = new Booking("TH-0000000000001", "test@example.com", "Test User", testHotel,
+            LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2, BigDecimal.valueOf(450.0));
+        when(bookingRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(stored));
+        
+        // When
+        IdempotentBooking result = bookingService.createBooking(bookingRequest, "key-1");
+        
+        // Then
+        assertTrue(result.replayed());
+        assertSame(stored, result.booking());
+        verify(hotelService, never()).findById(any());
+        verify(bookingRepository, never()).save(any());
+    }
+    
+    @Test
+    void createBooking_WhenKeyCommittedConcurrently_ShouldReturnTheWinningBooking() {
+        // Given
+        Booking winner = new Booking("TH-0000000000001", "test@example.com", "Test User", testHotel,
+            LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2, BigDecimal.valueOf(450.0));
+        when(bookingRepository.findByIdempotencyKey("key-1"))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(winner));
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(availabilityEngine.tryReserve(eq(1L), any(), any(), anyInt())).thenReturn(true);
+        when(referenceGenerator.next()).thenReturn("TH-0000000000002");
+        when(bookingRepository.save(any(Booking.class)))
+            .thenThrow(new DataIntegrityViolationException("uk_bookings_idempotency_key"));
+        
+        // When
+        IdempotentBooking result = bookingService.createBooking(bookingRequest, "key-1");
+        
+        // Then
+        assertTrue(result.replayed());
+        assertSame(winner, result.booking());
+    }
+    
+    @Test
+    void createBooking_WithKeyReusedForAnotherStay_ShouldThrowMismatch() {
+        // Given
+        Booking stored = new Booking("TH-0000000000001", "test@example.com", "Test User", testHotel,
+            LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 3), 2, BigDecimal.valueOf(300.0));
+        when(bookingRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(stored));
+        
+        // When & Then
+        assertThrows(IdempotencyKeyMismatchException.class,
+            () -> bookingService.createBooking(bookingRequest, "key-1"));
+        verify(bookingRepository, never()).save(any());
+    }
+    
+    @Test
+    void enqueueBooking_ShouldReserveRoomsAndQueueThePendingBooking() {
+        // Given
+        when(writeBehind.tryClaim()).thenReturn(true);
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(availabilityEngine.tryReserve(eq(1L), any(), any(), anyInt())).thenReturn(true);
+        when(referenceGenerator.next()).thenReturn("TH-0000000000001");
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        Booking result = bookingService.enqueueBooking(bookingRequest);
+        
+        // Then - the rooms and the PENDING row commit together, only the confirmation is left to the queue
+        assertEquals("TH-0000000000001", result.getBookingReference());
+        assertEquals(Booking.BookingStatus.PENDING, result.getStatus());
+        InOrder inOrder = inOrder(inventoryService, bookingRepository, writeBehind);
+        inOrder.verify(inventoryService).reserve(testHotel, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2);
+        inOrder.verify(bookingRepository).save(result);
+        inOrder.verify(writeBehind).enqueue(result);
+    }
+    
+    @Test
+    void enqueueBooking_WhenQueueIsFull_ShouldRejectBeforeReserving() {
+        // Given
+        when(writeBehind.tryClaim()).thenReturn(false);
+        
+        // When & Then
+        assertThrows(BookingQueueFullException.class, () -> bookingService.enqueueBooking(bookingRequest));
+        verifyNoInteractions(hotelService, availabilityEngine, inventoryService);
+        assertEquals(1.0, registry.get("booking.rejected").tag("reason", "queue_full").counter().count());
+    }
+    
+    @Test
+    void enqueueBooking_WhenRoomsAreTaken_ShouldGiveBackTheQueueSlot() {
+        // Given
+        when(writeBehind.tryClaim()).thenReturn(true);
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(availabilityEngine.tryReserve(eq(1L), any(), any(), anyInt())).thenReturn(false);
+        
+        // When & Then
+        assertThrows(RuntimeException.class, () -> bookingService.enqueueBooking(bookingRequest));
+        verify(writeBehind).release();
+        verify(writeBehind, never()).enqueue(any());
+    }
+    
+    @Test
+    void findStatus_ShouldAnswerQueuedBookingsFromTheirRow() {
+        // Given - a queued booking is already written as PENDING
+        when(bookingRepository.findStatusByBookingReference("TH-1")).thenReturn(Optional.of(Booking.BookingStatus.PENDING));
+        when(bookingRepository.findStatusByBookingReference("TH-2")).thenReturn(Optional.empty());
+        
+        // When & Then
+        assertEquals(Optional.of(Booking.BookingStatus.PENDING), bookingService.findStatus("TH-1"));
+        assertEquals(Optional.empty(), bookingService.findStatus("TH-2"));
+        verifyNoInteractions(writeBehind);
+    }
+    
+    @Test
+    void cancelBooking_ShouldReleaseTheStayFromLedgerAndEngine() {
+        // Given
+        Booking booking = new Booking("TH-1", "test@example.com", "Test User", testHotel,
+            LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2, BigDecimal.valueOf(450.0));
+        when(bookingRepository.cancel("TH-1")).thenReturn(1);
+        when(bookingRepository.findByBookingReference("TH-1")).thenReturn(Optional.of(booking));
+        
+        // When
+        boolean cancelled = bookingService.cancelBooking("TH-1");
+        
+        // Then
+        assertTrue(cancelled);
+        verify(inventoryService).release(1L, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2);
+        verify(availabilityEngine).release(1L, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2);
+        verify(eventPublisher).publishEvent(
+            new HotelAvailabilityChangedEvent(1L, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18)));
+    }
+    
+    @Test
+    void cancelBooking_WhenAlreadyCancelled_ShouldReleaseNothing() {
+        // Given
+        when(bookingRepository.cancel("TH-1")).thenReturn(0);
+        when(bookingRepository.findStatusByBookingReference("TH-1")).thenReturn(Optional.of(Booking.BookingStatus.CANCELLED));
+        
+        // When & Then
+        assertFalse(bookingService.cancelBooking("TH-1"));
+        verifyNoInteractions(inventoryService, availabilityEngine);
+    }
+    
+    @Test
+    void cancelBooking_WithUnknownReference_ShouldThrowNotFound() {
+        // Given
+        when(bookingRepository.cancel("TH-1")).thenReturn(0);
+        when(bookingRepository.findStatusByBookingReference("TH-1")).thenReturn(Optional.empty());
+        
+        // When & Then
+        assertThrows(BookingNotFoundException.class, () -> bookingService.cancelBooking("TH-1"));
+        verifyNoInteractions(inventoryService, availabilityEngine);
+    }
+    
+    @Test
+    void cancelBooking_WhenTheQueueFailedIt_ShouldRefuseAndReleaseNothing() {
+        // Given - the write-behind queue already gave the rooms back
+        when(bookingRepository.cancel("TH-1")).thenReturn(0);
+        when(bookingRepository.findStatusByBookingReference("TH-1")).thenReturn(Optional.of(Booking.BookingStatus.FAILED));
+        
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> bookingService.cancelBooking("TH-1"));
+        verifyNoInteractions(inventoryService, availabilityEngine);
+    }
+    
+    @Test
+    void createBookings_ShouldFailOnlyTheItemsThatCannotBeBooked() {
+        // Given
+        BookingRequest shortStay = copyOf(bookingRequest);
+        shortStay.setCheckInDate(LocalDate.of(2024, 12, 20));
+        shortStay.setCheckOutDate(LocalDate.of(2024, 12, 21));
+        BookingRequest unknownHotel = copyOf(bookingRequest);
+        unknownHotel.setHotelId(2L);
+        
+        when(hotelService.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(hotelService.findById(2L)).thenReturn(Optional.empty());
+        when(availabilityEngine.tryTake(eq(1L), any(), any(), anyInt())).thenReturn(true);
+        when(inventoryService.tryReserve(testHotel, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2))
+            .thenReturn(true);
+        when(inventoryService.tryReserve(testHotel, LocalDate.of(2024, 12, 20), LocalDate.of(2024, 12, 21), 2))
+            .thenReturn(false);
+        when(referenceGenerator.next()).thenReturn("TH-0000000000001");
+        
+        // When
+        List<BatchBookingResult> results = bookingService.createBookings(
+            List.of(bookingRequest, unknownHotel, shortStay));
+        
+        // Then
+        assertTrue(results.get(0).success());
+        assertEquals("Hotel not found", results.get(1).error());
+        assertEquals("Not enough rooms available", results.get(2).error());
+        
+        // nights for both stays of hotel 1 are created in one pass, the short one is handed back to the engine
+        verify(inventoryService).createMissingNights(eq(testHotel), argThat(nights -> nights.size() == 4));
+        verify(availabilityEngine).release(1L, LocalDate.of(2024, 12, 20), LocalDate.of(2024, 12, 21), 2);
+        verify(availabilityEngine, never()).releaseOnRollback(1L, LocalDate.of(2024, 12, 20), LocalDate.of(2024, 12, 21), 2);
+        verify(availabilityEngine).releaseOnRollback(1L, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2);
+        verify(bookingRepository).saveAll(argThat(bookings -> ((List<Booking>) bookings).size() == 1));
+        verify(eventPublisher).publishEvent(
+            new HotelAvailabilityChangedEvent(1L, LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18)));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+    
+    @Test
+    void exportBookingsByEmail_ShouldPassEverySummaryToSinkInOrder() {
+        // Given
+        BookingSummary first = summary("TH-00000002");
+        BookingSummary second = summary("TH-00000001");
+        when(bookingRepository.streamSummariesByCustomerEmail("test@example.com"))
+            .thenReturn(Stream.of(first, second));
+        List<BookingSummary> written = new ArrayList<>();
+        
+        // When
+        bookingService.exportBookingsByEmail("test@example.com", written::add);
+        
+        // Then
+        assertEquals(List.of(first, second), written);
+    }
+    
+    private BookingRequest copyOf(BookingRequest source) {
+        BookingRequest copy = new BookingRequest();
+        copy.setHotelId(source.getHotelId());
+        copy.setCustomerEmail(source.getCustomerEmail());
+        copy.setCustomerName(source.getCustomerName());
+        copy.setCheckInDate(source.getCheckInDate());
+        copy.setCheckOutDate(source.getCheckOutDate());
+        copy.setNumberOfGuests(source.getNumberOfGuests());
+        return copy;
+    }
+    
+    private BookingSummary summary(String reference) {
+        return new BookingSummary(1L, reference, "test@example.com", "Test User", 1L, "Test Hotel", "Bangkok",
+                                  LocalDate.of(2024, 12, 15), LocalDate.of(2024, 12, 18), 2,
+                                  BigDecimal.valueOf(450.0), Booking.BookingStatus.PENDING, null);
+    }
+}
@@ -0,0 +1,174 @@
+package com.travelhub.service;
+
+import com.travelhub.event.HotelAvailabilityChangedEvent;
+import com.travelhub.model.Booking;
+import com.travelhub.model.Hotel;
+import com.travelhub.model.Booking.BookingStatus;
+import com.travelhub.repository.BookingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingWriteBehindTest {
+    
+    @Mock
+    private BookingRepository bookingRepository;
+    
+    @Mock
+    private InventoryService inventoryService;
+    
+    @Mock
+    private AvailabilityEngine availabilityEngine;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    
+    private BookingWriteBehind writeBehind;
+    
+    @BeforeEach
+    void setUp() {
+        BookingMetrics metrics = new BookingMetrics(registry);
+        writeBehind = new BookingWriteBehind(3, 2, Duration.ofMillis(10));
+        ReflectionTestUtils.setField(writeBehind, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(writeBehind, "transaction", TransactionOperations.withoutTransaction());
+        ReflectionTestUtils.setField(writeBehind, "retry", new BookingRetry(3, Duration.ZERO, Duration.ZERO, metrics));
+        ReflectionTestUtils.setField(writeBehind, "metrics", metrics);
+        ReflectionTestUtils.setField(writeBehind, "shards", new Shards(List.of()));
+        ReflectionTestUtils.setField(writeBehind, "inventoryService", inventoryService);
+        ReflectionTestUtils.setField(writeBehind, "availabilityEngine", availabilityEngine);
+        ReflectionTestUtils.setField(writeBehind, "eventPublisher", eventPublisher);
+        writeBehind.bindTo(registry);
+    }
+    
+    @Test
+    void flush_ShouldConfirmQueuedBookingsInBatches() {
+        // Given
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(writeBehind.tryClaim());
+            writeBehind.enqueue(booking("TH-" + i));
+        }
+        assertEquals(3.0, registry.get("booking.queue.depth").gauge().value());
+        
+        // When
+        int confirmed = writeBehind.flush();
+        
+        // Then - batches of two, each one update of rows already written as PENDING
+        assertEquals(3, confirmed);
+        verify(bookingRepository).updatePendingStatus(List.of("TH-1", "TH-2"), BookingStatus.CONFIRMED);
+        verify(bookingRepository).updatePendingStatus(List.of("TH-3"), BookingStatus.CONFIRMED);
+        verify(bookingRepository, never()).saveAll(anyList());
+        assertEquals(0.0, registry.get("booking.queue.depth").gauge().value());
+    }
+    
+    @Test
+    void tryClaim_WhenQueueIsFull_ShouldRefuseUntilBookingsAreWritten() {
+        // Given
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(writeBehind.tryClaim());
+            writeBehind.enqueue(booking("TH-" + i));
+        }
+        
+        // When & Then
+        assertFalse(writeBehind.tryClaim());
+        writeBehind.flush();
+        assertTrue(writeBehind.tryClaim());
+    }
+    
+    @Test
+    void flush_WhenBatchFails_ShouldConfirmTheOtherBookingsAndFailTheBrokenOne() {
+        // Given
+        Booking good = booking("TH-1");
+        Booking bad = booking("TH-2");
+        when(bookingRepository.updatePendingStatus(anyCollection(), eq(BookingStatus.CONFIRMED))).thenAnswer(invocation -> {
+            Collection<String> references = invocation.getArgument(0);
+            if (references.contains("TH-2")) {
+                throw new QueryTimeoutException("statement timeout");
+            }
+            return references.size();
+        });
+        when(bookingRepository.updatePendingStatus(List.of("TH-2"), BookingStatus.FAILED)).thenReturn(1);
+        writeBehind.tryClaim();
+        writeBehind.enqueue(good);
+        writeBehind.tryClaim();
+        writeBehind.enqueue(bad);
+        
+        // When
+        writeBehind.flush();
+        
+        // Then
+        verify(bookingRepository).updatePendingStatus(List.of("TH-1"), BookingStatus.CONFIRMED);
+        assertTrue(writeBehind.tryClaim() && writeBehind.tryClaim() && writeBehind.tryClaim());
+        // the failed booking gives its rooms back and tells the caches
+        verify(inventoryService).release(7L, bad.getCheckInDate(), bad.getCheckOutDate(), 2);
+        verify(availabilityEngine).release(7L, bad.getCheckInDate(), bad.getCheckOutDate(), 2);
+        verify(eventPublisher).publishEvent(new HotelAvailabilityChangedEvent(7L, bad.getCheckInDate(), bad.getCheckOutDate()));
+        verify(inventoryService, never()).release(eq(7L), eq(good.getCheckInDate()), any(), anyInt());
+    }
+    
+    @Test
+    void flush_WhenFailedBookingWasCancelledMeanwhile_ShouldNotReleaseItsRoomsAgain() {
+        // Given - confirming fails, and the booking is no longer PENDING when it is failed
+        when(bookingRepository.updatePendingStatus(anyCollection(), eq(BookingStatus.CONFIRMED)))
+            .thenThrow(new QueryTimeoutException("statement timeout"));
+        writeBehind.tryClaim();
+        writeBehind.enqueue(booking("TH-1"));
+        
+        // When
+        writeBehind.flush();
+        
+        // Then - the cancellation already released them
+        verify(bookingRepository).updatePendingStatus(List.of("TH-1"), BookingStatus.FAILED);
+        verifyNoInteractions(inventoryService, availabilityEngine, eventPublisher);
+    }
+    
+    @Test
+    void stop_ShouldWriteWhatWasClaimedAndRefuseNewClaims() {
+        // Given
+        writeBehind.start();
+        assertTrue(writeBehind.tryClaim());
+        
+        // When - the booking claimed before stopping is enqueued while stopping
+        Thread stopping = Thread.ofVirtual().start(writeBehind::stop);
+        Booking late = booking("TH-1");
+        writeBehind.enqueue(late);
+        assertDoesNotThrow(() -> stopping.join());
+        
+        // Then
+        verify(bookingRepository).updatePendingStatus(List.of(late.getBookingReference()), BookingStatus.CONFIRMED);
+        assertFalse(writeBehind.tryClaim());
+        assertFalse(writeBehind.isRunning());
+    }
+    
+    private static Booking booking(String reference) {
+        Booking booking = new Booking();
+        booking.setBookingReference(reference);
+        booking.setCustomerEmail(reference + "@example.com");
+        booking.setStatus(BookingStatus.PENDING);
+        Hotel hotel = new Hotel();
+        hotel.setId(7L);
+        booking.setHotel(hotel);
+        booking.setCheckInDate(LocalDate.of(2030, 1, 10).plusDays(Long.parseLong(reference.substring(3))));
+        booking.setCheckOutDate(booking.getCheckInDate().plusDays(2));
+        booking.setNumberOfGuests(2);
+        return booking;
+    }
+}
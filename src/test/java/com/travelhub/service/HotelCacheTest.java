@@ -0,0 +1,75 @@
+package com.travelhub.service;
+
+import com.travelhub.model.Hotel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotelCacheTest {
+    
+    private HotelCache hotelCache;
+    private SimpleMeterRegistry registry;
+    
+    @BeforeEach
+    void setUp() {
+        hotelCache = new HotelCache(100, Duration.ofMinutes(10));
+        registry = new SimpleMeterRegistry();
+        hotelCache.bindTo(registry);
+    }
+    
+    @Test
+    void getById_ShouldRecordHitsAndMisses() {
+        Hotel hotel = hotel(1L, "Bangkok");
+        
+        hotelCache.getById(1L, id -> hotel);
+        hotelCache.getById(1L, id -> hotel);
+        hotelCache.getById(1L, id -> hotel);
+        
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "hotels.byId").tag("result", "hit")
+            .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "hotels.byId").tag("result", "miss")
+            .functionCounter().count());
+    }
+    
+    @Test
+    void getById_WhenHotelMissing_ShouldNotCacheAbsence() {
+        assertNull(hotelCache.getById(1L, id -> null));
+        
+        Hotel created = hotel(1L, "Bangkok");
+        assertSame(created, hotelCache.getById(1L, id -> created));
+    }
+    
+    @Test
+    void getByCity_ShouldIgnoreCase() {
+        List<Hotel> hotels = List.of(hotel(1L, "Bangkok"));
+        
+        hotelCache.getByCity("Bangkok", city -> hotels);
+        List<Hotel> cached = hotelCache.getByCity("BANGKOK", city -> fail("should be cached"));
+        
+        assertSame(hotels, cached);
+    }
+    
+    @Test
+    void evict_ShouldOnlyDropCityListsContainingTheHotel() {
+        hotelCache.getByCity("Bangkok", city -> List.of(hotel(1L, "Bangkok")));
+        hotelCache.getByCity("Phuket", city -> List.of(hotel(2L, "Phuket")));
+        
+        hotelCache.evict(List.of(hotel(1L, "Bangkok")));
+        
+        List<Hotel> reloaded = List.of(hotel(1L, "Bangkok"));
+        assertSame(reloaded, hotelCache.getByCity("Bangkok", city -> reloaded));
+        hotelCache.getByCity("Phuket", city -> fail("should still be cached"));
+    }
+    
+    private Hotel hotel(Long id, String city) {
+        Hotel hotel = new Hotel("Hotel " + id, city, "Thailand", 4, BigDecimal.valueOf(150.0), 10);
+        hotel.setId(id);
+        return hotel;
+    }
+}
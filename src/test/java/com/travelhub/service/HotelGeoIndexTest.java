@@ -0,0 +1,165 @@
+package com.travelhub.service;
+
+import com.travelhub.dto.NearbyCriteria;
+import com.travelhub.dto.NearbyHotel;
+import com.travelhub.model.Hotel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotelGeoIndexTest {
+    
+    @Mock
+    private AvailabilityEngine availabilityEngine;
+    
+    @InjectMocks
+    private HotelGeoIndex hotelGeoIndex;
+    
+    @BeforeEach
+    void setUp() {
+        hotelGeoIndex.rebuild(List.of(
+            hotel(1L, 5, 13.7236, 100.5145),
+            hotel(2L, 4, 13.7178, 100.5134),
+            hotel(3L, 4, 18.7953, 98.9685),
+            hotel(4L, 5, 1.2834, 103.8607),
+            hotel(5L, 3, 7.8961, 98.2962),
+            hotel(6L, 3, null, null)));
+    }
+    
+    @Test
+    void nearby_WithRadius_ShouldReturnHotelsInsideItNearestFirst() {
+        // Given - a point on the river in Bangkok
+        NearbyCriteria criteria = new NearbyCriteria(13.7200, 100.5140);
+        criteria.setRadiusKm(5.0);
+        
+        // When
+        List<NearbyHotel> nearby = hotelGeoIndex.nearby(criteria, 20);
+        
+        // Then
+        assertEquals(List.of(2L, 1L), ids(nearby));
+        assertEquals(0.253, nearby.get(0).distanceKm(), 0.01);
+        assertEquals(0.404, nearby.get(1).distanceKm(), 0.01);
+    }
+    
+    @Test
+    void nearby_WithoutRadius_ShouldReturnTheNearestHotelsHoweverFar() {
+        List<NearbyHotel> nearby = hotelGeoIndex.nearby(new NearbyCriteria(1.3000, 103.8500), 2);
+        
+        // Singapore, then Phuket about 700 km away
+        assertEquals(List.of(4L, 5L), ids(nearby));
+        assertTrue(nearby.get(1).distanceKm() > 600);
+        assertEquals(5, hotelGeoIndex.nearby(new NearbyCriteria(1.3000, 103.8500), 20).size());
+    }
+    
+    @Test
+    void nearby_WithStarsAndStayWindow_ShouldSkipHotelsThatDoNotMatch() {
+        // Given
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+        NearbyCriteria criteria = new NearbyCriteria(13.7200, 100.5140);
+        criteria.setMinStars(4);
+        criteria.setCheckIn(checkIn);
+        criteria.setCheckOut(checkIn.plusDays(2));
+        when(availabilityEngine.hasRooms(anyLong(), eq(checkIn), eq(checkIn.plusDays(2)), eq(1)))
+            .thenAnswer(invocation -> invocation.getArgument(0, Long.class) != 2L);
+        
+        // When
+        List<NearbyHotel> nearby = hotelGeoIndex.nearby(criteria, 2);
+        
+        // Then - the closest hotel is full and Phuket has too few stars
+        assertEquals(List.of(1L, 3L), ids(nearby));
+    }
+    
+    @Test
+    void nearby_AcrossTheAntimeridian_ShouldFindHotelsOnBothSides() {
+        // Given
+        hotelGeoIndex.rebuild(List.of(hotel(10L, 4, -16.5, 179.95), hotel(11L, 4, -16.5, -179.95),
+                                      hotel(12L, 4, -16.5, 179.5)));
+        NearbyCriteria criteria = new NearbyCriteria(-16.5, -179.99);
+        criteria.setRadiusKm(20.0);
+        
+        // When / Then
+        assertEquals(List.of(11L, 10L), ids(hotelGeoIndex.nearby(criteria, 20)));
+    }
+    
+    @Test
+    void upsert_ShouldIndexNewHotelsAndMoveChangedOnes() {
+        // Given - a new hotel next to the river and hotel 3 moved to Bangkok
+        NearbyCriteria criteria = new NearbyCriteria(13.7200, 100.5140);
+        criteria.setRadiusKm(5.0);
+        
+        // When
+        hotelGeoIndex.upsert(List.of(hotel(7L, 4, 13.7201, 100.5141)));
+        hotelGeoIndex.upsert(List.of(hotel(3L, 4, 13.7300, 100.5200)));
+        
+        // Then
+        assertEquals(List.of(7L, 2L, 1L, 3L), ids(hotelGeoIndex.nearby(criteria, 20)));
+        assertEquals(6, hotelGeoIndex.size());
+    }
+    
+    @Test
+    void nearby_ShouldAgreeWithAFullScan() {
+        // Given - hotels clustered over Southeast Asia
+        Random random = new Random(42);
+        List<Hotel> hotels = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            hotels.add(hotel(id, 1 + random.nextInt(5), -10 + random.nextDouble() * 35, 95 + random.nextDouble() * 30));
+        }
+        hotelGeoIndex.rebuild(hotels.subList(0, 4000));
+        hotelGeoIndex.upsert(hotels.subList(4000, 5000));
+        
+        for (int i = 0; i < 50; i++) {
+            NearbyCriteria criteria = new NearbyCriteria(-12 + random.nextDouble() * 40, 93 + random.nextDouble() * 34);
+            if (i % 2 == 0) {
+                criteria.setRadiusKm(random.nextDouble() * 300);
+            }
+            
+            // When
+            List<NearbyHotel> nearby = hotelGeoIndex.nearby(criteria, 10);
+            
+            // Then
+            List<Long> expected = hotels.stream()
+                .filter(hotel -> criteria.getRadiusKm() == null || distanceKm(criteria, hotel) <= criteria.getRadiusKm())
+                .sorted(Comparator.comparingDouble(hotel -> distanceKm(criteria, hotel)))
+                .limit(10)
+                .map(Hotel::getId)
+                .toList();
+            assertEquals(expected, ids(nearby));
+        }
+    }
+    
+    private static double distanceKm(NearbyCriteria criteria, Hotel hotel) {
+        double lat1 = Math.toRadians(criteria.getLatitude());
+        double lat2 = Math.toRadians(hotel.getLatitude());
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(hotel.getLongitude() - criteria.getLongitude());
+        double a = Math.pow(Math.sin(dLat / 2), 2) + Math.cos(lat1) * Math.cos(lat2) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * HotelGeoIndex.EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+    
+    private static Hotel hotel(Long id, int stars, Double latitude, Double longitude) {
+        Hotel hotel = new Hotel("Hotel " + id, "City", "Country", stars, new BigDecimal("100.00"), 10);
+        hotel.setId(id);
+        hotel.setLatitude(latitude);
+        hotel.setLongitude(longitude);
+        return hotel;
+    }
+    
+    private static List<Long> ids(List<NearbyHotel> nearby) {
+        return nearby.stream().map(found -> found.hotel().getId()).toList();
+    }
+}
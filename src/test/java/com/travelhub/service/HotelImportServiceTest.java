@@ -0,0 +1,115 @@
+package com.travelhub.service;
+
+import com.travelhub.dto.HotelImportResult;
+import com.travelhub.dto.NearbyCriteria;
+import com.travelhub.dto.NearbyHotel;
+import com.travelhub.model.Hotel;
+import com.travelhub.repository.HotelRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "travelhub.hotels.import.chunk-size=100")
+@ActiveProfiles("test")
+class HotelImportServiceTest {
+    
+    @Autowired
+    private HotelImportService hotelImportService;
+    
+    @Autowired
+    private HotelService hotelService;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Autowired
+    private AvailabilityEngine availabilityEngine;
+    
+    @Test
+    void importCsv_ShouldWriteValidRowsInChunksAndReportTheRest() throws Exception {
+        // Given - 250 hotels over three chunks, columns in their own order, two bad rows
+        StringBuilder csv = new StringBuilder("availableRooms,pricePerNight,name,city,country,starRating\n");
+        for (int i = 1; i <= 250; i++) {
+            csv.append(10).append(',').append("120.50").append(",\"Csv Hotel ").append(i).append(", Riverside\"")
+               .append(",Csvtown,Thailand,4\n");
+        }
+        csv.append("5,abc,Broken Price,Csvtown,Thailand,3\n");
+        csv.append("5,99.00,,Csvtown,Thailand,9\n");
+        
+        // When
+        HotelImportResult result = hotelImportService.importCsv(stream(csv.toString()));
+        
+        // Then
+        assertEquals(250, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals(List.of("line 252: not a number: Character a is neither a decimal digit number, decimal point, "
+                + "nor \"e\" notation exponential mark.",
+            "line 253: name is required, starRating must be between 1 and 5"), result.errors());
+        List<Hotel> imported = hotelRepository.findByCityKey("csvtown");
+        assertEquals(250, imported.size());
+        assertTrue(imported.stream().anyMatch(hotel -> hotel.getName().equals("Csv Hotel 7, Riverside")));
+        // the in-memory views learned about the new hotels too
+        assertEquals(250, hotelService.findByCity("Csvtown").size());
+        assertTrue(availabilityEngine.findHotel(imported.get(0).getId()).isPresent());
+    }
+    
+    @Test
+    void importNdjson_ShouldSkipMalformedLines() throws Exception {
+        // Given
+        String ndjson = """
+            {"name":"Json Hotel 1","city":"Jsonville","country":"Vietnam","starRating":3,"pricePerNight":80.00,"availableRooms":6}
+            {"name":"Json Hotel 2","city":"Jsonville",
+            
+            {"name":"Json Hotel 3","city":"Jsonville","country":"Vietnam","pricePerNight":95.5,"availableRooms":4}
+            """;
+        
+        // When
+        HotelImportResult result = hotelImportService.importNdjson(stream(ndjson));
+        
+        // Then
+        assertEquals(2, result.imported());
+        assertEquals(1, result.rejected());
+        assertTrue(result.errors().get(0).startsWith("line 2: not a valid hotel"));
+        assertEquals(2, hotelRepository.findByCityKey("jsonville").size());
+    }
+    
+    @Test
+    void importNdjson_WithCoordinates_ShouldMakeHotelsFindableNearby() throws Exception {
+        // Given - one located hotel, one with half a coordinate pair
+        String ndjson = """
+            {"name":"Geo Hotel 1","city":"Geoburg","country":"Australia","pricePerNight":90,"availableRooms":3,"latitude":-33.8688,"longitude":151.2093}
+            {"name":"Geo Hotel 2","city":"Geoburg","country":"Australia","pricePerNight":90,"availableRooms":3,"latitude":-33.87}
+            """;
+        
+        // When
+        HotelImportResult result = hotelImportService.importNdjson(stream(ndjson));
+        NearbyCriteria criteria = new NearbyCriteria(-33.8700, 151.2100);
+        criteria.setRadiusKm(1.0);
+        List<NearbyHotel> nearby = hotelService.findNearby(criteria, 10);
+        
+        // Then
+        assertEquals(1, result.imported());
+        assertEquals(List.of("line 2: latitude and longitude must be given together"), result.errors());
+        assertEquals(1, nearby.size());
+        assertEquals("Geo Hotel 1", nearby.get(0).hotel().getName());
+        assertEquals(0.146, nearby.get(0).distanceKm(), 0.01);
+    }
+    
+    @Test
+    void importCsv_WithMissingColumn_ShouldRejectTheFile() {
+        assertThrows(IllegalArgumentException.class,
+            () -> hotelImportService.importCsv(stream("name,city,country\nA,B,C\n")));
+    }
+    
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
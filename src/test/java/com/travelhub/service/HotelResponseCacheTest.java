@@ -0,0 +1,116 @@
+package com.travelhub.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelhub.dto.CachedResponse;
+import com.travelhub.dto.HotelPage;
+import com.travelhub.event.HotelAvailabilityChangedEvent;
+import com.travelhub.event.HotelsChangedEvent;
+import com.travelhub.model.Hotel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotelResponseCacheTest {
+    
+    private static final LocalDate NIGHT = LocalDate.of(2030, 5, 10);
+    
+    private HotelResponseCache responseCache;
+    private Hotel hotel;
+    
+    @BeforeEach
+    void setUp() {
+        responseCache = new HotelResponseCache(100, Duration.ofMinutes(10), 64);
+        ReflectionTestUtils.setField(responseCache, "objectMapper", new ObjectMapper());
+        hotel = new Hotel("Mandarin Oriental", "Bangkok", "Thailand", 5, new BigDecimal("250.00"), 10);
+        hotel.setId(1L);
+    }
+    
+    @Test
+    void hotel_ShouldSerializeOnceAndKeepTheBytes() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        
+        // When
+        CachedResponse first = responseCache.hotel(1L, id -> { loads.incrementAndGet(); return hotel; });
+        CachedResponse second = responseCache.hotel(1L, id -> { loads.incrementAndGet(); return hotel; });
+        
+        // Then
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertTrue(new String(first.body()).contains("\"name\":\"Mandarin Oriental\""));
+        assertEquals("\"" + HotelResponseCache.hash(first.body()) + "\"", first.etag());
+        assertNull(responseCache.hotel(2L, id -> null));
+    }
+    
+    @Test
+    void listing_ShouldKeepAGzippedCopyWithItsOwnEtagForLargeBodies() throws Exception {
+        // When
+        CachedResponse page = responseCache.listing(List.of("available"), null, null,
+            () -> new HotelPage(List.of(hotel, hotel, hotel), "next"));
+        
+        // Then
+        assertTrue(page.hasGzipped());
+        assertNotEquals(page.etag(), page.gzippedEtag());
+        assertArrayEquals(page.body(), new GZIPInputStream(new ByteArrayInputStream(page.gzipped())).readAllBytes());
+        assertEquals("next", page.nextCursor());
+        // tiny bodies are not worth compressing
+        CachedResponse empty = responseCache.listing(List.of("empty"), null, null, () -> new HotelPage(List.of(), null));
+        assertFalse(empty.hasGzipped());
+    }
+    
+    @Test
+    void onHotelsChanged_ShouldRenderCachedHotelsAgainAndDropListings() {
+        // Given
+        CachedResponse before = responseCache.hotel(1L, id -> hotel);
+        AtomicInteger listingLoads = new AtomicInteger();
+        responseCache.listing(List.of("search", "bangkok"), null, null,
+            () -> { listingLoads.incrementAndGet(); return new HotelPage(List.of(hotel), null); });
+        Hotel renamed = new Hotel("Mandarin Oriental Bangkok", "Bangkok", "Thailand", 5, new BigDecimal("250.00"), 10);
+        renamed.setId(1L);
+        
+        // When
+        responseCache.onHotelsChanged(new HotelsChangedEvent(List.of(renamed)));
+        CachedResponse after = responseCache.hotel(1L, id -> fail("should have been re-rendered in place"));
+        responseCache.listing(List.of("search", "bangkok"), null, null,
+            () -> { listingLoads.incrementAndGet(); return new HotelPage(List.of(renamed), null); });
+        
+        // Then
+        assertNotEquals(before.etag(), after.etag());
+        assertTrue(new String(after.body()).contains("Mandarin Oriental Bangkok"));
+        assertEquals(2, listingLoads.get());
+    }
+    
+    @Test
+    void onAvailabilityChanged_ShouldDropOnlyListingsOverlappingTheNights() {
+        // Given - tonight's listing, a later stay search and a search without dates
+        AtomicInteger loads = new AtomicInteger();
+        List<List<?>> queries = List.of(List.of("available"), List.of("search", "stay"), List.of("search", "any"));
+        List<LocalDate[]> windows = List.of(new LocalDate[] {NIGHT, NIGHT.plusDays(1)},
+                                            new LocalDate[] {NIGHT.plusDays(3), NIGHT.plusDays(5)},
+                                            new LocalDate[] {null, null});
+        Runnable readAll = () -> {
+            for (int i = 0; i < queries.size(); i++) {
+                responseCache.listing(queries.get(i), windows.get(i)[0], windows.get(i)[1],
+                    () -> { loads.incrementAndGet(); return new HotelPage(List.of(hotel), null); });
+            }
+        };
+        readAll.run();
+        
+        // When - a booking for the night of the listing only
+        responseCache.onAvailabilityChanged(new HotelAvailabilityChangedEvent(1L, NIGHT.minusDays(1), NIGHT.plusDays(1)));
+        readAll.run();
+        
+        // Then
+        assertEquals(4, loads.get());
+    }
+}
@@ -0,0 +1,148 @@
+package com.travelhub.service;
+
+import com.travelhub.dto.HotelCursor;
+import com.travelhub.dto.HotelSearchCriteria;
+import com.travelhub.dto.HotelSort;
+import com.travelhub.event.HotelsChangedEvent;
+import com.travelhub.model.Hotel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotelSearchIndexTest {
+    
+    @Mock
+    private AvailabilityEngine availabilityEngine;
+    
+    @InjectMocks
+    private HotelSearchIndex hotelSearchIndex;
+    
+    @BeforeEach
+    void setUp() {
+        hotelSearchIndex.rebuild(List.of(
+            hotel(1L, "Mandarin Oriental", "Bangkok", "Thailand", 5, "250.00"),
+            hotel(2L, "Shangri La Bangkok", "Bangkok", "Thailand", 4, "200.00"),
+            hotel(3L, "Chiang Mai Orchid Hotel", "Chiang Mai", "Thailand", 4, "80.00"),
+            hotel(4L, "Marina Bay Sands", "Singapore", "Singapore", 5, "350.00"),
+            hotel(5L, "Phuket Mariott Resort and Spa", "Phuket", "Thailand", 3, "400.00")));
+    }
+    
+    @Test
+    void search_ByCityPrefix_ShouldMatchAnyWordCaseInsensitively() {
+        assertEquals(List.of(1L, 2L), ids(search(criteria("BANG"))));
+        assertEquals(List.of(3L), ids(search(criteria("mai"))));
+        assertEquals(List.of(3L), ids(search(criteria("chiang m"))));
+        assertTrue(search(criteria("paris")).isEmpty());
+    }
+    
+    @Test
+    void search_WithStarsPriceAndCountry_ShouldIntersectFilters() {
+        HotelSearchCriteria criteria = new HotelSearchCriteria();
+        criteria.setCountry("thai");
+        criteria.setMinStars(4);
+        criteria.setMaxPrice(new BigDecimal("220"));
+        
+        assertEquals(List.of(2L, 3L), ids(search(criteria)));
+    }
+    
+    @Test
+    void search_WithStayWindow_ShouldAskEngineForEveryNight() {
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+        HotelSearchCriteria criteria = criteria("bangkok");
+        criteria.setCheckIn(checkIn);
+        criteria.setCheckOut(checkIn.plusDays(2));
+        criteria.setRooms(2);
+        when(availabilityEngine.hasRooms(anyLong(), eq(checkIn), eq(checkIn.plusDays(2)), eq(2)))
+            .thenAnswer(invocation -> invocation.getArgument(0, Long.class) == 2L);
+        
+        assertEquals(List.of(2L), ids(search(criteria)));
+    }
+    
+    @Test
+    void search_SortedByPrice_ShouldPageWithCursor() {
+        HotelSearchCriteria criteria = new HotelSearchCriteria();
+        
+        List<Hotel> first = hotelSearchIndex.search(criteria, HotelCursor.start(HotelSort.PRICE), 2);
+        List<Hotel> second = hotelSearchIndex.search(criteria, HotelCursor.after(first.get(1), HotelSort.PRICE), 2);
+        
+        assertEquals(List.of(3L, 2L), ids(first));
+        assertEquals(List.of(1L, 4L), ids(second));
+    }
+    
+    @Test
+    void search_SortedById_ShouldResumeAfterCursor() {
+        List<Hotel> page = hotelSearchIndex.search(new HotelSearchCriteria(),
+            HotelCursor.after(hotel(2L, "", "", "", 0, "0"), HotelSort.ID), 2);
+        
+        assertEquals(List.of(3L, 4L), ids(page));
+    }
+    
+    @Test
+    void onHotelsChanged_ShouldReindexMovedAndNewHotels() {
+        // hotel 2 moves to Pattaya, hotel 6 opens in Bangkok
+        hotelSearchIndex.onHotelsChanged(new HotelsChangedEvent(List.of(
+            hotel(2L, "Shangri La Pattaya", "Pattaya", "Thailand", 4, "200.00"),
+            hotel(6L, "Riverside Inn", "Bangkok", "Thailand", 3, "60.00"))));
+        
+        assertEquals(List.of(1L, 6L), ids(search(criteria("bangkok"))));
+        assertEquals(List.of(2L), ids(search(criteria("patt"))));
+        assertEquals(6, hotelSearchIndex.size());
+    }
+    
+    @Test
+    void upsert_OneHotelAtATime_ShouldGrowPastCapacityAndKeepEarlierSnapshotsIntact() {
+        HotelSearchCriteria everywhere = new HotelSearchCriteria();
+        List<Hotel> before = hotelSearchIndex.search(everywhere, HotelCursor.start(HotelSort.PRICE), 20);
+        
+        for (long id = 6; id <= 40; id++) {
+            hotelSearchIndex.upsert(List.of(hotel(id, "Hostel " + id, "Krabi", "Thailand", 2, String.valueOf(100 - id))));
+        }
+        
+        assertEquals(40, hotelSearchIndex.size());
+        assertEquals(35, hotelSearchIndex.search(criteria("krabi"), HotelCursor.start(HotelSort.ID), 50).size());
+        assertEquals(List.of(40L, 39L, 38L),
+            ids(hotelSearchIndex.search(everywhere, HotelCursor.start(HotelSort.PRICE), 3)));
+        assertEquals(List.of(3L, 2L, 1L, 4L, 5L), ids(before));
+    }
+    
+    @Test
+    void onHotelsChanged_WithIdBelowIndexedOnes_ShouldKeepIdOrder() {
+        hotelSearchIndex.rebuild(List.of(hotel(10L, "Late Hotel", "Bangkok", "Thailand", 3, "90.00")));
+        
+        hotelSearchIndex.upsert(List.of(hotel(7L, "Early Hotel", "Bangkok", "Thailand", 3, "90.00")));
+        
+        assertEquals(List.of(7L, 10L), ids(search(criteria("bangkok"))));
+    }
+    
+    private List<Hotel> search(HotelSearchCriteria criteria) {
+        return hotelSearchIndex.search(criteria, HotelCursor.start(HotelSort.ID), 20);
+    }
+    
+    private static HotelSearchCriteria criteria(String city) {
+        HotelSearchCriteria criteria = new HotelSearchCriteria();
+        criteria.setCity(city);
+        return criteria;
+    }
+    
+    private static List<Long> ids(List<Hotel> hotels) {
+        return hotels.stream().map(Hotel::getId).toList();
+    }
+    
+    private static Hotel hotel(Long id, String name, String city, String country, int stars, String price) {
+        Hotel hotel = new Hotel(name, city, country, stars, new BigDecimal(price), 10);
+        hotel.setId(id);
+        return hotel;
+    }
+}
@@ -1,5 +1,10 @@
 package com.travelhub.service;
 
+import com.travelhub.dto.HotelCursor;
+import com.travelhub.dto.HotelPage;
+import com.travelhub.dto.HotelSearchCriteria;
+import com.travelhub.dto.HotelSort;
+import com.travelhub.event.HotelsChangedEvent;
 import com.travelhub.model.Hotel;
 import com.travelhub.repository.HotelRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,14 +12,22 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +36,27 @@ class HotelServiceTest {
     @Mock
     private HotelRepository hotelRepository;
     
+    @Mock
+    private AvailabilityEngine availabilityEngine;
+    
+    @Spy
+    private HotelCache hotelCache = new HotelCache(100, Duration.ofMinutes(10));
+    
+    @Mock
+    private HotelSearchIndex hotelSearchIndex;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 100);
+    
+    @Mock
+    private InventoryService inventoryService;
+    
+    @Mock
+    private Shards shards;
+    
     @InjectMocks
     private HotelService hotelService;
     
@@ -66,7 +100,7 @@ class HotelServiceTest {
     void findByCity_ShouldReturnHotelsInCity() {
         // Given
         List<Hotel> expectedHotels = Arrays.asList(testHotel);
-        when(hotelRepository.findByCityIgnoreCase("Bangkok")).thenReturn(expectedHotels);
+        when(hotelRepository.findByCityKey("bangkok")).thenReturn(expectedHotels);
         
         // When
         List<Hotel> result = hotelService.findByCity("Bangkok");
@@ -74,14 +108,14 @@ class HotelServiceTest {
         // Then
         assertEquals(1, result.size());
         assertEquals("Test Hotel", result.get(0).getName());
-        verify(hotelRepository).findByCityIgnoreCase("Bangkok");
+        verify(hotelRepository).findByCityKey("bangkok");
     }
     
     @Test
     void findAvailableHotels_ShouldReturnOnlyAvailableHotels() {
         // Given
         List<Hotel> expectedHotels = Arrays.asList(testHotel);
-        when(hotelRepository.findByAvailableRoomsGreaterThan(0)).thenReturn(expectedHotels);
+        when(availabilityEngine.findAvailableHotels(LocalDate.now())).thenReturn(expectedHotels);
         
         // When
         List<Hotel> result = hotelService.findAvailableHotels();
@@ -89,6 +123,118 @@ class HotelServiceTest {
         // Then
         assertEquals(1, result.size());
         assertTrue(result.get(0).getAvailableRooms() > 0);
-        verify(hotelRepository).findByAvailableRoomsGreaterThan(0);
+        verify(availabilityEngine).findAvailableHotels(LocalDate.now());
+        verifyNoInteractions(hotelRepository);
+    }
+    
+    @Test
+    void findById_WhenCalledTwice_ShouldHitRepositoryOnce() {
+        // Given
+        when(hotelRepository.findById(1L)).thenReturn(Optional.of(testHotel));
+        
+        // When
+        hotelService.findById(1L);
+        Optional<Hotel> result = hotelService.findById(1L);
+        
+        // Then
+        assertSame(testHotel, result.get());
+        verify(hotelRepository, times(1)).findById(1L);
+    }
+    
+    @Test
+    void onHotelsChanged_ShouldEvictCachedHotelAndItsCity() {
+        // Given
+        when(hotelRepository.findById(1L)).thenReturn(Optional.of(testHotel));
+        when(hotelRepository.findByCityKey("bangkok")).thenReturn(Arrays.asList(testHotel));
+        hotelService.findById(1L);
+        hotelService.findByCity("Bangkok");
+        
+        // When
+        hotelService.onHotelsChanged(new HotelsChangedEvent(List.of(testHotel)));
+        hotelService.findById(1L);
+        hotelService.findByCity("bangkok");
+        
+        // Then
+        verify(hotelRepository, times(2)).findById(1L);
+        verify(hotelRepository, times(2)).findByCityKey(anyString());
+    }
+    
+    @Test
+    void findAvailableHotels_ByPrice_ShouldSkipHotelsFullTonightButKeepCursorMoving() {
+        // Given
+        Hotel fullTonight = new Hotel("Full Hotel", "Bangkok", "Thailand", 
+                                      3, BigDecimal.valueOf(200.0), 5);
+        fullTonight.setId(2L);
+        when(hotelRepository.findAvailableAfterPrice(BigDecimal.valueOf(-1), 0L, Limit.of(2)))
+            .thenReturn(Arrays.asList(testHotel, fullTonight));
+        when(availabilityEngine.isAvailable(1L, LocalDate.now())).thenReturn(true);
+        when(availabilityEngine.isAvailable(2L, LocalDate.now())).thenReturn(false);
+        
+        // When
+        HotelPage page = hotelService.findAvailableHotels(HotelCursor.start(HotelSort.PRICE), 2);
+        
+        // Then
+        assertEquals(1, page.hotels().size());
+        assertEquals(HotelCursor.after(fullTonight, HotelSort.PRICE), HotelCursor.decode(page.nextCursor()));
+    }
+    
+    @Test
+    void search_WithFullPage_ShouldReturnCursorAfterLastHotel() {
+        // Given
+        HotelSearchCriteria criteria = new HotelSearchCriteria();
+        criteria.setCity("Bang");
+        when(hotelSearchIndex.search(criteria, HotelCursor.start(HotelSort.ID), 1))
+            .thenReturn(Arrays.asList(testHotel));
+        
+        // When
+        HotelPage page = hotelService.search(criteria, HotelCursor.start(HotelSort.ID), 1);
+        
+        // Then
+        assertEquals(1, page.hotels().size());
+        assertEquals(HotelCursor.after(testHotel, HotelSort.ID), HotelCursor.decode(page.nextCursor()));
+        verifyNoInteractions(hotelRepository);
+    }
+    
+    @Test
+    void save_ShouldPublishChangedHotel() {
+        // Given
+        when(hotelRepository.save(testHotel)).thenReturn(testHotel);
+        
+        // When
+        hotelService.save(testHotel);
+        
+        // Then
+        verify(eventPublisher).publishEvent(new HotelsChangedEvent(List.of(testHotel)));
+    }
+    
+    @Test
+    void save_WithChangedRoomCount_ShouldMoveTheLedgerInTheSameTransaction() {
+        // Given - hotel 1 lives on the home shard and grows from 10 to 12 rooms
+        Hotel bigger = new Hotel("Test Hotel", "Bangkok", "Thailand", 4, BigDecimal.valueOf(150.0), 12);
+        bigger.setId(1L);
+        when(hotelRepository.lockById(1L)).thenReturn(Optional.of(testHotel));
+        when(hotelRepository.save(bigger)).thenReturn(bigger);
+        when(shards.of(1L)).thenReturn(Shards.HOME);
+        
+        // When
+        hotelService.save(bigger);
+        
+        // Then
+        verify(inventoryService).resize(1L, 2);
+    }
+    
+    @Test
+    void onHotelsChanged_ShouldReadTheCatalogFromThePrimaryForAWhile() {
+        // Given
+        hotelCache.getById(1L, id -> testHotel);
+        
+        // When
+        hotelService.onHotelsChanged(new HotelsChangedEvent(List.of(testHotel)));
+        
+        // Then - the reload cannot come from a replica that has not seen the change yet
+        assertTrue(readYourWrites.wroteRecently(ReadYourWrites.CATALOG));
+        when(hotelRepository.findById(1L)).thenReturn(Optional.of(testHotel));
+        assertEquals(Optional.of(testHotel), hotelService.findById(1L));
+        verify(readYourWrites).read(eq(ReadYourWrites.CATALOG), any());
     }
 }
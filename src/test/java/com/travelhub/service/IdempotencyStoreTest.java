@@ -0,0 +1,77 @@
+package com.travelhub.service;
+
+import com.travelhub.dto.IdempotentBooking;
+import com.travelhub.model.Booking;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+    
+    private IdempotencyStore store;
+    
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(100, Duration.ofHours(1));
+    }
+    
+    @Test
+    void execute_WithConcurrentRetries_ShouldRunTheFirstRequestOnly() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Booking booking = new Booking();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<IdempotentBooking> first = executor.submit(() -> store.execute("key-1", () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                await(release);
+                return new IdempotentBooking(booking, false);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            
+            Future<IdempotentBooking> retry = executor.submit(() -> store.execute("key-1", () -> {
+                runs.incrementAndGet();
+                return new IdempotentBooking(new Booking(), false);
+            }));
+            release.countDown();
+            
+            assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+            IdempotentBooking replayed = retry.get(5, TimeUnit.SECONDS);
+            assertTrue(replayed.replayed());
+            assertSame(booking, replayed.booking());
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void execute_AfterFailure_ShouldLetTheKeyBeRetried() {
+        assertThrows(IllegalStateException.class, () -> store.execute("key-1", () -> {
+            throw new IllegalStateException("No rooms available");
+        }));
+        
+        IdempotentBooking outcome = store.execute("key-1", () -> new IdempotentBooking(new Booking(), false));
+        
+        assertFalse(outcome.replayed());
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.travelhub.service;
+
+import com.travelhub.dto.BookingRequest;
+import com.travelhub.model.RoomInventory;
+import com.travelhub.repository.RoomInventoryRepository;
+import com.travelhub.service.InventoryService.Locking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many threads booking overlapping stays at one hotel, once with the conditional
+ * update and once with row locks. Checks the ledger against the bookings that
+ * succeeded; the throughput of each mode is only measured and logged by the
+ * load-tagged test, run with mvn test -Pload-test.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryLockingStressTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(InventoryLockingStressTest.class);
+    
+    private static final long HOTEL_ID = 4L; // 12 rooms per night
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS = 400;
+    private static final int WINDOW_NIGHTS = 20;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+    
+    @AfterEach
+    void restoreLocking() {
+        ReflectionTestUtils.setField(inventoryService, "locking", Locking.CONDITIONAL_UPDATE);
+    }
+    
+    @Test
+    void hammeringOneHotel_ShouldNeverOverbookWithEitherLockingMode() throws Exception {
+        // When
+        Result conditional = hammer(Locking.CONDITIONAL_UPDATE, LocalDate.now().plusDays(270));
+        Result pessimistic = hammer(Locking.PESSIMISTIC, LocalDate.now().plusDays(310));
+        
+        // Then - every attempt either booked or found the stay full
+        assertLedgerMatches(conditional);
+        assertLedgerMatches(pessimistic);
+    }
+    
+    @Test
+    @Tag("load")
+    void hammeringOneHotel_ShouldReportTheThroughputOfEachLockingMode() throws Exception {
+        // When
+        Result conditional = hammer(Locking.CONDITIONAL_UPDATE, LocalDate.now().plusDays(120));
+        Result pessimistic = hammer(Locking.PESSIMISTIC, LocalDate.now().plusDays(160));
+        
+        // Then
+        log.info("conditional-update: {} booked, {} full, {} ops/s",
+                 conditional.booked().size(), conditional.full(), Math.round(conditional.throughput()));
+        log.info("pessimistic: {} booked, {} full, {} ops/s",
+                 pessimistic.booked().size(), pessimistic.full(), Math.round(pessimistic.throughput()));
+        assertLedgerMatches(conditional);
+        assertLedgerMatches(pessimistic);
+    }
+    
+    private Result hammer(Locking locking, LocalDate windowStart) throws Exception {
+        ReflectionTestUtils.setField(inventoryService, "locking", locking);
+        Queue<BookingRequest> booked = new ConcurrentLinkedQueue<>();
+        AtomicInteger full = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                SplittableRandom random = new SplittableRandom(t);
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < ATTEMPTS / THREADS; i++) {
+                        LocalDate checkIn = windowStart.plusDays(random.nextInt(WINDOW_NIGHTS - 2));
+                        BookingRequest request = new BookingRequest();
+                        request.setHotelId(HOTEL_ID);
+                        request.setCustomerEmail("stress@example.com");
+                        request.setCustomerName("Stress Guest");
+                        request.setCheckInDate(checkIn);
+                        request.setCheckOutDate(checkIn.plusDays(1 + random.nextInt(3)));
+                        request.setNumberOfGuests(1 + random.nextInt(2));
+                        try {
+                            bookingService.createBooking(request);
+                            booked.add(request);
+                        } catch (RuntimeException e) {
+                            if ("Not enough rooms available".equals(e.getMessage())) {
+                                full.incrementAndGet();
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        return new Result(windowStart, List.copyOf(booked), full.get(), errors.get(), ATTEMPTS / seconds);
+    }
+    
+    private void assertLedgerMatches(Result result) {
+        assertEquals(0, result.errors());
+        assertTrue(result.booked().size() > 0);
+        Map<LocalDate, Integer> sold = new HashMap<>();
+        for (BookingRequest request : result.booked()) {
+            InventoryService.nightsOf(request.getCheckInDate(), request.getCheckOutDate())
+                .forEach(night -> sold.merge(night, request.getNumberOfGuests(), Integer::sum));
+        }
+        List<RoomInventory> nights = roomInventoryRepository.findAll().stream()
+            .filter(night -> night.getHotelId().equals(HOTEL_ID))
+            .filter(night -> !night.getStayDate().isBefore(result.windowStart()))
+            .filter(night -> night.getStayDate().isBefore(result.windowStart().plusDays(WINDOW_NIGHTS)))
+            .toList();
+        for (RoomInventory night : nights) {
+            assertTrue(night.getAvailableRooms() >= 0, "overbooked " + night.getStayDate());
+            assertEquals(sold.getOrDefault(night.getStayDate(), 0),
+                         night.getTotalRooms() - night.getAvailableRooms(), "ledger drift on " + night.getStayDate());
+        }
+    }
+    
+    record Result(LocalDate windowStart, List<BookingRequest> booked, int full, int errors, double throughput) {}
+}
@@ -0,0 +1,254 @@
+package com.travelhub.service;
+
+import com.travelhub.dto.BatchBookingResult;
+import com.travelhub.dto.BookingRequest;
+import com.travelhub.model.Hotel;
+import com.travelhub.model.RoomInventory;
+import com.travelhub.repository.HotelRepository;
+import com.travelhub.repository.RoomInventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryServiceTest {
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+    
+    @Autowired
+    private HotelService hotelService;
+    
+    @Autowired
+    private HotelRepository hotelRepository;
+    
+    @Test
+    void concurrentBookings_ShouldNeverOverbookANight() throws Exception {
+        // Given - hotel 2 has 5 rooms per night, 20 guests race for the same stay
+        LocalDate checkIn = LocalDate.now().plusDays(200);
+        LocalDate checkOut = checkIn.plusDays(3);
+        
+        // When
+        int succeeded = bookConcurrently(2L, checkIn, checkOut, 20);
+        
+        // Then
+        assertEquals(5, succeeded);
+        roomInventoryRepository.findAll().stream()
+            .filter(night -> night.getHotelId().equals(2L))
+            .filter(night -> !night.getStayDate().isBefore(checkIn) && night.getStayDate().isBefore(checkOut))
+            .forEach(night -> assertEquals(0, night.getAvailableRooms()));
+    }
+    
+    @Test
+    void bookingsForDifferentNights_ShouldNotCompeteForRooms() throws Exception {
+        // Given - hotel 3 has 8 rooms per night
+        LocalDate firstStay = LocalDate.now().plusDays(220);
+        LocalDate secondStay = firstStay.plusDays(10);
+        
+        // When
+        int first = bookConcurrently(3L, firstStay, firstStay.plusDays(2), 8);
+        int second = bookConcurrently(3L, secondStay, secondStay.plusDays(2), 8);
+        
+        // Then
+        assertEquals(8, first);
+        assertEquals(8, second);
+    }
+    
+    @Test
+    void batchWithAFullStay_ShouldLeaveNoPartialDecrements() {
+        // Given - hotel 2 has 5 rooms per night, the second stay overlaps the first and cannot fit
+        LocalDate checkIn = LocalDate.now().plusDays(240);
+        BookingRequest first = request(2L, checkIn, checkIn.plusDays(3), 3);
+        BookingRequest tooLarge = request(2L, checkIn.plusDays(1), checkIn.plusDays(5), 3);
+        BookingRequest last = request(2L, checkIn.plusDays(3), checkIn.plusDays(5), 2);
+        
+        // When
+        List<BatchBookingResult> results = bookingService.createBookings(List.of(first, tooLarge, last));
+        
+        // Then
+        assertTrue(results.get(0).success());
+        assertFalse(results.get(1).success());
+        assertTrue(results.get(2).success());
+        List<Integer> available = roomInventoryRepository.findAll().stream()
+            .filter(night -> night.getHotelId().equals(2L))
+            .filter(night -> !night.getStayDate().isBefore(checkIn) && night.getStayDate().isBefore(checkIn.plusDays(5)))
+            .sorted(Comparator.comparing(RoomInventory::getStayDate))
+            .map(RoomInventory::getAvailableRooms)
+            .toList();
+        assertEquals(List.of(2, 2, 2, 3, 3), available);
+    }
+    
+    @Test
+    void cancellationsRacingNewBookings_ShouldReleaseEachStayExactlyOnce() throws Exception {
+        // Given - hotel 3 has 8 rooms per night, all of them booked
+        LocalDate checkIn = LocalDate.now().plusDays(250);
+        LocalDate checkOut = checkIn.plusDays(2);
+        List<String> references = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            references.add(bookingService.createBooking(request(3L, checkIn, checkOut, 1)).getBookingReference());
+        }
+        
+        // When - four stays are each cancelled twice while eight new guests try to book
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> cancels = new ArrayList<>();
+        List<Future<Boolean>> bookings = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                String reference = references.get(i % 4);
+                cancels.add(executor.submit(() -> bookingService.cancelBooking(reference)));
+                BookingRequest request = request(3L, checkIn, checkOut, 1);
+                bookings.add(executor.submit(() -> {
+                    try {
+                        bookingService.createBooking(request);
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                }));
+            }
+            int cancelled = 0;
+            int rebooked = 0;
+            for (int i = 0; i < 8; i++) {
+                cancelled += cancels.get(i).get() ? 1 : 0;
+                rebooked += bookings.get(i).get() ? 1 : 0;
+            }
+            
+            // Then - no lost update in either direction
+            assertEquals(4, cancelled);
+            assertTrue(rebooked <= 4);
+            int expected = 4 - rebooked;
+            roomInventoryRepository.findAll().stream()
+                .filter(night -> night.getHotelId().equals(3L))
+                .filter(night -> !night.getStayDate().isBefore(checkIn) && night.getStayDate().isBefore(checkOut))
+                .forEach(night -> assertEquals(expected, night.getAvailableRooms()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    void save_WithMoreRooms_ShouldAddThemToBookedNights() throws Exception {
+        // Given - both rooms of a new hotel are booked
+        Hotel hotel = hotelService.save(new Hotel("Annex Inn", "Ledgerton", "Nowhere", 3, new BigDecimal("90.00"), 2));
+        LocalDate checkIn = LocalDate.now().plusDays(260);
+        assertEquals(2, bookConcurrently(hotel.getId(), checkIn, checkIn.plusDays(2), 2));
+        
+        // When
+        hotel.setAvailableRooms(4);
+        hotelService.save(hotel);
+        
+        // Then - the booked rooms stay taken, the new ones can be booked
+        assertEquals(List.of(4, 4), totalRooms(hotel.getId(), checkIn, checkIn.plusDays(2)));
+        assertEquals(List.of(2, 2), availableRooms(hotel.getId(), checkIn, checkIn.plusDays(2)));
+        assertEquals(2, bookConcurrently(hotel.getId(), checkIn, checkIn.plusDays(2), 4));
+    }
+    
+    @Test
+    void save_WithFewerRoomsThanBooked_ShouldBeRefusedAndChangeNothing() throws Exception {
+        // Given - two of three rooms are booked
+        Hotel hotel = hotelService.save(new Hotel("Narrow Inn", "Ledgerton", "Nowhere", 3, new BigDecimal("90.00"), 3));
+        LocalDate checkIn = LocalDate.now().plusDays(265);
+        assertEquals(2, bookConcurrently(hotel.getId(), checkIn, checkIn.plusDays(2), 2));
+        
+        // When
+        hotel.setAvailableRooms(1);
+        assertThrows(IllegalStateException.class, () -> hotelService.save(hotel));
+        
+        // Then - neither the ledger nor the hotel moved
+        assertEquals(List.of(3, 3), totalRooms(hotel.getId(), checkIn, checkIn.plusDays(2)));
+        assertEquals(List.of(1, 1), availableRooms(hotel.getId(), checkIn, checkIn.plusDays(2)));
+        assertEquals(3, hotelRepository.findById(hotel.getId()).orElseThrow().getAvailableRooms());
+    }
+    
+    @Test
+    void save_WithFewerRoomsThanFree_ShouldTakeThemOffEveryNight() throws Exception {
+        // Given - one of four rooms is booked
+        Hotel hotel = hotelService.save(new Hotel("Shrinking Inn", "Ledgerton", "Nowhere", 3, new BigDecimal("90.00"), 4));
+        LocalDate checkIn = LocalDate.now().plusDays(270);
+        assertEquals(1, bookConcurrently(hotel.getId(), checkIn, checkIn.plusDays(2), 1));
+        
+        // When
+        hotel.setAvailableRooms(2);
+        hotelService.save(hotel);
+        
+        // Then - one room is left to book
+        assertEquals(List.of(2, 2), totalRooms(hotel.getId(), checkIn, checkIn.plusDays(2)));
+        assertEquals(List.of(1, 1), availableRooms(hotel.getId(), checkIn, checkIn.plusDays(2)));
+        assertEquals(1, bookConcurrently(hotel.getId(), checkIn, checkIn.plusDays(2), 3));
+    }
+    
+    private List<Integer> totalRooms(Long hotelId, LocalDate checkIn, LocalDate checkOut) {
+        return stay(hotelId, checkIn, checkOut).stream().map(RoomInventory::getTotalRooms).toList();
+    }
+    
+    private List<Integer> availableRooms(Long hotelId, LocalDate checkIn, LocalDate checkOut) {
+        return stay(hotelId, checkIn, checkOut).stream().map(RoomInventory::getAvailableRooms).toList();
+    }
+    
+    private List<RoomInventory> stay(Long hotelId, LocalDate checkIn, LocalDate checkOut) {
+        return roomInventoryRepository.findAll().stream()
+            .filter(night -> night.getHotelId().equals(hotelId))
+            .filter(night -> !night.getStayDate().isBefore(checkIn) && night.getStayDate().isBefore(checkOut))
+            .sorted(Comparator.comparing(RoomInventory::getStayDate))
+            .toList();
+    }
+    
+    private int bookConcurrently(Long hotelId, LocalDate checkIn, LocalDate checkOut, int attempts)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                BookingRequest request = request(hotelId, checkIn, checkOut, 1);
+                
+                Callable<Boolean> booking = () -> {
+                    try {
+                        bookingService.createBooking(request);
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                };
+                results.add(executor.submit(booking));
+            }
+            
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    private static BookingRequest request(Long hotelId, LocalDate checkIn, LocalDate checkOut, int guests) {
+        BookingRequest request = new BookingRequest();
+        request.setHotelId(hotelId);
+        request.setCustomerEmail("guest@example.com");
+        request.setCustomerName("Guest");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkOut);
+        request.setNumberOfGuests(guests);
+        return request;
+    }
+}
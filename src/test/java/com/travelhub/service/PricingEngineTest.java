@@ -0,0 +1,133 @@
+package com.travelhub.service;
+
+import com.travelhub.model.Hotel;
+import com.travelhub.service.PricingEngine.Quote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingEngineTest {
+    
+    // 10% on Friday and Saturday nights, 20% in August, 15.00 per guest beyond two, 7% tax
+    private static final PricingRules RULES = new PricingRules(1000, EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY),
+        2000, EnumSet.of(Month.AUGUST), 2, 1500, 700);
+    
+    private Hotel hotel;
+    
+    @BeforeEach
+    void setUp() {
+        hotel = new Hotel("Test Hotel", "Bangkok", "Thailand", 4, new BigDecimal("150.00"), 10);
+        hotel.setId(1L);
+    }
+    
+    @Test
+    void totalMinor_WithFlatRules_ShouldBePriceTimesNights() {
+        PricingEngine engine = new PricingEngine(PricingRules.flat(), 365);
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        
+        assertEquals(45_000, engine.totalMinor(hotel, checkIn, checkIn.plusDays(3), 4));
+    }
+    
+    @Test
+    void quote_ShouldApplyWeekendGuestAndTaxRules() {
+        // Given - Thursday to Sunday outside August: 150.00 + 165.00 + 165.00
+        PricingEngine engine = new PricingEngine(RULES, 365);
+        LocalDate thursday = nextOutsideAugust(DayOfWeek.THURSDAY);
+        
+        // When - three guests, one beyond the included two
+        Quote quote = engine.quote(hotel, thursday, thursday.plusDays(3), 3);
+        
+        // Then
+        assertEquals(3, quote.nights());
+        assertEquals(48_000, quote.roomsMinor());
+        assertEquals(4_500, quote.guestFeesMinor());
+        assertEquals(3_675, quote.taxMinor());
+        assertEquals(56_175, quote.totalMinor());
+        assertEquals(quote.totalMinor(), engine.totalMinor(hotel, thursday, thursday.plusDays(3), 3));
+    }
+    
+    @Test
+    void quote_InPeakMonth_ShouldCompoundWithWeekendSurcharge() {
+        // Given - a Saturday night in August: 150.00 * 1.10 * 1.20
+        PricingEngine engine = new PricingEngine(RULES, 3650);
+        LocalDate saturday = LocalDate.of(LocalDate.now().getYear() + 1, Month.AUGUST, 1)
+            .with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY));
+        
+        // When & Then
+        assertEquals(19_800, engine.quote(hotel, saturday, saturday.plusDays(1), 1).roomsMinor());
+    }
+    
+    @Test
+    void totalMinor_BeyondTheCalendar_ShouldMatchPricesInsideIt() {
+        // Given - one engine covers the stay with its calendar, the other prices it night by night
+        PricingEngine calendar = new PricingEngine(RULES, 400);
+        PricingEngine nightByNight = new PricingEngine(RULES, 0);
+        LocalDate checkIn = LocalDate.now().plusDays(20);
+        
+        // When & Then - across weeks and months, and straddling the end of the short calendar
+        assertEquals(nightByNight.totalMinor(hotel, checkIn, checkIn.plusDays(60), 2),
+                     calendar.totalMinor(hotel, checkIn, checkIn.plusDays(60), 2));
+        PricingEngine straddling = new PricingEngine(RULES, 40);
+        assertEquals(calendar.totalMinor(hotel, checkIn, checkIn.plusDays(60), 2),
+                     straddling.totalMinor(hotel, checkIn, checkIn.plusDays(60), 2));
+    }
+    
+    @Test
+    void totalMinor_AfterPriceChange_ShouldUseTheNewPrice() {
+        PricingEngine engine = new PricingEngine(PricingRules.flat(), 365);
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+        assertEquals(15_000, engine.totalMinor(hotel, checkIn, checkIn.plusDays(1), 1));
+        
+        hotel.setPricePerNight(new BigDecimal("99.99"));
+        
+        assertEquals(9_999, engine.totalMinor(hotel, checkIn, checkIn.plusDays(1), 1));
+    }
+    
+    @Test
+    void quote_WithoutPrice_ShouldThrow() {
+        PricingEngine engine = new PricingEngine(PricingRules.flat(), 365);
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+        Hotel unpriced = new Hotel("Unpriced", "Nowhere", "Nowhere", 3, null, 5);
+        unpriced.setId(2L);
+        
+        assertThrows(HotelNotPricedException.class, () -> engine.quote(unpriced, checkIn, checkIn.plusDays(2), 2));
+        assertThrows(HotelNotPricedException.class, () -> engine.totalMinor(unpriced, checkIn, checkIn.plusDays(2), 2));
+    }
+    
+    @Test
+    void totalMinor_PastMaxCalendars_ShouldRebuildTheEvictedOnes() {
+        PricingEngine engine = new PricingEngine(PricingRules.flat(), 365, 1);
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+        Hotel other = new Hotel("Other Hotel", "Bangkok", "Thailand", 3, new BigDecimal("80.00"), 10);
+        other.setId(2L);
+        
+        for (int i = 0; i < 3; i++) {
+            assertEquals(15_000, engine.totalMinor(hotel, checkIn, checkIn.plusDays(1), 1));
+            assertEquals(8_000, engine.totalMinor(other, checkIn, checkIn.plusDays(1), 1));
+        }
+    }
+    
+    @Test
+    void totalMinor_WithCheckOutBeforeCheckIn_ShouldThrow() {
+        PricingEngine engine = new PricingEngine(PricingRules.flat(), 365);
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+        
+        assertThrows(IllegalArgumentException.class, () -> engine.totalMinor(hotel, checkIn, checkIn, 1));
+    }
+    
+    private static LocalDate nextOutsideAugust(DayOfWeek day) {
+        LocalDate date = LocalDate.now().plusDays(7).with(TemporalAdjusters.next(day));
+        while (date.getMonth() == Month.JULY || date.getMonth() == Month.AUGUST) {
+            date = date.plusWeeks(1);
+        }
+        return date;
+    }
+}
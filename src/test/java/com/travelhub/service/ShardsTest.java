@@ -0,0 +1,101 @@
+package com.travelhub.service;
+
+import com.travelhub.datasource.ShardRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardsTest {
+    
+    private Shards shards;
+    
+    @BeforeEach
+    void setUp() {
+        shards = new Shards(List.of("jdbc:h2:mem:one", "jdbc:h2:mem:two"));
+        ReflectionTestUtils.setField(shards, "readOnlyTransaction", TransactionOperations.withoutTransaction());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        shards.destroy();
+    }
+    
+    @Test
+    void onEach_ShouldRunOnEveryShardAndKeepShardOrder() {
+        // When
+        List<Integer> seen = shards.onEach(ShardRoutingDataSource::current);
+        
+        // Then
+        assertEquals(List.of(0, 1, 2), seen);
+        assertEquals(2, shards.of(5L));
+        assertEquals(List.of(3L, 6L), shards.partition(List.of(3L, 4L, 6L, 5L), hotelId -> hotelId).get(0));
+        assertEquals(List.of(1, 2, 0), new ArrayList<>(shards.partition(List.of(4L, 5L, 6L), id -> id).keySet()));
+    }
+    
+    @Test
+    void on_InsideATransactionOnAnotherShard_ShouldRefuse() {
+        // Given
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            // When / Then - the transaction began on the home shard
+            assertEquals(0, shards.on(0, ShardRoutingDataSource::current));
+            assertThrows(IllegalStateException.class, () -> shards.on(1, ShardRoutingDataSource::current));
+            // a single database has nothing to switch
+            assertEquals(2, new Shards(List.of()).on(2, () -> 2));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(2, shards.find(() -> ShardRoutingDataSource.current() == 2));
+        assertEquals(0, shards.find(() -> false));
+    }
+    
+    @Test
+    void merge_ShouldInterleaveShardsAndCutThePage() {
+        // Given - every shard newest first
+        List<List<Integer>> sorted = List.of(List.of(9, 6, 3), List.of(8, 7, 1), List.of(), List.of(5));
+        
+        // When / Then
+        assertEquals(List.of(9, 8, 7, 6), Shards.merge(sorted, Comparator.reverseOrder(), 0, 4));
+        assertEquals(List.of(5, 3, 1), Shards.merge(sorted, Comparator.reverseOrder(), 4, 4));
+        assertEquals(List.of(), Shards.merge(sorted, Comparator.reverseOrder(), 8, 4));
+    }
+    
+    @Test
+    void forEachMerged_ShouldStreamEveryShardInOrderPastTheBuffers() {
+        // Given - shard n holds the numbers equal to n modulo 3, far more than a buffer
+        int perShard = Shards.MERGE_BUFFER * 4;
+        
+        // When
+        List<Integer> merged = new ArrayList<>();
+        shards.forEachMerged(() -> IntStream.range(0, perShard).map(i -> i * 3 + ShardRoutingDataSource.current()).boxed(),
+                             Comparator.naturalOrder(), merged::add);
+        
+        // Then
+        assertEquals(IntStream.range(0, perShard * 3).boxed().toList(), merged);
+    }
+    
+    @Test
+    void forEachMerged_WhenAShardFails_ShouldFailTheMergeWithItsError() {
+        // When
+        IllegalStateException failed = assertThrows(IllegalStateException.class, () -> shards.forEachMerged(() -> {
+            if (ShardRoutingDataSource.current() == 1) {
+                throw new IllegalStateException("shard 1 is down");
+            }
+            return Stream.iterate(0, i -> i + 1);
+        }, Comparator.naturalOrder(), row -> { }));
+        
+        // Then - the endless shards were stopped instead of filling their buffers forever
+        assertEquals("shard 1 is down", failed.getMessage());
+    }
+}
@@ -0,0 +1,105 @@
+package com.travelhub.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeReferenceGeneratorTest {
+    
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 500_000;
+    
+    @Test
+    void nextId_AcrossThreads_ShouldNeverRepeat() throws Exception {
+        // Given
+        SnowflakeReferenceGenerator generator = new SnowflakeReferenceGenerator(7);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        
+        // When - 4 million ids, far more than 4096 per millisecond
+        long[] ids = new long[THREADS * PER_THREAD];
+        try {
+            List<Future<long[]>> batches = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                batches.add(executor.submit(() -> {
+                    long[] batch = new long[PER_THREAD];
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        batch[i] = generator.nextId();
+                    }
+                    return batch;
+                }));
+            }
+            for (int t = 0; t < THREADS; t++) {
+                System.arraycopy(batches.get(t).get(), 0, ids, t * PER_THREAD, PER_THREAD);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        // Then
+        Arrays.sort(ids);
+        for (int i = 1; i < ids.length; i++) {
+            assertNotEquals(ids[i - 1], ids[i], "duplicate id at " + i);
+        }
+    }
+    
+    @Test
+    void nextId_WhenClockStandsStill_ShouldBorrowFromNextMillisecond() {
+        // Given
+        SnowflakeReferenceGenerator generator = new SnowflakeReferenceGenerator(1, () -> SnowflakeReferenceGenerator.EPOCH);
+        
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        generator.bindTo(registry);
+        
+        // When
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long next = generator.nextId();
+            
+            // Then
+            assertTrue(next > previous);
+            previous = next;
+        }
+        // everything past the first 4096 of the millisecond came from later ones
+        assertEquals(10_001 - 4096, registry.get("booking.reference.borrowed").functionCounter().count());
+    }
+    
+    @Test
+    void nextId_OnDifferentNodesAtSameInstant_ShouldDiffer() {
+        // Given
+        long now = SnowflakeReferenceGenerator.EPOCH + 1_000;
+        SnowflakeReferenceGenerator first = new SnowflakeReferenceGenerator(1, () -> now);
+        SnowflakeReferenceGenerator second = new SnowflakeReferenceGenerator(2, () -> now);
+        
+        // When & Then
+        assertNotEquals(first.next(), second.next());
+    }
+    
+    @Test
+    void next_ShouldBeFixedWidthAndSortLikeTheId() {
+        // Given
+        SnowflakeReferenceGenerator generator = new SnowflakeReferenceGenerator(0);
+        
+        // When
+        String first = generator.next();
+        String second = generator.next();
+        
+        // Then
+        assertTrue(first.matches("TH-[0-9A-HJKMNP-TV-Z]{13}"));
+        assertTrue(first.compareTo(second) < 0);
+        assertEquals("TH-0000000000000", SnowflakeReferenceGenerator.encode(0));
+    }
+    
+    @Test
+    void constructor_WithNodeIdOutOfRange_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeReferenceGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeReferenceGenerator(-1));
+    }
+}